@@ -7,10 +7,24 @@ import cm.gov.pki.repository.CertificateRepository;
 import cm.gov.pki.repository.CertificateRequestRepository;
 import cm.gov.pki.repository.UserRepository;
 import cm.gov.pki.service.CAService;
+import cm.gov.pki.service.CertificateChainService;
+import cm.gov.pki.service.CertificateDetailsService;
+import cm.gov.pki.service.CrlPublicationService;
+import cm.gov.pki.entity.CrlPublication;
+import cm.gov.pki.service.DashboardCounterService;
+import cm.gov.pki.service.DashboardStreamService;
+import cm.gov.pki.event.CertificateRequestStatusChangedEvent;
+import cm.gov.pki.event.UserDeletedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import cm.gov.pki.service.IssuingCASelector;
 import cm.gov.pki.service.EmailService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,24 +43,48 @@ public class AdminController {
 	private final CertificateRequestRepository certificateRequestRepository;
 	private final CAService caService;
 	private final EmailService emailService;
+	private final CertificateChainService certificateChainService;
+	private final CertificateDetailsService certificateDetailsService;
+	private final IssuingCASelector issuingCASelector;
+	private final CrlPublicationService crlPublicationService;
+	private final DashboardCounterService dashboardCounters;
+	private final DashboardStreamService dashboardStream;
+	private final ApplicationEventPublisher eventPublisher;
+	private final EntityManagerFactory entityManagerFactory;
 
 	public AdminController(CAConfigurationRepository caConfigurationRepository,
 						   UserRepository userRepository,
 						   CertificateRepository certificateRepository,
 						   CertificateRequestRepository certificateRequestRepository,
 						   CAService caService,
-						   EmailService emailService) {
+						   EmailService emailService,
+						   CertificateChainService certificateChainService,
+						   CertificateDetailsService certificateDetailsService,
+						   IssuingCASelector issuingCASelector,
+						   CrlPublicationService crlPublicationService,
+						   DashboardCounterService dashboardCounters,
+						   DashboardStreamService dashboardStream,
+						   ApplicationEventPublisher eventPublisher,
+						   EntityManagerFactory entityManagerFactory) {
 		this.caConfigurationRepository = caConfigurationRepository;
 		this.userRepository = userRepository;
 		this.certificateRepository = certificateRepository;
 		this.certificateRequestRepository = certificateRequestRepository;
 		this.caService = caService;
 		this.emailService = emailService;
+		this.certificateChainService = certificateChainService;
+		this.certificateDetailsService = certificateDetailsService;
+		this.issuingCASelector = issuingCASelector;
+		this.crlPublicationService = crlPublicationService;
+		this.dashboardCounters = dashboardCounters;
+		this.dashboardStream = dashboardStream;
+		this.eventPublisher = eventPublisher;
+		this.entityManagerFactory = entityManagerFactory;
 	}
 
 	@GetMapping({"/ca-status", "/ca/status"})
 	public ResponseEntity<CAConfiguration> getCaStatus() {
-		return caConfigurationRepository.findTopByOrderByCreatedAtDesc()
+		return caConfigurationRepository.findFirstByParentIdIsNullOrderByCreatedAtDesc()
 				.map(ResponseEntity::ok)
 				.orElse(ResponseEntity.notFound().build());
 	}
@@ -54,10 +92,10 @@ public class AdminController {
 	@GetMapping("/stats")
 	public ResponseEntity<Map<String, Object>> stats() {
 		Map<String, Object> m = new HashMap<>();
-		m.put("users", userRepository.count());
-		m.put("certificates", certificateRepository.count());
-		m.put("certificateRequests", certificateRequestRepository.count());
-		m.put("activeCA", caConfigurationRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc().isPresent());
+		m.put("users", dashboardCounters.users());
+		m.put("certificates", dashboardCounters.totalCertificates());
+		m.put("certificateRequests", dashboardCounters.totalRequests());
+		m.put("activeCA", caConfigurationRepository.findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc().isPresent());
 		return ResponseEntity.ok(m);
 	}
 
@@ -66,21 +104,15 @@ public class AdminController {
 		try {
 			Map<String, Object> dashboard = new HashMap<>();
 			
-			// Compter les utilisateurs
-			long totalUsers = userRepository.count();
+			// Compteurs tenus en mémoire (aucune requête COUNT)
+			long totalUsers = dashboardCounters.users();
+			long pendingRequests = dashboardCounters.requests("PENDING");
+			long activeCertificates = dashboardCounters.certificates(Certificate.CertificateStatus.ACTIVE);
+			long revokedCertificates = dashboardCounters.certificates(Certificate.CertificateStatus.REVOKED);
 			
-			// Compter les demandes en attente
-			long pendingRequests = certificateRequestRepository.countByStatus("PENDING");
-			
-			// Compter les certificats actifs
-			long activeCertificates = certificateRepository.countByStatus(Certificate.CertificateStatus.ACTIVE);
-			
-			// Compter les certificats révoqués
-			long revokedCertificates = certificateRepository.countByStatus(Certificate.CertificateStatus.REVOKED);
-			
-			// Récupérer le statut de l'AC
+			// Récupérer le statut de l'AC racine (les intermédiaires ont leur propre entrée)
 			Map<String, Object> caStatus = new HashMap<>();
-			var caOpt = caConfigurationRepository.findTopByOrderByCreatedAtDesc();
+			var caOpt = caConfigurationRepository.findFirstByParentIdIsNullOrderByCreatedAtDesc();
 			if (caOpt.isPresent()) {
 				CAConfiguration ca = caOpt.get();
 				caStatus.put("isActive", ca.isActive != null ? ca.isActive : false);
@@ -116,25 +148,121 @@ public class AdminController {
 		}
 	}
 
+	/**
+	 * Flux SSE du tableau de bord : état initial, deltas des compteurs et nouvelles demandes
+	 */
+	@GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamDashboard() {
+		return dashboardStream.subscribe();
+	}
+
 	@PostMapping({"/generate-ca", "/ca/initialize"})
-	public ResponseEntity<CAConfiguration> generateCa(@RequestParam(value = "name", defaultValue = "PKI Souverain Root CA") String name) {
-		CAConfiguration config = caService.generateRootCA(name, 4096, 3650);
+	public ResponseEntity<CAConfiguration> generateCa(@RequestParam(value = "name", defaultValue = "PKI Souverain Root CA") String name,
+													 @RequestParam(value = "algorithm", defaultValue = "RSA") String algorithm,
+													 @RequestParam(value = "keySize", defaultValue = "4096") int keySize) {
+		CAConfiguration config = caService.generateRootCA(name, algorithm, keySize, 3650);
 		return ResponseEntity.ok(config);
 	}
 
 	@PostMapping(value = "/sign-csr", consumes = "text/plain")
 	public ResponseEntity<Map<String, String>> signCsr(@RequestBody String csrPem,
 													   @RequestParam(value = "validityDays", defaultValue = "365") int validityDays,
-													   @RequestParam(value = "userId", required = false) java.util.UUID userId) {
-		String certPem = caService.signCSR(csrPem, validityDays, userId);
+													   @RequestParam(value = "userId", required = false) java.util.UUID userId,
+													   @RequestParam(value = "profile", required = false) String profile) {
+		CAService.IssuedCertificate issued = caService.issue(csrPem, validityDays, userId, null, profile);
 		Map<String, String> resp = new HashMap<>();
-		resp.put("certificate", certPem);
+		resp.put("certificate", issued.pem());
+		resp.put("chain", certificateChainService.getChainForIssuer(issued.issuerCaId()).pem());
+		resp.put("issuerCaId", issued.issuerCaId().toString());
+		return ResponseEntity.ok(resp);
+	}
+
+	@PostMapping(value = "/sign-csr/batch", consumes = "application/json")
+	public ResponseEntity<Map<String, Object>> signCsrBatch(@RequestBody java.util.List<String> csrPems,
+															@RequestParam(value = "validityDays", defaultValue = "365") int validityDays,
+															@RequestParam(value = "userId", required = false) java.util.UUID userId,
+															@RequestParam(value = "profile", required = false) String profile) {
+		if (csrPems == null || csrPems.isEmpty()) {
+			return ResponseEntity.status(400).body(Map.of("error", "No CSR provided"));
+		}
+		java.util.List<CAService.IssuedCertificate> issued = caService.issueBatch(csrPems, validityDays, userId, profile);
+		java.util.UUID issuerCaId = issued.get(0).issuerCaId();
+		Map<String, Object> resp = new HashMap<>();
+		resp.put("certificates", issued.stream().map(CAService.IssuedCertificate::pem).toList());
+		resp.put("chain", certificateChainService.getChainForIssuer(issuerCaId).pem());
+		resp.put("issuerCaId", issuerCaId.toString());
+		return ResponseEntity.ok(resp);
+	}
+
+	@PostMapping("/ca/{id}/key-to-token")
+	public ResponseEntity<CAConfiguration> moveKeyToToken(@PathVariable("id") java.util.UUID id,
+														  @RequestParam(value = "alias") String alias) {
+		return ResponseEntity.ok(caService.moveKeyToToken(id, alias));
+	}
+
+	@GetMapping("/ca/issuing")
+	public ResponseEntity<Map<String, Object>> listIssuingCAs() {
+		var items = issuingCASelector.candidates().stream().map(ca -> {
+			Map<String, Object> m = new HashMap<>();
+			m.put("id", ca.id);
+			m.put("caName", ca.caName);
+			m.put("issuingProfile", ca.issuingProfile);
+			m.put("inFlight", issuingCASelector.load(ca));
+			return m;
+		}).toList();
+		Map<String, Object> resp = new HashMap<>();
+		resp.put("policy", issuingCASelector.getPolicy().name());
+		resp.put("items", items);
 		return ResponseEntity.ok(resp);
 	}
 
+	@PostMapping("/ca/{id}/issuing")
+	public ResponseEntity<CAConfiguration> setIssuing(@PathVariable("id") java.util.UUID id,
+													  @RequestParam(value = "enabled", defaultValue = "true") boolean enabled,
+													  @RequestParam(value = "profile", required = false) String profile) {
+		return ResponseEntity.ok(caService.setIssuing(id, enabled, profile));
+	}
+
+	/**
+	 * Purge le cache de second niveau de ce nœud (modification faite hors de l'application ou sur un autre nœud)
+	 */
+	@PostMapping("/cache/evict")
+	public ResponseEntity<Map<String, String>> evictCaches() {
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		issuingCASelector.refresh();
+		certificateChainService.invalidateAll();
+		certificateDetailsService.invalidateAll();
+		caService.invalidateIssuanceTemplates();
+		log.info("Cache de second niveau purgé");
+		return ResponseEntity.ok(Map.of("message", "Caches purgés"));
+	}
+
+	@GetMapping("/ca/{id}/chain")
+	public ResponseEntity<?> getCaChain(@PathVariable("id") java.util.UUID id,
+										@RequestParam(value = "format", defaultValue = "pem") String format) {
+		var caOpt = caConfigurationRepository.findById(id);
+		if (caOpt.isEmpty()) return ResponseEntity.status(404).build();
+		CertificateChainService.ChainBundle chain = certificateChainService.getChain(caOpt.get());
+		if ("p7b".equalsIgnoreCase(format)) {
+			return ResponseEntity.ok()
+					.header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"chain.p7b\"")
+					.contentType(org.springframework.http.MediaType.parseMediaType("application/x-pkcs7-certificates"))
+					.body(chain.pkcs7());
+		}
+		return ResponseEntity.ok()
+				.contentType(org.springframework.http.MediaType.parseMediaType("application/x-pem-file"))
+				.body(chain.pem());
+	}
+
 	@PostMapping("/create-keystore")
-	public ResponseEntity<Map<String, String>> createKeystore(@RequestParam(value = "password") String password) {
-		CAConfiguration ca = caConfigurationRepository.findTopByOrderByCreatedAtDesc().orElseThrow(() -> new RuntimeException("No CA found"));
+	public ResponseEntity<Map<String, String>> createKeystore(
+			@RequestParam(value = "password") String password,
+			@RequestParam(value = "caId", required = false) java.util.UUID caId) {
+		// AC désignée explicitement, sinon la racine
+		CAConfiguration ca = (caId != null
+				? caConfigurationRepository.findById(caId)
+				: caConfigurationRepository.findFirstByParentIdIsNullOrderByCreatedAtDesc())
+				.orElseThrow(() -> new RuntimeException("No CA found"));
 		java.nio.file.Path ks = caService.createKeystore(ca, password);
 		Map<String, String> m = new HashMap<>();
 		m.put("keystorePath", ks.toAbsolutePath().toString());
@@ -145,8 +273,10 @@ public class AdminController {
 	public ResponseEntity<Map<String, String>> generateCsr(
 			@RequestParam(value = "cn", defaultValue = "example.com") String cn,
 			@RequestParam(value = "o", defaultValue = "Test Organization") String org,
-			@RequestParam(value = "c", defaultValue = "CM") String country) {
-		String csrPem = caService.generateCSR(cn, org, country);
+			@RequestParam(value = "c", defaultValue = "CM") String country,
+			@RequestParam(value = "algorithm", defaultValue = "RSA") String algorithm,
+			@RequestParam(value = "keySize", defaultValue = "2048") int keySize) {
+		String csrPem = caService.generateCSR(cn, org, country, algorithm, keySize);
 		Map<String, String> resp = new HashMap<>();
 		resp.put("csr", csrPem);
 		return ResponseEntity.ok(resp);
@@ -155,16 +285,16 @@ public class AdminController {
 	@PostMapping("/generate-intermediate-ca")
 	public ResponseEntity<CAConfiguration> generateIntermediateCA(
 			@RequestParam(value = "name", defaultValue = "PKI Intermediate CA") String name,
+			@RequestParam(value = "algorithm", defaultValue = "RSA") String algorithm,
 			@RequestParam(value = "keySize", defaultValue = "4096") int keySize,
 			@RequestParam(value = "validityDays", defaultValue = "3650") int validityDays) {
-		CAConfiguration config = caService.generateIntermediateCA(name, keySize, validityDays);
+		CAConfiguration config = caService.generateIntermediateCA(name, algorithm, keySize, validityDays);
 		return ResponseEntity.ok(config);
 	}
 
 	@PostMapping("/generate-crl")
-	public ResponseEntity<Map<String, String>> generateCRL() {
-		CAConfiguration ca = caConfigurationRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
-				.orElseThrow(() -> new RuntimeException("No active CA found"));
+	public ResponseEntity<Map<String, String>> generateCRL(@RequestParam(value = "caId", required = false) java.util.UUID caId) {
+		CAConfiguration ca = findCaOrIssuing(caId);
 		String crlPem = caService.generateCRL(ca);
 		Map<String, String> resp = new HashMap<>();
 		resp.put("crl", crlPem);
@@ -183,42 +313,44 @@ public class AdminController {
 				.orElseThrow(() -> new RuntimeException("No admin user found"));
 		}
 		caService.revokeCertificate(certId, reason == null ? "unspecified" : reason, admin);
-		CAConfiguration ca = caConfigurationRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
-				.orElseThrow(() -> new RuntimeException("No active CA found"));
+		Certificate cert = certificateRepository.findById(certId)
+				.orElseThrow(() -> new RuntimeException("Certificate not found"));
+		CAConfiguration ca = caService.resolveIssuerOf(cert);
+		int shard = caService.crlShardOf(ca, new java.math.BigInteger(cert.getSerialNumber()));
 		Map<String, String> resp = new HashMap<>();
-		resp.put("crlPath", ca.caCrlPath);
+		resp.put("crlPath", crlPublicationService.find(ca.id, shard).map(CrlPublication::getPath).orElse(null));
+		resp.put("crlUrl", caService.crlUrlFor(ca, shard));
 		return ResponseEntity.ok(resp);
 	}
 
 	@GetMapping("/crl")
-	public ResponseEntity<String> downloadCrl() throws Exception {
-		CAConfiguration ca = caConfigurationRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
-			.orElseThrow(() -> new RuntimeException("No active CA found"));
-		if (ca.caCrlPath == null) {
-			String crl = caService.generateCRL(ca);
-			return ResponseEntity.ok(crl);
-		}
-		java.nio.file.Path p = java.nio.file.Path.of(ca.caCrlPath);
-		String content = java.nio.file.Files.readString(p);
-		return ResponseEntity.ok(content);
+	public ResponseEntity<String> downloadCrl(@RequestParam(value = "caId", required = false) java.util.UUID caId,
+				@RequestParam(value = "shard", defaultValue = "0") int shard) {
+		CAConfiguration ca = findCaOrIssuing(caId);
+		// Servie depuis la publication en mémoire ; publier d'abord via /rotate-crl
+		return crlPublicationService.current(ca.id, shard)
+				.map(crl -> ResponseEntity.ok(new String(crl.pem(), java.nio.charset.StandardCharsets.US_ASCII)))
+				.orElse(ResponseEntity.notFound().build());
 	}
 
 	@PostMapping("/rotate-crl")
-	public ResponseEntity<Map<String, String>> rotateCrl() {
-		CAConfiguration ca = caConfigurationRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
-			.orElseThrow(() -> new RuntimeException("No active CA found"));
-		String crlPem = caService.generateCRL(ca);
-		java.nio.file.Path crlPath = java.nio.file.Path.of(caService.caStore, ca.caName.replaceAll("\\s+","_").toLowerCase() + ".crl.pem");
-		try {
-			java.nio.file.Files.writeString(crlPath, crlPem);
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
+	public ResponseEntity<Map<String, String>> rotateCrl(@RequestParam(value = "caId", required = false) java.util.UUID caId) {
+		CAConfiguration ca = findCaOrIssuing(caId);
+		java.util.List<CrlPublication> publications = crlPublicationService.publish(ca);
+		CrlPublication publication = publications.get(0);
 		Map<String, String> resp = new HashMap<>();
-		resp.put("crlPath", crlPath.toAbsolutePath().toString());
+		resp.put("crlPath", publication.getPath());
+		resp.put("crlNumber", Long.toString(publication.getCrlNumber()));
+		resp.put("sha256", publication.getSha256());
+		resp.put("shards", Integer.toString(publications.size()));
 		return ResponseEntity.ok(resp);
 	}
 
+	private CAConfiguration findCaOrIssuing(java.util.UUID caId) {
+		if (caId == null) return caService.resolveIssuingCA();
+		return caConfigurationRepository.findById(caId).orElseThrow(() -> new RuntimeException("CA not found"));
+	}
+
 	// --- Certificate request management for admins ---
 
 	@GetMapping("/certificate-requests")
@@ -278,7 +410,8 @@ public class AdminController {
 
 	@PostMapping("/certificate-requests/{id}/approve")
 	public ResponseEntity<?> approveRequest(Authentication authentication, @PathVariable("id") java.util.UUID id,
-										@RequestParam(value = "validityDays", defaultValue = "365") int validityDays) {
+										@RequestParam(value = "validityDays", defaultValue = "365") int validityDays,
+										@RequestParam(value = "profile", required = false) String profile) {
 		if (authentication == null || !(authentication.getPrincipal() instanceof cm.gov.pki.entity.User)) {
 			return ResponseEntity.status(401).build();
 		}
@@ -292,7 +425,9 @@ public class AdminController {
 		if (req.getCsrContent() == null || req.getCsrContent().isBlank()) {
 			return ResponseEntity.status(400).body(java.util.Map.of("error", "No CSR provided for this request"));
 		}
-		String certPem = caService.signCSR(req.getCsrContent(), validityDays, req.getUser().getId(), req.getId());
+		CAService.IssuedCertificate issued = caService.issue(req.getCsrContent(), validityDays, req.getUser().getId(), req.getId(), profile);
+		String certPem = issued.pem();
+		String chainPem = certificateChainService.getChainForIssuer(issued.issuerCaId()).pem();
 		
 		// Générer un token de validation
 		String validationToken = java.util.UUID.randomUUID().toString();
@@ -304,12 +439,13 @@ public class AdminController {
 		req.setValidationToken(validationToken);
 		req.setTokenExpiresAt(tokenExpiresAt);
 		certificateRequestRepository.save(req);
+		eventPublisher.publishEvent(new CertificateRequestStatusChangedEvent(req.getId(), "PENDING", "ISSUED", req.getReviewedAt()));
 		
 		// Envoyer email avec le token
 		String userName = req.getUser().getFirstName() + " " + req.getUser().getLastName();
 		emailService.sendValidationTokenEmail(req.getUser().getEmail(), userName, id, validationToken);
 		
-		return ResponseEntity.ok(java.util.Map.of("certificate", certPem, "message", "Email de validation envoyé"));
+		return ResponseEntity.ok(java.util.Map.of("certificate", certPem, "chain", chainPem, "message", "Email de validation envoyé"));
 	}
 
 	@PostMapping("/certificate-requests/{id}/reject")
@@ -330,6 +466,7 @@ public class AdminController {
 		req.setReviewedAt(java.time.LocalDateTime.now());
 		req.setReviewedBy(admin);
 		certificateRequestRepository.save(req);
+		eventPublisher.publishEvent(new CertificateRequestStatusChangedEvent(req.getId(), "PENDING", "REJECTED", req.getReviewedAt()));
 		
 		// Envoyer email de rejet
 		String userName = req.getUser().getFirstName() + " " + req.getUser().getLastName();
@@ -413,6 +550,7 @@ public class AdminController {
 
 			// Supprimer l'utilisateur
 			userRepository.deleteById(userId);
+			eventPublisher.publishEvent(new UserDeletedEvent(userId));
 
 			return ResponseEntity.ok(java.util.Map.of("message", "Utilisateur supprimé avec succès"));
 		} catch (Exception ex) {
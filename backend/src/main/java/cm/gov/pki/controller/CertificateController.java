@@ -0,0 +1,98 @@
+package cm.gov.pki.controller;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.entity.User;
+import cm.gov.pki.repository.CertificateRepository;
+import cm.gov.pki.service.CertificateDetailsService;
+import cm.gov.pki.service.CertificateStatusService;
+import cm.gov.pki.service.CertificateStatusService.BatchStatusRequest;
+import cm.gov.pki.service.CertificateStatusService.BatchStatusResponse;
+import cm.gov.pki.service.CertificateStatusService.ResponseSignature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Statut et contenu des certificats.
+ *
+ * POST /certificates/status:batch (sans authentification) répond pour un lot de numéros de série
+ * et d'empreintes en un aller-retour. Avec signed=true (utilisateur authentifié), les octets exacts
+ * du corps sont signés par la clé du répondeur de statut, publiée sur GET /certificates/status:key
+ * (en-têtes X-PKI-Signature, X-PKI-Signature-Algorithm, X-PKI-Signer-Key).
+ *
+ * GET /certificates/{id}/details renvoie le contenu analysé du certificat, pour son titulaire ou
+ * un administrateur.
+ */
+@RestController
+@RequestMapping({"/certificates", "/api/certificates"})
+public class CertificateController {
+
+	private final CertificateStatusService certificateStatusService;
+	private final CertificateDetailsService certificateDetailsService;
+	private final CertificateRepository certificateRepository;
+	private final ObjectMapper objectMapper;
+
+	public CertificateController(CertificateStatusService certificateStatusService,
+			CertificateDetailsService certificateDetailsService,
+			CertificateRepository certificateRepository,
+			ObjectMapper objectMapper) {
+		this.certificateStatusService = certificateStatusService;
+		this.certificateDetailsService = certificateDetailsService;
+		this.certificateRepository = certificateRepository;
+		this.objectMapper = objectMapper;
+	}
+
+	@GetMapping("/{certificateId}/details")
+	public ResponseEntity<?> details(Authentication authentication, @PathVariable("certificateId") UUID certificateId) {
+		if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+			return ResponseEntity.status(401).build();
+		}
+		var certOpt = certificateRepository.findById(certificateId);
+		if (certOpt.isEmpty()) {
+			return ResponseEntity.status(404).body(Map.of("error", "Certificate not found"));
+		}
+		Certificate certificate = certOpt.get();
+		if (!user.isAdmin() && (certificate.getUser() == null || !certificate.getUser().getId().equals(user.getId()))) {
+			return ResponseEntity.status(403).body(Map.of("error", "Unauthorized"));
+		}
+		return ResponseEntity.ok(certificateDetailsService.view(certificate));
+	}
+
+	@PostMapping(value = "/status:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<?> batchStatus(Authentication authentication, @RequestBody BatchStatusRequest request,
+			@RequestParam(value = "signed", defaultValue = "false") boolean signed) throws Exception {
+		// Une signature coûte une opération de clé privée : réservée aux appelants authentifiés
+		if (signed && (authentication == null || !(authentication.getPrincipal() instanceof User))) {
+			return ResponseEntity.status(401).body(Map.of("error", "Authentication required for signed responses"));
+		}
+		BatchStatusResponse response;
+		try {
+			response = certificateStatusService.status(request);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+		}
+		if (!signed) {
+			return ResponseEntity.ok(response);
+		}
+		byte[] body = objectMapper.writeValueAsBytes(response);
+		ResponseSignature signature = certificateStatusService.sign(body);
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.header("X-PKI-Signature", signature.signature())
+				.header("X-PKI-Signature-Algorithm", signature.algorithm())
+				.header("X-PKI-Signer-Key", signature.keyId())
+				.body(body);
+	}
+
+	@GetMapping(value = "/status:key", produces = "application/x-pem-file")
+	public ResponseEntity<String> statusResponderKey() {
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType("application/x-pem-file"))
+				.body(certificateStatusService.responderPublicKeyPem());
+	}
+}
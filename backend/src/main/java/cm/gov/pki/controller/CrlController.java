@@ -0,0 +1,106 @@
+package cm.gov.pki.controller;
+
+import cm.gov.pki.service.CertificateChainService;
+import cm.gov.pki.service.CrlPublicationService;
+import cm.gov.pki.service.CrlPublicationService.PublishedCrl;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Point de distribution public des CRL (sans authentification).
+ * /crl/{caId}.crl pour une AC non partitionnée, /crl/{caId}/{shard}.crl pour chaque partition,
+ * /crl/{caId}.crt pour le certificat de l'AC (AIA caIssuers des certificats émis).
+ *
+ * Les octets sont servis depuis la mémoire ; ETag (SHA-256 du DER), Last-Modified (thisUpdate)
+ * et Cache-Control (jusqu'à nextUpdate) permettent aux parties utilisatrices et aux caches
+ * intermédiaires d'éviter les retéléchargements.
+ */
+@RestController
+@RequestMapping({"/crl", "/api/crl"})
+public class CrlController {
+
+	private static final MediaType PKIX_CRL = MediaType.parseMediaType("application/pkix-crl");
+	private static final MediaType PEM_FILE = MediaType.parseMediaType("application/x-pem-file");
+	private static final MediaType PKIX_CERT = MediaType.parseMediaType("application/pkix-cert");
+
+	private final CrlPublicationService crlPublicationService;
+	private final CertificateChainService certificateChainService;
+
+	public CrlController(CrlPublicationService crlPublicationService, CertificateChainService certificateChainService) {
+		this.crlPublicationService = crlPublicationService;
+		this.certificateChainService = certificateChainService;
+	}
+
+	@GetMapping("/{caId}.crt")
+	public ResponseEntity<byte[]> caCertificate(@PathVariable("caId") UUID caId) throws Exception {
+		CertificateChainService.ChainBundle chain;
+		try {
+			chain = certificateChainService.getChainForIssuer(caId);
+		} catch (RuntimeException e) {
+			return ResponseEntity.notFound().build();
+		}
+		byte[] body = chain.certificates().get(0).getEncoded();
+		return ResponseEntity.ok()
+				.contentType(PKIX_CERT)
+				.contentLength(body.length)
+				.cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePublic())
+				.body(body);
+	}
+
+	@GetMapping("/{caId}.crl")
+	public ResponseEntity<byte[]> der(@PathVariable("caId") UUID caId, WebRequest request) {
+		return serve(caId, 0, false, request);
+	}
+
+	@GetMapping("/{caId}.pem")
+	public ResponseEntity<byte[]> pem(@PathVariable("caId") UUID caId, WebRequest request) {
+		return serve(caId, 0, true, request);
+	}
+
+	@GetMapping("/{caId}/{shard}.crl")
+	public ResponseEntity<byte[]> shardDer(@PathVariable("caId") UUID caId, @PathVariable("shard") int shard, WebRequest request) {
+		return serve(caId, shard, false, request);
+	}
+
+	@GetMapping("/{caId}/{shard}.pem")
+	public ResponseEntity<byte[]> shardPem(@PathVariable("caId") UUID caId, @PathVariable("shard") int shard, WebRequest request) {
+		return serve(caId, shard, true, request);
+	}
+
+	private ResponseEntity<byte[]> serve(UUID caId, int shard, boolean pem, WebRequest request) {
+		PublishedCrl crl = crlPublicationService.current(caId, shard).orElse(null);
+		if (crl == null) {
+			return ResponseEntity.notFound().build();
+		}
+		String etag = "\"" + crl.sha256() + (pem ? "-pem" : "") + "\"";
+		long lastModified = crl.thisUpdate().toEpochMilli();
+		CacheControl cacheControl = cacheControl(crl.nextUpdate());
+		if (request.checkNotModified(etag, lastModified)) {
+			return ResponseEntity.status(304).eTag(etag).cacheControl(cacheControl).build();
+		}
+		byte[] body = pem ? crl.pem() : crl.der();
+		return ResponseEntity.ok()
+				.contentType(pem ? PEM_FILE : PKIX_CRL)
+				.contentLength(body.length)
+				.eTag(etag)
+				.lastModified(lastModified)
+				.cacheControl(cacheControl)
+				.body(body);
+	}
+
+	// Mise en cache jusqu'à la prochaine CRL prévue ; pas de cache si nextUpdate est dépassé
+	private static CacheControl cacheControl(Instant nextUpdate) {
+		if (nextUpdate == null) {
+			return CacheControl.noCache();
+		}
+		long seconds = Duration.between(Instant.now(), nextUpdate).getSeconds();
+		return seconds > 0 ? CacheControl.maxAge(Duration.ofSeconds(seconds)).cachePublic() : CacheControl.noCache();
+	}
+}
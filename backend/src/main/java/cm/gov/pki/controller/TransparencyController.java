@@ -0,0 +1,52 @@
+package cm.gov.pki.controller;
+
+import cm.gov.pki.service.TransparencyLogService;
+import cm.gov.pki.service.TransparencyLogService.ConsistencyProof;
+import cm.gov.pki.service.TransparencyLogService.InclusionProof;
+import cm.gov.pki.service.TransparencyLogService.SignedTreeHead;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * Journal de transparence public des certificats émis (sans authentification) :
+ * tête d'arbre signée, preuves d'inclusion et de cohérence, clé de vérification.
+ */
+@RestController
+@RequestMapping({"/transparency", "/api/transparency"})
+public class TransparencyController {
+
+	private final TransparencyLogService transparencyLogService;
+
+	public TransparencyController(TransparencyLogService transparencyLogService) {
+		this.transparencyLogService = transparencyLogService;
+	}
+
+	@GetMapping("/sth")
+	public ResponseEntity<SignedTreeHead> signedTreeHead() {
+		return ResponseEntity.ok(transparencyLogService.signedTreeHead());
+	}
+
+	@GetMapping("/proof/inclusion")
+	public ResponseEntity<InclusionProof> inclusionProof(@RequestParam("certificateId") UUID certificateId,
+			@RequestParam(value = "treeSize", required = false) Long treeSize) {
+		return transparencyLogService.inclusionProof(certificateId, treeSize)
+				.map(ResponseEntity::ok)
+				.orElse(ResponseEntity.notFound().build());
+	}
+
+	@GetMapping("/proof/consistency")
+	public ResponseEntity<ConsistencyProof> consistencyProof(@RequestParam("first") long first,
+			@RequestParam("second") long second) {
+		return ResponseEntity.ok(transparencyLogService.consistencyProof(first, second));
+	}
+
+	@GetMapping(value = "/key", produces = "application/x-pem-file")
+	public ResponseEntity<String> publicKey() {
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType("application/x-pem-file"))
+				.body(transparencyLogService.publicKeyPem());
+	}
+}
@@ -4,9 +4,16 @@ import cm.gov.pki.dto.AuthDTO;
 import cm.gov.pki.entity.User;
 import cm.gov.pki.entity.Certificate;
 import cm.gov.pki.entity.CertificateRequest;
+import cm.gov.pki.event.CertificateRequestStatusChangedEvent;
 import cm.gov.pki.repository.CertificateRepository;
 import cm.gov.pki.repository.CertificateRequestRepository;
+import cm.gov.pki.service.CertificateChainService;
+import cm.gov.pki.util.PemCodec;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -23,11 +30,23 @@ public class UserController {
 
 	private final CertificateRepository certificateRepository;
     private final CertificateRequestRepository certificateRequestRepository;
+    private final CertificateChainService certificateChainService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary uploadSizes;
 
     @Autowired
-    public UserController(CertificateRepository certificateRepository, CertificateRequestRepository certificateRequestRepository) {
+    public UserController(CertificateRepository certificateRepository, CertificateRequestRepository certificateRequestRepository,
+                          CertificateChainService certificateChainService, ApplicationEventPublisher eventPublisher,
+                          MeterRegistry meterRegistry) {
         this.certificateRepository = certificateRepository;
         this.certificateRequestRepository = certificateRequestRepository;
+        this.certificateChainService = certificateChainService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.uploadSizes = DistributionSummary.builder("pki.documents.upload.size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
 	@GetMapping("/me")
@@ -181,6 +200,8 @@ public class UserController {
 
         // Sauvegarder physiquement les fichiers si fournis
         if (documents != null && documents.length > 0) {
+            Timer.Sample uploadSample = Timer.start(meterRegistry);
+            String uploadOutcome = "error";
             try {
                 java.nio.file.Path base = java.nio.file.Paths.get(System.getProperty("user.dir"), "uploads", "certificate_requests", req.getId().toString());
                 java.nio.file.Files.createDirectories(base);
@@ -193,7 +214,7 @@ public class UserController {
                     String safeName = java.util.UUID.randomUUID().toString() + "_" + safeBase;
                     java.nio.file.Path target = base.resolve(safeName);
                     try (java.io.InputStream in = f.getInputStream()) {
-                        java.nio.file.Files.copy(in, target, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                        uploadSizes.record(java.nio.file.Files.copy(in, target, java.nio.file.StandardCopyOption.REPLACE_EXISTING));
                     }
                     saved.add(safeName);
                 }
@@ -204,6 +225,7 @@ public class UserController {
                     req.setNotes(String.join(",", saved));
                     req = certificateRequestRepository.save(req);
                 }
+                uploadOutcome = "success";
             } catch (java.io.IOException ex) {
                 // En cas d'erreur d'E/S, supprimer la demande crÃ©Ã©e pour Ã©viter les orphelins
                 log.error("Erreur lors de l'enregistrement des fichiers de la demande {}", req.getId(), ex);
@@ -216,9 +238,12 @@ public class UserController {
             } catch (RuntimeException ex) {
                 log.error("Erreur inattendue lors du traitement des fichiers de la demande {}", req.getId(), ex);
                 return ResponseEntity.status(500).body(java.util.Map.of("error", "Erreur inattendue"));
+            } finally {
+                uploadSample.stop(meterRegistry.timer("pki.documents.upload", "outcome", uploadOutcome));
             }
         }
 
+        eventPublisher.publishEvent(new CertificateRequestStatusChangedEvent(req.getId(), null, req.getStatus(), req.getSubmittedAt()));
         return ResponseEntity.ok(Map.of("requestId", req.getId().toString(), "status", req.getStatus()));
     }
 
@@ -231,7 +256,6 @@ public class UserController {
         private String status;
         private String notBefore;
         private String notAfter;
-        private String certificatePem;
 
         public CertificateDTO() {}
 
@@ -243,7 +267,6 @@ public class UserController {
             this.status = cert.getStatus().name();
             this.notBefore = cert.getNotBefore() != null ? cert.getNotBefore().format(java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
             this.notAfter = cert.getNotAfter() != null ? cert.getNotAfter().format(java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
-            this.certificatePem = cert.getCertificatePem();
         }
 
         // Getters and Setters
@@ -267,9 +290,6 @@ public class UserController {
 
         public String getNotAfter() { return notAfter; }
         public void setNotAfter(String notAfter) { this.notAfter = notAfter; }
-
-        public String getCertificatePem() { return certificatePem; }
-        public void setCertificatePem(String certificatePem) { this.certificatePem = certificatePem; }
     }
 
     // RÃ©cupÃ©rer les demandes de certificat de l'utilisateur
@@ -466,7 +486,8 @@ public class UserController {
 		// Retourner le certificat
 		return ResponseEntity.ok(Map.of(
 			"certificateId", certificate.getId().toString(),
-			"certificate", certificate.getCertificatePem(),
+			"certificate", certificatePem(certificate),
+			"chain", certificateChainService.getChainForIssuer(certificate.getIssuerCaId()).pem(),
 			"fingerprint", certificate.getFingerprintSha256(),
 			"issuedAt", certificate.getIssuedAt(),
 			"expiresAt", certificate.getNotAfter()
@@ -500,22 +521,41 @@ public class UserController {
 			return ResponseEntity.status(403).body(Map.of("error", "Unauthorized"));
 		}
 		
-		String content = certificate.getCertificatePem();
+		byte[] contentBytes;
 		String fileName;
 		String contentType;
 		
-		if ("pem".equalsIgnoreCase(format)) {
-			fileName = "certificate-" + certificateId + ".pem";
-			contentType = "application/x-pem-file";
-		} else if ("crt".equalsIgnoreCase(format)) {
-			fileName = "certificate-" + certificateId + ".crt";
-			contentType = "application/x-x509-ca-cert";
-		} else {
-			return ResponseEntity.status(400).body(Map.of("error", "Invalid format"));
+		try {
+			if ("pem".equalsIgnoreCase(format)) {
+				contentBytes = certificatePem(certificate).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+				fileName = "certificate-" + certificateId + ".pem";
+				contentType = "application/x-pem-file";
+			} else if ("crt".equalsIgnoreCase(format)) {
+				contentBytes = certificatePem(certificate).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+				fileName = "certificate-" + certificateId + ".crt";
+				contentType = "application/x-x509-ca-cert";
+			} else if ("chain".equalsIgnoreCase(format)) {
+				// Certificat final suivi des certificats d'AC (émettrice puis racine)
+				var chain = certificateChainService.getChainForIssuer(certificate.getIssuerCaId());
+				contentBytes = certificateChainService.fullChainPem(certificatePem(certificate), chain)
+						.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+				fileName = "certificate-" + certificateId + "-chain.pem";
+				contentType = "application/x-pem-file";
+			} else if ("p7b".equalsIgnoreCase(format)) {
+				var chain = certificateChainService.getChainForIssuer(certificate.getIssuerCaId());
+				var leaf = new org.bouncycastle.cert.X509CertificateHolder(certificate.getCertificateDer());
+				contentBytes = certificateChainService.fullChainPkcs7(leaf, chain);
+				fileName = "certificate-" + certificateId + ".p7b";
+				contentType = "application/x-pkcs7-certificates";
+			} else {
+				return ResponseEntity.status(400).body(Map.of("error", "Invalid format"));
+			}
+		} catch (Exception ex) {
+			log.error("Erreur lors de la construction de la chaîne du certificat {}", certificateId, ex);
+			return ResponseEntity.status(500).body(Map.of("error", "Server error"));
 		}
 		
 		try {
-			byte[] contentBytes = content.getBytes(java.nio.charset.StandardCharsets.UTF_8);
 			return ResponseEntity.ok()
 					.header(org.springframework.http.HttpHeaders.CONTENT_TYPE, contentType)
 					.header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
@@ -526,5 +566,9 @@ public class UserController {
 			return ResponseEntity.status(500).body(Map.of("error", "Server error"));
 		}
 	}
-}
 
+	// PEM produit à la demande depuis le DER stocké (chargé à l'accès)
+	private static String certificatePem(Certificate certificate) {
+		return PemCodec.encode(PemCodec.CERTIFICATE, certificate.getCertificateDer());
+	}
+}
@@ -2,6 +2,8 @@ package cm.gov.pki.entity;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -11,6 +13,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "ca_configuration")
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 
 public class CAConfiguration {
 
@@ -51,6 +55,25 @@ public class CAConfiguration {
     @Column(name = "is_active")
     public Boolean isActive = true;
 
+    // Hiérarchie : AC parente (null pour une racine) et pathLenConstraint
+    @Column(name = "parent_ca_id")
+    public UUID parentId;
+
+    @Column(name = "path_length")
+    public Integer pathLength;
+
+    // AC désignée pour signer les certificats finaux
+    @Column(name = "is_issuing")
+    public Boolean isIssuing = false;
+
+    // Profil d'émission servi (null = tous profils), utilisé par la politique per-profile
+    @Column(name = "issuing_profile")
+    public String issuingProfile;
+
+    // Partitions de CRL (numéro de série modulo N), fixé à la création
+    @Column(name = "crl_shard_count", nullable = false)
+    public Integer crlShardCount = 1;
+
     @Column(name = "created_at", updatable = false)
     @CreatedDate
     public LocalDateTime createdAt;
@@ -59,10 +82,18 @@ public class CAConfiguration {
     @JoinColumn(name = "created_by")
     public User createdBy;
 
+    public int crlShards() {
+        return crlShardCount == null || crlShardCount < 1 ? 1 : crlShardCount;
+    }
+
     public String getSubjectDN() {
         return String.format("CN=%s, O=PKI Souverain, C=CM", caName);
     }
 
+    public boolean isRoot() {
+        return parentId == null;
+    }
+
     public boolean isValid() {
         return Boolean.TRUE.equals(isActive) && LocalDateTime.now().isBefore(validUntil);
     }
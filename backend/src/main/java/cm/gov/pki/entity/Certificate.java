@@ -42,9 +42,10 @@ public class Certificate {
     @Column(name = "fingerprint_sha256", nullable = false, unique = true, length = 64)
     private String fingerprintSha256;
 
-    // Contenu du certificat
-    @Column(name = "certificate_pem", nullable = false, columnDefinition = "TEXT")
-    private String certificatePem;
+    // Contenu du certificat (DER), chargé à la demande : les listes et mises à jour de statut ne le lisent pas
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "certificate_der", nullable = false)
+    private byte[] certificateDer;
 
     @Column(name = "public_key_pem", columnDefinition = "TEXT")
     private String publicKeyPem;
@@ -56,6 +57,10 @@ public class Certificate {
     @Column(name = "issuer_dn", nullable = false, length = 500)
     private String issuerDN;
 
+    // AC émettrice (null = AC racine historique)
+    @Column(name = "issuer_ca_id")
+    private UUID issuerCaId;
+
     // Validité
     @Column(name = "not_before", nullable = false)
     private LocalDateTime notBefore;
@@ -149,7 +154,7 @@ public class Certificate {
     }
 
     public Certificate(UUID id, User user, CertificateRequest request, String serialNumber, String fingerprintSha256,
-                       String certificatePem, String publicKeyPem, String subjectDN, String issuerDN,
+                       byte[] certificateDer, String publicKeyPem, String subjectDN, String issuerDN,
                        LocalDateTime notBefore, LocalDateTime notAfter, CertificateStatus status,
                        LocalDateTime revokedAt, User revokedBy, String revocationReason,
                        LocalDateTime issuedAt, User issuedBy, LocalDateTime createdAt, LocalDateTime updatedAt) {
@@ -158,7 +163,7 @@ public class Certificate {
         this.request = request;
         this.serialNumber = serialNumber;
         this.fingerprintSha256 = fingerprintSha256;
-        this.certificatePem = certificatePem;
+        this.certificateDer = certificateDer;
         this.publicKeyPem = publicKeyPem;
         this.subjectDN = subjectDN;
         this.issuerDN = issuerDN;
@@ -190,8 +195,8 @@ public class Certificate {
     public String getFingerprintSha256() { return fingerprintSha256; }
     public void setFingerprintSha256(String fingerprintSha256) { this.fingerprintSha256 = fingerprintSha256; }
 
-    public String getCertificatePem() { return certificatePem; }
-    public void setCertificatePem(String certificatePem) { this.certificatePem = certificatePem; }
+    public byte[] getCertificateDer() { return certificateDer; }
+    public void setCertificateDer(byte[] certificateDer) { this.certificateDer = certificateDer; }
 
     public String getPublicKeyPem() { return publicKeyPem; }
     public void setPublicKeyPem(String publicKeyPem) { this.publicKeyPem = publicKeyPem; }
@@ -202,6 +207,9 @@ public class Certificate {
     public String getIssuerDN() { return issuerDN; }
     public void setIssuerDN(String issuerDN) { this.issuerDN = issuerDN; }
 
+    public UUID getIssuerCaId() { return issuerCaId; }
+    public void setIssuerCaId(UUID issuerCaId) { this.issuerCaId = issuerCaId; }
+
     public LocalDateTime getNotBefore() { return notBefore; }
     public void setNotBefore(LocalDateTime notBefore) { this.notBefore = notBefore; }
 
@@ -241,7 +249,7 @@ public class Certificate {
         private CertificateRequest request;
         private String serialNumber;
         private String fingerprintSha256;
-        private String certificatePem;
+        private byte[] certificateDer;
         private String publicKeyPem;
         private String subjectDN;
         private String issuerDN;
@@ -261,7 +269,7 @@ public class Certificate {
         public Builder request(CertificateRequest request) { this.request = request; return this; }
         public Builder serialNumber(String serialNumber) { this.serialNumber = serialNumber; return this; }
         public Builder fingerprintSha256(String fingerprintSha256) { this.fingerprintSha256 = fingerprintSha256; return this; }
-        public Builder certificatePem(String certificatePem) { this.certificatePem = certificatePem; return this; }
+        public Builder certificateDer(byte[] certificateDer) { this.certificateDer = certificateDer; return this; }
         public Builder publicKeyPem(String publicKeyPem) { this.publicKeyPem = publicKeyPem; return this; }
         public Builder subjectDN(String subjectDN) { this.subjectDN = subjectDN; return this; }
         public Builder issuerDN(String issuerDN) { this.issuerDN = issuerDN; return this; }
@@ -277,7 +285,7 @@ public class Certificate {
         public Builder updatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; return this; }
 
         public Certificate build() {
-            return new Certificate(id, user, request, serialNumber, fingerprintSha256, certificatePem, publicKeyPem,
+            return new Certificate(id, user, request, serialNumber, fingerprintSha256, certificateDer, publicKeyPem,
                     subjectDN, issuerDN, notBefore, notAfter, status, revokedAt, revokedBy, revocationReason,
                     issuedAt, issuedBy, createdAt, updatedAt);
         }
@@ -0,0 +1,94 @@
+package cm.gov.pki.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Dernière CRL publiée par une partition de CRL d'une AC (une ligne par partition, mise à jour en place)
+ */
+@Entity
+@Table(name = "crl_publications")
+@IdClass(CrlPublication.Key.class)
+public class CrlPublication {
+
+    @Id
+    @Column(name = "ca_id")
+    private UUID caId;
+
+    @Id
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(name = "crl_number", nullable = false)
+    private long crlNumber;
+
+    @Column(name = "this_update")
+    private LocalDateTime thisUpdate;
+
+    @Column(name = "next_update")
+    private LocalDateTime nextUpdate;
+
+    @Column(length = 500)
+    private String path;
+
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public CrlPublication() {}
+
+    public UUID getCaId() { return caId; }
+    public int getShard() { return shard; }
+    public long getCrlNumber() { return crlNumber; }
+    public LocalDateTime getThisUpdate() { return thisUpdate; }
+    public LocalDateTime getNextUpdate() { return nextUpdate; }
+    public String getPath() { return path; }
+    public String getSha256() { return sha256; }
+    public Long getSizeBytes() { return sizeBytes; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    /**
+     * Enregistre une nouvelle CRL publiée
+     */
+    public void published(long crlNumber, LocalDateTime thisUpdate, LocalDateTime nextUpdate,
+                          String path, String sha256, long sizeBytes) {
+        this.crlNumber = crlNumber;
+        this.thisUpdate = thisUpdate;
+        this.nextUpdate = nextUpdate;
+        this.path = path;
+        this.sha256 = sha256;
+        this.sizeBytes = sizeBytes;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public static class Key implements Serializable {
+        private UUID caId;
+        private int shard;
+
+        public Key() {}
+
+        public Key(UUID caId, int shard) {
+            this.caId = caId;
+            this.shard = shard;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && shard == k.shard && Objects.equals(caId, k.caId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(caId, shard);
+        }
+    }
+}
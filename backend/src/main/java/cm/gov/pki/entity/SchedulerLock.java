@@ -0,0 +1,33 @@
+package cm.gov.pki.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bail d'exécution d'un job planifié (une ligne par job, partagée entre les instances)
+ */
+@Entity
+@Table(name = "scheduler_locks")
+public class SchedulerLock {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "locked_by", nullable = false)
+    private String lockedBy;
+
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    public SchedulerLock() {}
+
+    public String getName() { return name; }
+    public String getLockedBy() { return lockedBy; }
+    public LocalDateTime getLockedAt() { return lockedAt; }
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+}
@@ -0,0 +1,59 @@
+package cm.gov.pki.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Feuille du journal de transparence (ajout seul, jamais modifiée)
+ */
+@Entity
+@Table(name = "transparency_log")
+public class TransparencyLogEntry implements Persistable<Long> {
+
+    @Id
+    @Column(name = "leaf_index")
+    private Long leafIndex;
+
+    // NULL si le certificat n'a pas été enregistré (émission sans utilisateur) ou a été supprimé
+    @Column(name = "certificate_id", updatable = false)
+    private UUID certificateId;
+
+    @Column(name = "leaf_hash", nullable = false, updatable = false)
+    private byte[] leafHash;
+
+    @Column(name = "logged_at", nullable = false, updatable = false)
+    private LocalDateTime loggedAt;
+
+    // Index attribué par le journal : toujours une insertion, sans SELECT préalable
+    @Transient
+    private boolean isNew = true;
+
+    public TransparencyLogEntry() {}
+
+    public TransparencyLogEntry(long leafIndex, UUID certificateId, byte[] leafHash) {
+        this.leafIndex = leafIndex;
+        this.certificateId = certificateId;
+        this.leafHash = leafHash;
+        this.loggedAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public Long getId() { return leafIndex; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    public Long getLeafIndex() { return leafIndex; }
+    public UUID getCertificateId() { return certificateId; }
+    public byte[] getLeafHash() { return leafHash; }
+    public LocalDateTime getLoggedAt() { return loggedAt; }
+}
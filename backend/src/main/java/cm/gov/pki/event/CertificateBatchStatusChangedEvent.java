@@ -0,0 +1,13 @@
+package cm.gov.pki.event;
+
+import cm.gov.pki.entity.Certificate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Transition d'état appliquée en masse à un lot de certificats (ex. expiration)
+ */
+public record CertificateBatchStatusChangedEvent(List<UUID> certificateIds,
+                                                 Certificate.CertificateStatus previousStatus,
+                                                 Certificate.CertificateStatus newStatus) {}
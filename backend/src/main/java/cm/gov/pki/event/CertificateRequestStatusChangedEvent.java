@@ -0,0 +1,11 @@
+package cm.gov.pki.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Transition d'état d'une demande de certificat (previousStatus null = nouvelle demande).
+ * occurredAt : horodatage enregistré sur la demande (soumission ou examen)
+ */
+public record CertificateRequestStatusChangedEvent(UUID requestId, String previousStatus, String newStatus,
+                                                   LocalDateTime occurredAt) {}
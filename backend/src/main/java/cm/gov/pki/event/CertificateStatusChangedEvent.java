@@ -0,0 +1,12 @@
+package cm.gov.pki.event;
+
+import cm.gov.pki.entity.Certificate;
+
+import java.util.UUID;
+
+/**
+ * Transition d'état d'un certificat (previousStatus null = certificat émis)
+ */
+public record CertificateStatusChangedEvent(UUID certificateId,
+                                            Certificate.CertificateStatus previousStatus,
+                                            Certificate.CertificateStatus newStatus) {}
@@ -0,0 +1,13 @@
+package cm.gov.pki.event;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Certificats signés par une AC lors d'une émission (unitaire ou par lot), avec leur encodage DER.
+ * certificateId est null pour un certificat non enregistré en base.
+ */
+public record CertificatesIssuedEvent(UUID issuerCaId, List<Entry> certificates) {
+
+    public record Entry(UUID certificateId, byte[] der) {}
+}
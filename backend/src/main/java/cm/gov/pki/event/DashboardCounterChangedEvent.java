@@ -0,0 +1,6 @@
+package cm.gov.pki.event;
+
+/**
+ * Un compteur du tableau de bord a changé (counter : "users", "requests.PENDING", "certificates.ACTIVE"...)
+ */
+public record DashboardCounterChangedEvent(String counter, long delta, long value) {}
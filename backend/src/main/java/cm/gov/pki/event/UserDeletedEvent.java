@@ -0,0 +1,8 @@
+package cm.gov.pki.event;
+
+import java.util.UUID;
+
+/**
+ * Un compte utilisateur a été supprimé, avec ses demandes et certificats
+ */
+public record UserDeletedEvent(UUID userId) {}
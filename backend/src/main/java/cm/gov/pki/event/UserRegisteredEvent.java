@@ -0,0 +1,8 @@
+package cm.gov.pki.event;
+
+import java.util.UUID;
+
+/**
+ * Un compte utilisateur a été créé
+ */
+public record UserRegisteredEvent(UUID userId) {}
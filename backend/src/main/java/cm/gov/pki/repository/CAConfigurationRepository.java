@@ -1,15 +1,46 @@
 package cm.gov.pki.repository;
 
 import cm.gov.pki.entity.CAConfiguration;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface CAConfigurationRepository extends JpaRepository<CAConfiguration, UUID> {
-    Optional<CAConfiguration> findTopByOrderByCreatedAtDesc();
-    Optional<CAConfiguration> findFirstByIsActiveTrueOrderByCreatedAtDesc();
-    boolean existsByIsActiveTrue();
+    // Lectures fréquentes, modifications rares : résultats dans le cache de requêtes (invalidé à chaque écriture sur la table)
+    String CACHE_REGION = "pki.ca-queries";
+
+    // AC racine la plus récente, active ou non (statut d'administration)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+    Optional<CAConfiguration> findFirstByParentIdIsNullOrderByCreatedAtDesc();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+    boolean existsByParentIdIsNullAndIsActiveTrue();
+
+    // Hiérarchie d'AC
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+    Optional<CAConfiguration> findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+    Optional<CAConfiguration> findFirstByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtDesc();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+    List<CAConfiguration> findByIsActiveTrue();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+    List<CAConfiguration> findByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtAsc();
+
+    boolean existsByCaNameAndIsActiveTrue(String caName);
 }
@@ -2,13 +2,23 @@ package cm.gov.pki.repository;
 
 import cm.gov.pki.entity.Certificate;
 import cm.gov.pki.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface CertificateRepository extends JpaRepository<Certificate, UUID> {
@@ -16,6 +26,163 @@ public interface CertificateRepository extends JpaRepository<Certificate, UUID>
     Optional<Certificate> findBySerialNumber(String serialNumber);
     List<Certificate> findByStatusAndNotAfterBefore(Certificate.CertificateStatus status, LocalDateTime date);
     long countByStatus(Certificate.CertificateStatus status);
+
+    // Comptage par statut en une requête (réconciliation des compteurs du tableau de bord)
+    @Query("select c.status, count(c) from Certificate c group by c.status")
+    List<Object[]> countGroupedByStatus();
+
+    /**
+     * Passe à EXPIRED au plus {@code limit} certificats actifs échus et retourne (id, serial_number).
+     * SKIP LOCKED : plusieurs nœuds peuvent balayer en parallèle sans traiter deux fois une ligne.
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE certificates SET status = 'EXPIRED'
+            WHERE id IN (
+                SELECT id FROM certificates
+                WHERE status = 'ACTIVE' AND not_after < :now
+                ORDER BY not_after
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, serial_number
+            """, nativeQuery = true)
+    List<Object[]> expireActiveBefore(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Page suivante (clé not_after, id) des certificats du statut donné expirant avant {@code before}
+     */
+    @Query("""
+            select c from Certificate c join fetch c.user
+            where c.status = :status and c.notAfter < :before
+              and (c.notAfter > :afterNotAfter or (c.notAfter = :afterNotAfter and c.id > :afterId))
+            order by c.notAfter, c.id
+            """)
+    List<Certificate> findExpiringPage(@Param("status") Certificate.CertificateStatus status,
+                                       @Param("before") LocalDateTime before,
+                                       @Param("afterNotAfter") LocalDateTime afterNotAfter,
+                                       @Param("afterId") UUID afterId,
+                                       Pageable page);
+
+    /**
+     * Réserve le rappel de la fenêtre pour ces certificats ; retourne ceux qui n'en avaient pas encore
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO certificate_renewal_reminders (certificate_id, window_days)
+            SELECT c.id, :windowDays FROM certificates c WHERE c.id IN (:ids)
+            ON CONFLICT DO NOTHING
+            RETURNING certificate_id
+            """, nativeQuery = true)
+    List<UUID> reserveRenewalReminders(@Param("ids") List<UUID> ids, @Param("windowDays") int windowDays);
+
+    /**
+     * Libère la réservation d'un rappel qui n'a pas pu être envoyé (le passage suivant le retentera)
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "certificate_renewal_reminders"))
+    @Query(value = "DELETE FROM certificate_renewal_reminders WHERE certificate_id = :id AND window_days = :windowDays",
+            nativeQuery = true)
+    int releaseRenewalReminder(@Param("id") UUID id, @Param("windowDays") int windowDays);
+
+    /**
+     * Entrées de CRL d'une AC : (serial_number, revoked_at) des certificats révoqués qu'elle a émis.
+     * Les certificats sans émetteur enregistré relèvent de la racine ({@code root = true}).
+     */
+    @Query("""
+            select c.serialNumber, c.revokedAt from Certificate c
+            where c.status = :status and c.revokedAt is not null
+              and (c.issuerCaId = :caId or (c.issuerCaId is null and :root = true))
+            """)
+    List<Object[]> findRevokedEntries(@Param("status") Certificate.CertificateStatus status,
+                                      @Param("caId") UUID caId,
+                                      @Param("root") boolean root);
+
+    /**
+     * Statut des certificats désignés par numéro de série ou empreinte SHA-256, en une requête :
+     * (serial_number, fingerprint_sha256, status, revoked_at, revocation_reason, not_after)
+     */
+    @Query("""
+            select c.serialNumber, c.fingerprintSha256, c.status, c.revokedAt, c.revocationReason, c.notAfter
+            from Certificate c
+            where c.serialNumber in :serials or c.fingerprintSha256 in :fingerprints
+            """)
+    List<Object[]> findStatusBySerialNumberInOrFingerprintIn(@Param("serials") Collection<String> serials,
+                                                             @Param("fingerprints") Collection<String> fingerprints);
+
+    /**
+     * Mêmes entrées que {@link #findRevokedEntries}, lues par lots (dans une transaction)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("""
+            select c.serialNumber, c.revokedAt from Certificate c
+            where c.status = :status and c.revokedAt is not null
+              and (c.issuerCaId = :caId or (c.issuerCaId is null and :root = true))
+            """)
+    Stream<Object[]> streamRevokedEntries(@Param("status") Certificate.CertificateStatus status,
+                                          @Param("caId") UUID caId,
+                                          @Param("root") boolean root);
+
+    /**
+     * Entrées de CRL d'une seule partition (numéro de série modulo shards = shard), filtrées en base.
+     * Les numéros de série non décimaux (jamais émis par l'AC) ne relèvent d'aucune partition.
+     */
+    @Query(value = """
+            SELECT c.serial_number, c.revoked_at FROM certificates c
+            WHERE c.status = :status AND c.revoked_at IS NOT NULL
+              AND (c.issuer_ca_id = :caId OR (c.issuer_ca_id IS NULL AND :root))
+              AND CASE WHEN c.serial_number ~ '^[0-9]+$'
+                       THEN mod(CAST(c.serial_number AS numeric), :shards) END = :shard
+            """, nativeQuery = true)
+    List<Object[]> findRevokedEntriesInShard(@Param("status") String status,
+                                             @Param("caId") UUID caId,
+                                             @Param("root") boolean root,
+                                             @Param("shards") int shards,
+                                             @Param("shard") int shard);
+
+    /**
+     * Mêmes entrées que {@link #findRevokedEntriesInShard}, lues par lots (dans une transaction)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query(value = """
+            SELECT c.serial_number, c.revoked_at FROM certificates c
+            WHERE c.status = :status AND c.revoked_at IS NOT NULL
+              AND (c.issuer_ca_id = :caId OR (c.issuer_ca_id IS NULL AND :root))
+              AND CASE WHEN c.serial_number ~ '^[0-9]+$'
+                       THEN mod(CAST(c.serial_number AS numeric), :shards) END = :shard
+            """, nativeQuery = true)
+    Stream<Object[]> streamRevokedEntriesInShard(@Param("status") String status,
+                                                 @Param("caId") UUID caId,
+                                                 @Param("root") boolean root,
+                                                 @Param("shards") int shards,
+                                                 @Param("shard") int shard);
+
+    @Query("""
+            select count(c) from Certificate c
+            where c.status = :status and c.revokedAt is not null
+              and (c.issuerCaId = :caId or (c.issuerCaId is null and :root = true))
+            """)
+    long countRevokedEntries(@Param("status") Certificate.CertificateStatus status,
+                             @Param("caId") UUID caId,
+                             @Param("root") boolean root);
+
+    /**
+     * Numéros de série de tous les certificats du statut donné, lus par lots (dans une transaction)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("select c.serialNumber from Certificate c where c.status = :status")
+    Stream<String> streamSerialNumbersByStatus(@Param("status") Certificate.CertificateStatus status);
+
+    /**
+     * Numéros de série révoqués depuis {@code since} (idx_certificates_revoked_at)
+     */
+    @Query("select c.serialNumber from Certificate c where c.status = :status and c.revokedAt >= :since")
+    List<String> findSerialNumbersRevokedSince(@Param("status") Certificate.CertificateStatus status,
+                                               @Param("since") LocalDateTime since);
+
+    @Query("select c.serialNumber from Certificate c where c.id = :id")
+    Optional<String> findSerialNumberById(@Param("id") UUID id);
+
     boolean existsBySerialNumber(String serialNumber);
     Optional<Certificate> findFirstByRequestId(UUID requestId);
 }
@@ -3,6 +3,7 @@ package cm.gov.pki.repository;
 import cm.gov.pki.entity.CertificateRequest;
 import cm.gov.pki.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,6 +16,10 @@ public interface CertificateRequestRepository extends JpaRepository<CertificateR
     Optional<CertificateRequest> findByIdAndUser(UUID id, User user);
     long countByStatus(String status);
 
+    // Comptage par statut en une requête (réconciliation des compteurs du tableau de bord)
+    @Query("select r.status, count(r) from CertificateRequest r group by r.status")
+    List<Object[]> countGroupedByStatus();
+
     // Admin queries
     List<CertificateRequest> findByStatusOrderBySubmittedAtDesc(String status);
 
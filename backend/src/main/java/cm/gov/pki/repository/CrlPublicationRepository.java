@@ -0,0 +1,36 @@
+package cm.gov.pki.repository;
+
+import cm.gov.pki.entity.CrlPublication;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CrlPublicationRepository extends JpaRepository<CrlPublication, CrlPublication.Key> {
+
+    Optional<CrlPublication> findByCaIdAndShard(UUID caId, int shard);
+
+    List<CrlPublication> findByCaIdOrderByShard(UUID caId);
+
+    // Crée la ligne de la partition si besoin (sans conflit entre instances)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "crl_publications"))
+    @Query(value = "INSERT INTO crl_publications (ca_id, shard) VALUES (:caId, :shard) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int ensureExists(@Param("caId") UUID caId, @Param("shard") int shard);
+
+    // Verrouille la ligne : les numéros de CRL d'une partition sont attribués en série
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from CrlPublication p where p.caId = :caId and p.shard = :shard")
+    Optional<CrlPublication> findForUpdate(@Param("caId") UUID caId, @Param("shard") int shard);
+}
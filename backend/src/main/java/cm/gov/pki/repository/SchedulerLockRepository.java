@@ -0,0 +1,50 @@
+package cm.gov.pki.repository;
+
+import cm.gov.pki.entity.SchedulerLock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Verrous des jobs planifiés ; l'horloge de référence est celle de la base (now()).
+ * Les requêtes natives déclarent la seule table touchée (scheduler_locks, hors cache) :
+ * sans cela Hibernate viderait tout le cache de second niveau à chaque bail.
+ */
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    // Prend le bail s'il est libre ou expiré (1 = acquis)
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduler_locks"))
+    @Query(value = """
+            INSERT INTO scheduler_locks (name, locked_by, locked_at, locked_until)
+            VALUES (:name, :owner, now(), now() + CAST(:leaseMs AS bigint) * interval '1 millisecond')
+            ON CONFLICT (name) DO UPDATE
+            SET locked_by = EXCLUDED.locked_by, locked_at = EXCLUDED.locked_at, locked_until = EXCLUDED.locked_until
+            WHERE scheduler_locks.locked_until <= now()
+            """, nativeQuery = true)
+    int tryLock(@Param("name") String name, @Param("owner") String owner, @Param("leaseMs") long leaseMs);
+
+    // Prolonge un bail encore détenu (0 = bail perdu)
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduler_locks"))
+    @Query(value = """
+            UPDATE scheduler_locks SET locked_until = now() + CAST(:leaseMs AS bigint) * interval '1 millisecond'
+            WHERE name = :name AND locked_by = :owner AND locked_until > now()
+            """, nativeQuery = true)
+    int extend(@Param("name") String name, @Param("owner") String owner, @Param("leaseMs") long leaseMs);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduler_locks"))
+    @Query(value = "UPDATE scheduler_locks SET locked_until = now() WHERE name = :name AND locked_by = :owner", nativeQuery = true)
+    int unlock(@Param("name") String name, @Param("owner") String owner);
+}
@@ -0,0 +1,62 @@
+package cm.gov.pki.repository;
+
+import cm.gov.pki.entity.TransparencyLogEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TransparencyLogRepository extends JpaRepository<TransparencyLogEntry, Long> {
+
+    Optional<TransparencyLogEntry> findByCertificateId(UUID certificateId);
+
+    // Feuilles à partir d'un index, pour rattraper l'arbre local
+    List<TransparencyLogEntry> findByLeafIndexGreaterThanEqualOrderByLeafIndex(long fromIndex, Pageable page);
+
+    @Query("select e.certificateId from TransparencyLogEntry e where e.certificateId in :ids")
+    List<UUID> findLoggedCertificateIds(@Param("ids") Collection<UUID> ids);
+
+    @Query(value = "SELECT tree_size FROM transparency_log_head WHERE id = 1", nativeQuery = true)
+    long treeSize();
+
+    // Verrouille la tête du journal jusqu'au commit : les index sont attribués en série, sans trou
+    @Query(value = "SELECT tree_size FROM transparency_log_head WHERE id = 1 FOR UPDATE", nativeQuery = true)
+    long lockTreeSize();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transparency_log_head"))
+    @Query(value = "UPDATE transparency_log_head SET tree_size = :treeSize WHERE id = 1", nativeQuery = true)
+    int setTreeSize(@Param("treeSize") long treeSize);
+
+    // Reporte l'index de feuille sur les certificats ajoutés à partir de fromIndex
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "certificates"))
+    @Query(value = """
+            UPDATE certificates c SET transparency_log_index = t.leaf_index
+            FROM transparency_log t
+            WHERE t.certificate_id = c.id AND t.leaf_index >= :fromIndex
+            """, nativeQuery = true)
+    int markLogged(@Param("fromIndex") long fromIndex);
+
+    /**
+     * Certificats enregistrés absents du journal (antérieurs au journal ou ajout échoué) : (id, certificate_der)
+     */
+    @Query(value = """
+            SELECT id, certificate_der FROM certificates
+            WHERE transparency_log_index IS NULL
+            ORDER BY issued_at, id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> findUnlogged(@Param("limit") int limit);
+}
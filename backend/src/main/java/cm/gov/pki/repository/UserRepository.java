@@ -1,7 +1,10 @@
 package cm.gov.pki.repository;
 
 import cm.gov.pki.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,6 +12,9 @@ import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
+	// Résultat en cache (région à durée de vie courte, invalidée par toute écriture sur users)
+	@QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "pki.user-queries")})
 	Optional<User> findByEmail(String email);
 	boolean existsByEmail(String email);
 	Optional<User> findFirstByRoleOrderByCreatedAtDesc(User.UserRole role);
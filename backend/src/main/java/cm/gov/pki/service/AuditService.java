@@ -3,12 +3,15 @@ package cm.gov.pki.service;
 import cm.gov.pki.entity.AuditLog;
 import cm.gov.pki.entity.User;
 import cm.gov.pki.repository.AuditLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -19,12 +22,16 @@ import java.util.UUID;
 @Service
 public class AuditService {
     private final AuditLogRepository auditLogRepository;
+    private final Timer logTimer;
+    private final Timer batchTimer;
 
     private static final Logger log = LoggerFactory.getLogger(AuditService.class);
 
     @Autowired
-    public AuditService(AuditLogRepository auditLogRepository) {
+    public AuditService(AuditLogRepository auditLogRepository, MeterRegistry meterRegistry) {
         this.auditLogRepository = auditLogRepository;
+        this.logTimer = meterRegistry.timer("pki.audit.write", "mode", "single");
+        this.batchTimer = meterRegistry.timer("pki.audit.write", "mode", "batch");
     }
 
     /**
@@ -32,6 +39,7 @@ public class AuditService {
      */
     @Transactional
     public void log(User user, String action, String entityType, UUID entityId, Map<String, Object> details) {
+        Timer.Sample sample = Timer.start();
         AuditLog auditLog = AuditLog.builder()
                 .user(user)
                 .action(action)
@@ -47,6 +55,29 @@ public class AuditService {
                 action,
                 entityType,
                 entityId);
+        sample.stop(logTimer);
+    }
+
+    /**
+     * Enregistre une même action système sur un lot d'entités (un seul saveAll)
+     */
+    @Transactional
+    public void logSystemBatch(String action, String entityType, Map<UUID, Map<String, Object>> detailsByEntity) {
+        if (detailsByEntity.isEmpty()) return;
+        Timer.Sample sample = Timer.start();
+        List<AuditLog> entries = detailsByEntity.entrySet().stream()
+                .map(e -> AuditLog.builder()
+                        .action(action)
+                        .entityType(entityType)
+                        .entityId(e.getKey())
+                        .details(e.getValue())
+                        .build())
+                .toList();
+
+        auditLogRepository.saveAll(entries);
+
+        log.info("📋 AUDIT | User: SYSTEM | Action: {} | Entity: {} x{}", action, entityType, entries.size());
+        sample.stop(batchTimer);
     }
 
     /**
@@ -2,13 +2,17 @@ package cm.gov.pki.service;
 
 import cm.gov.pki.dto.AuthDTO;
 import cm.gov.pki.entity.User;
+import cm.gov.pki.event.UserRegisteredEvent;
 import cm.gov.pki.repository.UserRepository;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,15 +32,23 @@ public class AuthService {
     private final UserRepository userRepository;
     private final AuditService auditService;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
+    private final Timer hashTimer;
+    private final Timer matchTimer;
 
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
 
     @Autowired
-    public AuthService(UserRepository userRepository, AuditService auditService, EmailService emailService) {
+    public AuthService(UserRepository userRepository, AuditService auditService, EmailService emailService,
+                       ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.auditService = auditService;
         this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
+        // BCrypt (coût 12) : souvent la part dominante d'une connexion
+        this.hashTimer = meterRegistry.timer("pki.password.bcrypt", "operation", "encode");
+        this.matchTimer = meterRegistry.timer("pki.password.bcrypt", "operation", "matches");
     }
 
     @Value("${pki.jwt.secret}")
@@ -61,7 +73,7 @@ public class AuthService {
 
         User user = User.builder()
                 .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(hashTimer.record(() -> passwordEncoder.encode(request.getPassword())))
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .role(User.UserRole.USER)  // Par défaut USER
@@ -72,6 +84,7 @@ public class AuthService {
         user = userRepository.save(user);
 
         auditService.log(user, "USER_REGISTER", "User", user.getId(), null);
+        eventPublisher.publishEvent(new UserRegisteredEvent(user.getId()));
 
         log.info("✅ Utilisateur créé : {}");
 
@@ -88,7 +101,7 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Email ou mot de passe invalide"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!matchTimer.record(() -> passwordEncoder.matches(request.getPassword(), user.getPasswordHash()))) {
             throw new RuntimeException("Email ou mot de passe invalide");
         }
 
@@ -226,7 +239,7 @@ public class AuthService {
         }
 
         // Mettre à jour le mot de passe
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
+        user.setPasswordHash(hashTimer.record(() -> passwordEncoder.encode(newPassword)));
         user.setPasswordResetToken(null);
         user.setPasswordResetTokenExpiresAt(null);
         user.setUpdatedAt(LocalDateTime.now());
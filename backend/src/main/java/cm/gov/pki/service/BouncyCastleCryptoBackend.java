@@ -0,0 +1,185 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.util.PemCodec;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Backend cryptographique en processus (Bouncy Castle)
+ * Remplace le fork de /usr/bin/openssl pour chaque opération
+ */
+@Service
+@ConditionalOnProperty(name = "pki.crypto.backend", havingValue = "bouncycastle", matchIfMissing = true)
+public class BouncyCastleCryptoBackend implements CryptoBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(BouncyCastleCryptoBackend.class);
+
+    @Value("${pki.ca-defaults.algorithm:RSA}")
+    private String keyAlgorithm = "RSA";
+
+    @Value("${pki.ca-defaults.key-size:4096}")
+    private int keySize = 4096;
+
+    @Value("${pki.ca.root-path:/opt/pki/ca}")
+    private String caRootPath;
+
+    @Value("${pki.ca.certs-path:/opt/pki/certs}")
+    private String certsPath;
+
+    @Value("${pki.ca.crl-path:/opt/pki/crl}")
+    private String crlPath;
+
+    public BouncyCastleCryptoBackend() {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "bouncycastle";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) != null;
+    }
+
+    /**
+     * Génère l'AC Racine : clé du profil pki.ca-defaults (algorithm, key-size) + certificat auto-signé
+     * avec l'algorithme de signature du profil. Mêmes fichiers (ca.key / ca.crt) que le backend OpenSSL
+     */
+    @Override
+    public Map<String, String> generateRootCA(String caName, int validityDays) throws Exception {
+        log.info("🔐 Génération de l'AC Racine (Bouncy Castle) : {}", caName);
+
+        initializeDirectories();
+
+        Path keyPath = Paths.get(caRootPath, "ca.key");
+        Path certPath = Paths.get(caRootPath, "ca.crt");
+
+        KeyProfile profile = KeyProfile.of(keyAlgorithm, keySize);
+        KeyPair kp = profile.newKeyPairGenerator(new SecureRandom()).generateKeyPair();
+
+        X500Name subject = new X500Name("C=CM, O=PKI Souverain, CN=" + caName);
+        BigInteger serial = new BigInteger(64, new SecureRandom());
+        Instant now = Instant.now();
+
+        JcaX509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
+                subject,
+                serial,
+                Date.from(now),
+                Date.from(now.plus(validityDays, ChronoUnit.DAYS)),
+                subject,
+                kp.getPublic()
+        );
+        certBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+        certBuilder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+
+        ContentSigner signer = new JcaContentSignerBuilder(profile.getSignatureAlgorithm())
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .build(kp.getPrivate());
+        X509Certificate cert = new JcaX509CertificateConverter()
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .getCertificate(certBuilder.build(signer));
+
+        try (JcaPEMWriter pw = new JcaPEMWriter(Files.newBufferedWriter(keyPath))) {
+            pw.writeObject(kp.getPrivate());
+        }
+        setOwnerOnly(keyPath);
+
+        Files.write(certPath, PemCodec.encodeToBytes(PemCodec.CERTIFICATE, cert.getEncoded()));
+
+        log.info("✅ AC Racine générée avec succès ({}, {})", certPath, profile);
+
+        return Map.of(
+            "keyPath", keyPath.toString(),
+            "certPath", certPath.toString(),
+            "subjectDN", "/C=CM/O=PKI Souverain/CN=" + caName,
+            "keyAlgorithm", profile.getAlgorithm(),
+            "keySize", String.valueOf(profile.getKeySize()),
+            "signatureAlgorithm", profile.getSignatureAlgorithm()
+        );
+    }
+
+    @Override
+    public Map<String, String> verifyCertificate(String certPath) throws Exception {
+        X509Certificate cert = readCertificate(certPath);
+
+        Map<String, String> info = new HashMap<>();
+        info.put("subject", cert.getSubjectX500Principal().getName());
+        info.put("issuer", cert.getIssuerX500Principal().getName());
+        info.put("notBefore", cert.getNotBefore().toInstant().toString());
+        info.put("notAfter", cert.getNotAfter().toInstant().toString());
+        info.put("fingerprint", PemCodec.colonHex(MessageDigest.getInstance("SHA-256").digest(cert.getEncoded())));
+        return info;
+    }
+
+    @Override
+    public String getCertificateText(String certPath) throws Exception {
+        return readCertificate(certPath).toString();
+    }
+
+    private X509Certificate readCertificate(String certPath) throws Exception {
+        PemCodec.Block block = PemCodec.decodeFirst(Files.readAllBytes(Path.of(certPath)));
+        if (!PemCodec.CERTIFICATE.equals(block.type())) {
+            throw new IllegalArgumentException("Aucun certificat PEM dans " + certPath);
+        }
+        return new JcaX509CertificateConverter()
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .getCertificate(new X509CertificateHolder(block.der()));
+    }
+
+    private void initializeDirectories() throws IOException {
+        Files.createDirectories(Paths.get(caRootPath));
+        Files.createDirectories(Paths.get(certsPath));
+        Files.createDirectories(Paths.get(crlPath));
+        setOwnerOnly(Paths.get(caRootPath));
+    }
+
+    /**
+     * Permissions 600 (fichier) / 700 (répertoire) si le système de fichiers est POSIX
+     */
+    private void setOwnerOnly(Path path) throws IOException {
+        try {
+            Set<PosixFilePermission> perms = Files.isDirectory(path)
+                    ? Set.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE)
+                    : Set.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+            Files.setPosixFilePermissions(path, perms);
+        } catch (UnsupportedOperationException e) {
+            log.debug("Permissions POSIX non supportées pour {}", path);
+        }
+    }
+}
@@ -2,22 +2,34 @@
 
 import cm.gov.pki.entity.CAConfiguration;
 import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.event.CertificateStatusChangedEvent;
+import cm.gov.pki.event.CertificatesIssuedEvent;
 import cm.gov.pki.repository.CAConfigurationRepository;
 import cm.gov.pki.repository.CertificateRepository;
 import cm.gov.pki.repository.CertificateRequestRepository;
 import cm.gov.pki.repository.UserRepository;
+import cm.gov.pki.util.PemCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bouncycastle.asn1.ASN1Encoding;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.DistributionPointName;
 import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuingDistributionPoint;
 import org.bouncycastle.asn1.x509.KeyUsage;
 import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
-import org.bouncycastle.cert.X509CRLHolder;
 import org.bouncycastle.cert.X509v2CRLBuilder;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.PEMParser;
-import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
 import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequest;
@@ -26,35 +38,37 @@ import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.FileWriter;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.security.MessageDigest;
 import java.security.PrivateKey;
-import java.security.Key;
-import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.security.Security;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
-import java.lang.reflect.Field;
+import java.util.stream.Stream;
 
 @Service
 public class CAService {
@@ -65,20 +79,64 @@ public class CAService {
     private final CertificateRepository certificateRepository;
     private final CertificateRequestRepository certificateRequestRepository;
     private final UserRepository userRepository;
-    private final KeystorePasswordService keystorePasswordService;
+    private final KeyPairPool keyPairPool;
+    private final CertificateChainService certificateChainService;
+    private final IssuingCASelector issuingCASelector;
+    private final SigningEngine signingEngine;
+    private final SigningKeyService signingKeyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
     
     @Value("${pki.ca.store:ca-store}")
     public String caStore;
+
+    /** Base des URL publiques des CRL, inscrite dans l'extension CRL Distribution Points */
+    @Value("${pki.crl.base-url:http://localhost:8080/api}")
+    private String crlBaseUrl = "http://localhost:8080/api";
+
+    /** Profil d'émission des certificats finaux quand aucun profil connu n'est demandé */
+    @Value("${pki.certificates.default-profile:authentication}")
+    private String defaultCertificateProfile = "authentication";
+
+    // Extensions pré-encodées par (AC, profil d'émission) ; le certificat d'une AC ne change pas
+    private final Map<String, IssuanceTemplate> issuanceTemplates = new ConcurrentHashMap<>();
+
+    /** Nombre de partitions de CRL des nouvelles AC (les AC existantes gardent le leur) */
+    @Value("${pki.crl.default-shards:1}")
+    private int defaultCrlShards = 1;
+
+    /**
+     * Entrée de CRL : numéro de série et date de révocation
+     */
+    public record RevokedEntry(BigInteger serial, Date revokedAt) {}
+
+    /**
+     * En-tête d'une CRL (tout sauf les entrées) : émetteur, validité et extensions
+     */
+    public record CrlHeader(X500Name issuer, Date thisUpdate, Date nextUpdate, List<Extension> extensions) {}
+
     public CAService(CAConfigurationRepository caConfigurationRepository,
                      CertificateRepository certificateRepository,
                      CertificateRequestRepository certificateRequestRepository,
                      UserRepository userRepository,
-                     KeystorePasswordService keystorePasswordService) {
+                     KeyPairPool keyPairPool,
+                     CertificateChainService certificateChainService,
+                     IssuingCASelector issuingCASelector,
+                     SigningEngine signingEngine,
+                     SigningKeyService signingKeyService,
+                     ApplicationEventPublisher eventPublisher,
+                     MeterRegistry meterRegistry) {
         this.caConfigurationRepository = caConfigurationRepository;
         this.certificateRepository = certificateRepository;
         this.certificateRequestRepository = certificateRequestRepository;
         this.userRepository = userRepository;
-        this.keystorePasswordService = keystorePasswordService;
+        this.keyPairPool = keyPairPool;
+        this.certificateChainService = certificateChainService;
+        this.issuingCASelector = issuingCASelector;
+        this.signingEngine = signingEngine;
+        this.signingKeyService = signingKeyService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
         if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
             Security.addProvider(new BouncyCastleProvider());
         }
@@ -86,12 +144,20 @@ public class CAService {
 
     @Transactional
     public CAConfiguration generateRootCA(String caName, int keySize, int validityDays) {
+        return generateRootCA(caName, "RSA", keySize, validityDays);
+    }
+
+    /**
+     * Generate a self-signed root CA with the requested key profile (RSA, EC P-256/P-384, Ed25519).
+     * The signature algorithm is derived from the generated key.
+     */
+    @Transactional
+    public CAConfiguration generateRootCA(String caName, String keyAlgorithm, int keySize, int validityDays) {
         try {
             Files.createDirectories(Path.of(caStore));
 
-            KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA", BouncyCastleProvider.PROVIDER_NAME);
-            kpg.initialize(keySize, new SecureRandom());
-            KeyPair kp = kpg.generateKeyPair();
+            KeyProfile profile = KeyProfile.of(keyAlgorithm, keySize);
+            KeyPair kp = keyPairPool.take(profile);
 
             X500Name subject = new X500Name("CN=" + caName + ", O=PKI Souverain, C=CM");
             BigInteger serial = BigInteger.valueOf(Math.abs(new SecureRandom().nextLong()));
@@ -110,8 +176,12 @@ public class CAService {
 
             certBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
             certBuilder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+            certBuilder.addExtension(Extension.subjectKeyIdentifier, false,
+                    new JcaX509ExtensionUtils().createSubjectKeyIdentifier(kp.getPublic()));
 
-            ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA").build(kp.getPrivate());
+            ContentSigner signer = new JcaContentSignerBuilder(profile.getSignatureAlgorithm())
+                    .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                    .build(kp.getPrivate());
 
             X509Certificate cert = new JcaX509CertificateConverter()
                     .setProvider(BouncyCastleProvider.PROVIDER_NAME)
@@ -128,9 +198,7 @@ public class CAService {
             }
 
             // Write certificate PEM
-            try (JcaPEMWriter pw = new JcaPEMWriter(new FileWriter(certPath.toFile()))) {
-                pw.writeObject(cert);
-            }
+            Files.write(certPath, PemCodec.encodeToBytes(PemCodec.CERTIFICATE, cert.getEncoded()));
 
             // Persist CAConfiguration
                 CAConfiguration cfg = new CAConfiguration();
@@ -139,12 +207,16 @@ public class CAService {
                 cfg.caKeyPath = keyPath.toAbsolutePath().toString();
                 cfg.validFrom = LocalDateTime.now();
                 cfg.validUntil = LocalDateTime.now().plusDays(validityDays);
-                cfg.keyAlgorithm = "RSA";
-                cfg.keySize = keySize;
-                cfg.signatureAlgorithm = "SHA256withRSA";
+                cfg.keyAlgorithm = profile.getAlgorithm();
+                cfg.keySize = profile.getKeySize();
+                cfg.signatureAlgorithm = profile.getSignatureAlgorithm();
                 cfg.isActive = true;
+                cfg.parentId = null;
+                cfg.crlShardCount = Math.max(1, defaultCrlShards);
 
             CAConfiguration saved = caConfigurationRepository.save(cfg);
+            certificateChainService.invalidateAll();
+            issuingCASelector.refresh();
 
             log.info("Generated root CA: {} (cert={}, key={})", caName, certPath, keyPath);
             return saved;
@@ -164,103 +236,152 @@ public class CAService {
     }
 
     /**
-     * Sign a CSR (PEM) using the active CA and persist the issued certificate.
+     * Sign a CSR (PEM) using the issuing CA and persist the issued certificate.
      * Optionally links the certificate to a certificate request.
      */
     @Transactional
     public String signCSR(String csrPem, int validityDays, java.util.UUID userId, java.util.UUID requestId) {
-        try {
-            CAConfiguration ca = caConfigurationRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
-                    .orElseThrow(() -> new RuntimeException("Aucune AC active trouvée"));
+        return issue(csrPem, validityDays, userId, requestId, null).pem();
+    }
 
-            // Load CA private key (from PEM or PKCS12 keystore)
-            PrivateKey caPrivateKey = loadPrivateKeyForCA(ca);
+    /**
+     * Issued certificate (PEM) and the id of the CA that signed it
+     */
+    public record IssuedCertificate(String pem, java.util.UUID issuerCaId) {}
 
-            // Read CA cert
-            Path certPath = Path.of(ca.caCertPath);
-            X509Certificate caCert;
-            try (PEMParser p = new PEMParser(Files.newBufferedReader(certPath))) {
-                X509CertificateHolder holder = (X509CertificateHolder) p.readObject();
-                caCert = new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME).getCertificate(holder);
-            }
+    /**
+     * Sign a CSR with an issuing CA chosen by {@link IssuingCASelector} for the given profile
+     * (null = default) and persist the issued certificate.
+     */
+    @Transactional
+    public IssuedCertificate issue(String csrPem, int validityDays, java.util.UUID userId, java.util.UUID requestId, String profile) {
+        return issueAll(List.of(csrPem), validityDays, userId, requestId, profile).get(0);
+    }
 
-            // Parse CSR
-            PKCS10CertificationRequest csr;
-            try (PEMParser p = new PEMParser(new StringReader(csrPem))) {
-                csr = (PKCS10CertificationRequest) p.readObject();
-            }
+    /**
+     * Sign a batch of CSRs with a single issuing CA. TBS certificates are prepared sequentially,
+     * then signed in parallel by {@link SigningEngine}; results keep the order of the CSRs.
+     */
+    @Transactional
+    public List<IssuedCertificate> issueBatch(List<String> csrPems, int validityDays, java.util.UUID userId, String profile) {
+        if (csrPems == null || csrPems.isEmpty()) {
+            return List.of();
+        }
+        return issueAll(csrPems, validityDays, userId, null, profile);
+    }
 
-            JcaPKCS10CertificationRequest jcaRequest = new JcaPKCS10CertificationRequest(csr);
+    private List<IssuedCertificate> issueAll(List<String> csrPems, int validityDays, java.util.UUID userId,
+                                             java.util.UUID requestId, String profile) {
+        // pki.certificates.issue.duration : de la sélection de l'AC à l'enregistrement (hors commit)
+        Timer.Sample issueSample = Timer.start(meterRegistry);
+        String outcome = "error";
+        CAConfiguration ca = issuingCASelector.acquire(profile);
+        // CA signing key from the key registry (PEM, PKCS12 or PKCS11 token)
+        try (SigningKeyHandle caKey = signingKeyService.acquire(ca)) {
+
+            // Read CA cert
+            Path certPath = Path.of(ca.caCertPath);
+            X509CertificateHolder caCert = PemCodec.readCertificate(certPath);
+            X500Name issuerName = caCert.getSubject();
+            IssuanceTemplate template = issuanceTemplate(ca, caCert, profile);
 
-            BigInteger serial = BigInteger.valueOf(Math.abs(new SecureRandom().nextLong()));
             Date notBefore = Date.from(Instant.now().minusSeconds(60));
             Date notAfter = Date.from(Instant.now().plusSeconds((long) validityDays * 24 * 3600));
+            SecureRandom random = new SecureRandom();
+
+            // Prepare TBS certificates
+            List<JcaPKCS10CertificationRequest> requests = new ArrayList<>(csrPems.size());
+            List<BigInteger> serials = new ArrayList<>(csrPems.size());
+            List<X509v3CertificateBuilder> builders = new ArrayList<>(csrPems.size());
+            for (String csrPem : csrPems) {
+                PKCS10CertificationRequest csr = PemCodec.parseCertificationRequest(csrPem);
+                JcaPKCS10CertificationRequest jcaRequest = new JcaPKCS10CertificationRequest(csr);
+                BigInteger serial = BigInteger.valueOf(Math.abs(random.nextLong()));
+
+                // Clé publique reprise telle quelle de la CSR (pas de conversion JCA)
+                X509v3CertificateBuilder builder = new X509v3CertificateBuilder(
+                        issuerName,
+                        serial,
+                        notBefore,
+                        notAfter,
+                        csr.getSubject(),
+                        csr.getSubjectPublicKeyInfo()
+                );
+                template.apply(builder, csr.getSubject(), csr.getSubjectPublicKeyInfo(), crlShardOf(ca, serial), csr.getRequestedExtensions());
+
+                requests.add(jcaRequest);
+                serials.add(serial);
+                builders.add(builder);
+            }
 
-            // Convert issuer and subject to X500Name (BouncyCastle types) to match constructor
-            X500Name issuerName = X500Name.getInstance(caCert.getSubjectX500Principal().getEncoded());
-            X500Name subjectName = X500Name.getInstance(jcaRequest.getSubject().getEncoded());
+            Timer.Sample signSample = Timer.start(meterRegistry);
+            List<X509CertificateHolder> signed = builders.size() == 1
+                    ? List.of(signingEngine.sign(builders.get(0), caKey))
+                    : signingEngine.signAll(builders, caKey);
+            signSample.stop(meterRegistry.timer("pki.signing.duration", "kind", "certificate"));
 
-            JcaX509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
-                    issuerName,
-                    serial,
-                    notBefore,
-                    notAfter,
-                    subjectName,
-                    jcaRequest.getPublicKey()
-            );
+            Optional<cm.gov.pki.entity.User> owner = userId != null ? userRepository.findById(userId) : Optional.empty();
+            Optional<cm.gov.pki.entity.CertificateRequest> request = requestId != null
+                    ? certificateRequestRepository.findById(requestId) : Optional.empty();
 
-            ContentSigner signer = new JcaContentSignerBuilder(ca.signatureAlgorithm)
-                    .setProvider(BouncyCastleProvider.PROVIDER_NAME)
-                    .build(caPrivateKey);
+            List<IssuedCertificate> issued = new ArrayList<>(signed.size());
+            List<Certificate> entities = new ArrayList<>(signed.size());
+            List<byte[]> encoded = new ArrayList<>(signed.size());
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (int i = 0; i < signed.size(); i++) {
+                X509CertificateHolder issuedHolder = signed.get(i);
 
-            X509CertificateHolder issuedHolder = certBuilder.build(signer);
-            X509Certificate issuedCert = new JcaX509CertificateConverter()
-                    .setProvider(BouncyCastleProvider.PROVIDER_NAME)
-                    .getCertificate(issuedHolder);
+                // PEM output
+                byte[] der = issuedHolder.getEncoded();
+                issued.add(new IssuedCertificate(PemCodec.encode(PemCodec.CERTIFICATE, der), ca.id));
+                encoded.add(der);
 
-            // PEM output
-            StringWriter sw = new StringWriter();
-            try (JcaPEMWriter pw = new JcaPEMWriter(sw)) {
-                pw.writeObject(issuedCert);
-            }
-            String pem = sw.toString();
+                // Persist Certificate entity if user exists
+                if (owner.isPresent()) {
+                    // Compute fingerprint
+                    String fingerprint = PemCodec.hex(md.digest(encoded.get(i)));
 
-            // Compute fingerprint
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] fp = md.digest(issuedCert.getEncoded());
-            StringBuilder hex = new StringBuilder();
-            for (byte b : fp) hex.append(String.format("%02x", b));
-
-            // Persist Certificate entity if user exists
-            if (userId != null) {
-                Optional<cm.gov.pki.entity.User> ou = userRepository.findById(userId);
-                if (ou.isPresent()) {
-                    cm.gov.pki.entity.User user = ou.get();
                     Certificate certEntity = new Certificate();
-                    certEntity.setUser(user);
-                    certEntity.setSerialNumber(serial.toString());
-                    certEntity.setFingerprintSha256(hex.toString());
-                    certEntity.setCertificatePem(pem);
-                    certEntity.setPublicKeyPem(jcaRequest.getPublicKey().toString());
-                    certEntity.setSubjectDN(subjectName.toString());
+                    certEntity.setUser(owner.get());
+                    certEntity.setSerialNumber(serials.get(i).toString());
+                    certEntity.setFingerprintSha256(fingerprint);
+                    certEntity.setCertificateDer(encoded.get(i));
+                    certEntity.setPublicKeyPem(requests.get(i).getPublicKey().toString());
+                    certEntity.setSubjectDN(issuedHolder.getSubject().toString());
                     certEntity.setIssuerDN(issuerName.toString());
+                    certEntity.setIssuerCaId(ca.id);
                     certEntity.setNotBefore(LocalDateTime.ofInstant(notBefore.toInstant(), ZoneId.systemDefault()));
                     certEntity.setNotAfter(LocalDateTime.ofInstant(notAfter.toInstant(), ZoneId.systemDefault()));
                     certEntity.setStatus(Certificate.CertificateStatus.ACTIVE);
-
-                    if (requestId != null) {
-                        certificateRequestRepository.findById(requestId).ifPresent(certEntity::setRequest);
-                    }
-
-                    certificateRepository.save(certEntity);
+                    request.ifPresent(certEntity::setRequest);
+                    entities.add(certEntity);
+                }
+            }
+            List<CertificatesIssuedEvent.Entry> logEntries = new ArrayList<>(encoded.size());
+            if (!entities.isEmpty()) {
+                List<Certificate> saved = certificateRepository.saveAll(entities);
+                for (int i = 0; i < saved.size(); i++) {
+                    eventPublisher.publishEvent(new CertificateStatusChangedEvent(saved.get(i).getId(), null, Certificate.CertificateStatus.ACTIVE));
+                    logEntries.add(new CertificatesIssuedEvent.Entry(saved.get(i).getId(), encoded.get(i)));
+                }
+            } else {
+                for (byte[] der : encoded) {
+                    logEntries.add(new CertificatesIssuedEvent.Entry(null, der));
                 }
             }
+            // Every signed certificate goes into the transparency log once issuance commits
+            eventPublisher.publishEvent(new CertificatesIssuedEvent(ca.id, logEntries));
 
-            return pem;
+            outcome = "success";
+            return issued;
 
         } catch (Exception e) {
             log.error("Failed to sign CSR", e);
             throw new RuntimeException("Échec signature CSR: " + e.getMessage(), e);
+        } finally {
+            issuingCASelector.release(ca);
+            issueSample.stop(meterRegistry.timer("pki.certificates.issue.duration",
+                    "mode", csrPems.size() == 1 ? "single" : "batch", "outcome", outcome));
         }
     }
 
@@ -277,14 +398,11 @@ public class CAService {
             try (PEMParser p = new PEMParser(Files.newBufferedReader(keyPath))) {
                 keyObj = p.readObject();
             }
-            PrivateKey caPrivateKey = new JcaPEMKeyConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
-                    .getPrivateKey(((org.bouncycastle.openssl.PEMKeyPair) keyObj).getPrivateKeyInfo());
+            PrivateKey caPrivateKey = toPrivateKey(keyObj);
 
             X509Certificate caCert;
-            try (PEMParser p = new PEMParser(Files.newBufferedReader(certPath))) {
-                X509CertificateHolder holder = (X509CertificateHolder) p.readObject();
-                caCert = new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME).getCertificate(holder);
-            }
+            caCert = new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                    .getCertificate(PemCodec.readCertificate(certPath));
 
             java.security.KeyStore ks = java.security.KeyStore.getInstance("PKCS12");
             ks.load(null, null);
@@ -302,6 +420,7 @@ public class CAService {
             } catch (Exception ex) {
                 log.warn("Could not delete PEM private key {}: {}", keyPath, ex.getMessage());
             }
+            signingKeyService.invalidate(ca.id);
 
             return ksPath;
         } catch (Exception e) {
@@ -314,10 +433,16 @@ public class CAService {
      * GÃ©nÃ©rer un CSR valide pour les tests (retourne PEM)
      */
     public String generateCSR(String commonName, String organization, String country) {
+        return generateCSR(commonName, organization, country, "RSA", 2048);
+    }
+
+    /**
+     * Générer un CSR de test avec le profil de clé demandé (RSA, EC, Ed25519)
+     */
+    public String generateCSR(String commonName, String organization, String country, String keyAlgorithm, int keySize) {
         try {
-            KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA", BouncyCastleProvider.PROVIDER_NAME);
-            kpg.initialize(2048, new SecureRandom());
-            KeyPair kp = kpg.generateKeyPair();
+            KeyProfile profile = KeyProfile.of(keyAlgorithm, keySize);
+            KeyPair kp = keyPairPool.take(profile);
 
             X500Name subject = new X500Name("CN=" + commonName + ", O=" + organization + ", C=" + country);
             
@@ -325,17 +450,13 @@ public class CAService {
             org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder csrBuilder = 
                     new org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder(subject, kp.getPublic());
             
-            ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA")
+            ContentSigner signer = new JcaContentSignerBuilder(profile.getSignatureAlgorithm())
                     .setProvider(BouncyCastleProvider.PROVIDER_NAME)
                     .build(kp.getPrivate());
             
             PKCS10CertificationRequest csr = csrBuilder.build(signer);
 
-            StringWriter sw = new StringWriter();
-            try (JcaPEMWriter pw = new JcaPEMWriter(sw)) {
-                pw.writeObject(csr);
-            }
-            return sw.toString();
+            return PemCodec.encode(PemCodec.CERTIFICATE_REQUEST, csr.getEncoded());
         } catch (Exception e) {
             log.error("Failed to generate CSR", e);
             throw new RuntimeException("Ã‰chec gÃ©nÃ©ration CSR: " + e.getMessage(), e);
@@ -347,41 +468,37 @@ public class CAService {
      */
     @Transactional
     public CAConfiguration generateIntermediateCA(String caName, int keySize, int validityDays) {
+        return generateIntermediateCA(caName, "RSA", keySize, validityDays);
+    }
+
+    /**
+     * Générer une AC intermédiaire avec le profil de clé demandé (RSA, EC, Ed25519)
+     */
+    @Transactional
+    public CAConfiguration generateIntermediateCA(String caName, String keyAlgorithm, int keySize, int validityDays) {
         try {
-            CAConfiguration rootCA = caConfigurationRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
-                    .orElseThrow(() -> new RuntimeException("Aucune AC racine active trouvÃ©e"));
+            CAConfiguration rootCA = caConfigurationRepository.findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc()
+                    .orElseThrow(() -> new RuntimeException("Aucune AC racine active trouvée"));
+            if (rootCA.pathLength != null && rootCA.pathLength < 1) {
+                throw new RuntimeException("L'AC racine n'autorise pas d'AC subordonnée (pathLength=" + rootCA.pathLength + ")");
+            }
+            // Les fichiers de l'AC sont nommés d'après son nom : deux AC actives ne peuvent pas le partager
+            if (caConfigurationRepository.existsByCaNameAndIsActiveTrue(caName)) {
+                throw new RuntimeException("Une AC active porte déjà le nom " + caName);
+            }
 
             // Charger la clÃ© privÃ©e de l'AC racine depuis le keystore ou directement (si PEM existe encore)
             Path rootCertPath = Path.of(rootCA.caCertPath);
-            Path rootKeyPath = Path.of(rootCA.caKeyPath);
-            
             X509Certificate rootCert;
-            PrivateKey rootPrivateKey = null;
 
             // Try to load root cert
-            try (PEMParser p = new PEMParser(Files.newBufferedReader(rootCertPath))) {
-                X509CertificateHolder holder = (X509CertificateHolder) p.readObject();
-                rootCert = new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME).getCertificate(holder);
-            }
+            rootCert = new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                    .getCertificate(PemCodec.readCertificate(rootCertPath));
 
-            // Try to load root private key (from PEM or keystore)
-            if (Files.exists(rootKeyPath)) {
-                try (PEMParser p = new PEMParser(Files.newBufferedReader(rootKeyPath))) {
-                    Object keyObj = p.readObject();
-                    rootPrivateKey = new JcaPEMKeyConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
-                            .getPrivateKey(((org.bouncycastle.openssl.PEMKeyPair) keyObj).getPrivateKeyInfo());
-                }
-            } else {
-                rootPrivateKey = loadPrivateKeyForCA(rootCA);
-                if (rootPrivateKey == null) {
-                    throw new RuntimeException("AC root private key not available (PEM nor keystore). Cannot generate intermediate CA.");
-                }
-            }
 
             // GÃ©nÃ©rer paire de clÃ©s pour l'AC intermÃ©diaire
-            KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA", BouncyCastleProvider.PROVIDER_NAME);
-            kpg.initialize(keySize, new SecureRandom());
-            KeyPair intermediateKeyPair = kpg.generateKeyPair();
+            KeyProfile profile = KeyProfile.of(keyAlgorithm, keySize);
+            KeyPair intermediateKeyPair = keyPairPool.take(profile);
 
             // CrÃ©er le certificat intermÃ©diaire
             X500Name intermediateSubject = new X500Name("CN=" + caName + ", O=PKI Souverain, C=CM");
@@ -401,26 +518,31 @@ public class CAService {
                     intermediateKeyPair.getPublic()
             );
 
-            // Ajouter les extensions pour une AC intermÃ©diaire
-            certBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+            // Ajouter les extensions pour une AC intermÃ©diaire (pathLen 0 : n'émet que des certificats finaux)
+            certBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(0));
             certBuilder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
-
-            ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA")
-                    .setProvider(BouncyCastleProvider.PROVIDER_NAME)
-                    .build(rootPrivateKey);
+            JcaX509ExtensionUtils extensionUtils = new JcaX509ExtensionUtils();
+            certBuilder.addExtension(Extension.subjectKeyIdentifier, false,
+                    extensionUtils.createSubjectKeyIdentifier(intermediateKeyPair.getPublic()));
+            certBuilder.addExtension(Extension.authorityKeyIdentifier, false,
+                    extensionUtils.createAuthorityKeyIdentifier(rootCert.getPublicKey()));
+
+            // Signature par la clé de l'AC racine (PEM, keystore ou jeton PKCS#11)
+            X509CertificateHolder intermediateHolder;
+            try (SigningKeyHandle rootKey = signingKeyService.acquire(rootCA)) {
+                intermediateHolder = signingEngine.sign(certBuilder, rootKey);
+            }
 
             X509Certificate intermediateCert = new JcaX509CertificateConverter()
                     .setProvider(BouncyCastleProvider.PROVIDER_NAME)
-                    .getCertificate(certBuilder.build(signer));
+                    .getCertificate(intermediateHolder);
 
             // Sauvegarder les fichiers PEM intermÃ©diaires
             String baseName = caName.replaceAll("\\s+", "_").toLowerCase();
             Path intermediateCertPath = Path.of(caStore, baseName + ".crt.pem");
             Path intermediateKeyPath = Path.of(caStore, baseName + ".key.pem");
 
-            try (JcaPEMWriter pw = new JcaPEMWriter(new FileWriter(intermediateCertPath.toFile()))) {
-                pw.writeObject(intermediateCert);
-            }
+            Files.write(intermediateCertPath, PemCodec.encodeToBytes(PemCodec.CERTIFICATE, intermediateCert.getEncoded()));
 
             try (JcaPEMWriter pw = new JcaPEMWriter(new FileWriter(intermediateKeyPath.toFile()))) {
                 pw.writeObject(intermediateKeyPair.getPrivate());
@@ -433,12 +555,18 @@ public class CAService {
                 cfg.caKeyPath = intermediateKeyPath.toAbsolutePath().toString();
                 cfg.validFrom = LocalDateTime.now();
                 cfg.validUntil = LocalDateTime.now().plusDays(validityDays);
-                cfg.keyAlgorithm = "RSA";
-                cfg.keySize = keySize;
-                cfg.signatureAlgorithm = "SHA256withRSA";
-                cfg.isActive = false;
+                cfg.keyAlgorithm = profile.getAlgorithm();
+                cfg.keySize = profile.getKeySize();
+                cfg.signatureAlgorithm = profile.getSignatureAlgorithm();
+                cfg.isActive = true;
+                cfg.parentId = rootCA.id;
+                cfg.pathLength = 0;
+                cfg.isIssuing = true;
+                cfg.crlShardCount = Math.max(1, defaultCrlShards);
 
                 CAConfiguration saved = caConfigurationRepository.save(cfg);
+                certificateChainService.invalidateAll();
+                issuingCASelector.refresh();
             log.info("Generated intermediate CA: {} (cert={}, key={})", caName, intermediateCertPath, intermediateKeyPath);
             return saved;
 
@@ -448,185 +576,339 @@ public class CAService {
         }
     }
 
-    // Helper to set private fields when Lombok-generated setters are not available to the compiler/IDE
-    private void setField(Object target, String name, Object value) throws Exception {
-        Field f = target.getClass().getDeclaredField(name);
-        f.setAccessible(true);
-        f.set(target, value);
-    }
-
-    // Helper to read private fields when Lombok-generated getters are not available to the IDE/compiler
-    private Object getFieldValue(Object target, String name) throws Exception {
-        Field f = target.getClass().getDeclaredField(name);
-        f.setAccessible(true);
-        return f.get(target);
-    }
-
     @Transactional
     public void revokeCertificate(java.util.UUID certificateId, String reason, cm.gov.pki.entity.User admin) {
         var opt = certificateRepository.findById(certificateId);
         if (opt.isEmpty()) throw new RuntimeException("Certificate not found");
         var cert = opt.get();
-        try {
-            setField(cert, "status", cm.gov.pki.entity.Certificate.CertificateStatus.REVOKED);
-            setField(cert, "revokedAt", java.time.LocalDateTime.now());
-            setField(cert, "revokedBy", admin);
-            setField(cert, "revocationReason", reason);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        Certificate.CertificateStatus previousStatus = cert.getStatus();
+        // Setters rather than field writes: the entity class is bytecode-enhanced
+        cert.setStatus(Certificate.CertificateStatus.REVOKED);
+        cert.setRevokedAt(LocalDateTime.now());
+        cert.setRevokedBy(admin);
+        cert.setRevocationReason(reason);
         certificateRepository.save(cert);
+        // The issuer's CRL is republished after commit by CrlPublicationService
+        if (previousStatus != Certificate.CertificateStatus.REVOKED) {
+            eventPublisher.publishEvent(new CertificateStatusChangedEvent(cert.getId(), previousStatus, Certificate.CertificateStatus.REVOKED));
+        }
+    }
 
-        // Regenerate CRL and persist
-        CAConfiguration ca = caConfigurationRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
-            .orElseThrow(() -> new RuntimeException("No active CA"));
-        String crlPem = generateCRL(ca);
+    /**
+     * Add or remove a CA from the pool of issuing CAs used by {@link IssuingCASelector}.
+     */
+    @Transactional
+    public CAConfiguration setIssuing(java.util.UUID caId, boolean issuing, String profile) {
+        CAConfiguration ca = caConfigurationRepository.findById(caId)
+                .orElseThrow(() -> new RuntimeException("AC introuvable"));
+        if (issuing && (ca.isRoot() || !Boolean.TRUE.equals(ca.isActive))) {
+            throw new RuntimeException("Seule une AC intermédiaire active peut émettre des certificats");
+        }
+        ca.isIssuing = issuing;
+        ca.issuingProfile = (profile == null || profile.isBlank()) ? null : profile.trim();
+        CAConfiguration saved = caConfigurationRepository.save(ca);
+        issuingCASelector.refresh();
+        log.info("CA {} issuing={} profile={}", ca.caName, issuing, ca.issuingProfile);
+        return saved;
+    }
+
+    /**
+     * Move a CA private key onto the configured PKCS#11 token. The key is then referenced
+     * as "pkcs11:&lt;alias&gt;" and the plaintext PEM file is deleted.
+     */
+    @Transactional
+    public CAConfiguration moveKeyToToken(java.util.UUID caId, String alias) {
+        CAConfiguration ca = caConfigurationRepository.findById(caId)
+                .orElseThrow(() -> new RuntimeException("AC introuvable"));
+        if (ca.caKeyPath != null && ca.caKeyPath.startsWith(Pkcs11SigningKeyProvider.PREFIX)) {
+            throw new RuntimeException("La clé de l'AC est déjà sur un jeton PKCS#11");
+        }
         try {
-            java.nio.file.Path crlPath = java.nio.file.Path.of(caStore, ca.caName.replaceAll("\\s+","_").toLowerCase() + ".crl.pem");
-            java.nio.file.Files.writeString(crlPath, crlPem);
-
-            CAConfiguration updated = new CAConfiguration();
-            updated.caName = ca.caName;
-            updated.caCertPath = ca.caCertPath;
-            updated.caKeyPath = ca.caKeyPath;
-            updated.caCrlPath = crlPath.toAbsolutePath().toString();
-            updated.validFrom = ca.validFrom;
-            updated.validUntil = ca.validUntil;
-            updated.keyAlgorithm = ca.keyAlgorithm;
-            updated.keySize = ca.keySize;
-            updated.signatureAlgorithm = ca.signatureAlgorithm;
-            updated.isActive = ca.isActive;
-            caConfigurationRepository.save(updated);
+            X509Certificate caCert = new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                    .getCertificate(PemCodec.readCertificate(Path.of(ca.caCertPath)));
+            Path previousKeyPath = Path.of(ca.caKeyPath);
+            try (SigningKeyHandle key = signingKeyService.acquire(ca)) {
+                ca.caKeyPath = signingKeyService.importToToken(alias, key.getPrivateKey(), caCert);
+            }
+            CAConfiguration saved = caConfigurationRepository.save(ca);
+            signingKeyService.invalidate(ca.id);
+            if (Files.deleteIfExists(previousKeyPath)) {
+                log.info("Deleted plaintext PEM private key: {}", previousKeyPath);
+            }
+            return saved;
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Failed to persist CRL: " + e.getMessage(), e);
+            throw new RuntimeException("Échec migration de la clé vers le jeton: " + e.getMessage(), e);
         }
     }
 
-    // Backwards-compatible alias used in this class
-    private Object getField(Object target, String name) throws Exception {
-        return getFieldValue(target, name);
+    /**
+     * CRL partition of a certificate: serial number modulo the CA's shard count.
+     * Stable for the lifetime of the CA, since the shard URL is embedded in each certificate.
+     */
+    public int crlShardOf(CAConfiguration ca, BigInteger serial) {
+        return serial.mod(BigInteger.valueOf(ca.crlShards())).intValue();
     }
 
-    
+    /**
+     * Public URL of a CRL partition (/crl/{caId}.crl when the CA is not partitioned)
+     */
+    public String crlUrlFor(CAConfiguration ca, int shard) {
+        String base = crlBaseUrl.endsWith("/") ? crlBaseUrl.substring(0, crlBaseUrl.length() - 1) : crlBaseUrl;
+        return base + "/crl/" + ca.id + (ca.crlShards() > 1 ? "/" + shard : "") + ".crl";
+    }
 
-    // Charge la clÃ© privÃ©e pour une CA : tente le PEM puis le PKCS12 keystore (alias 'ca-key').
-    private PrivateKey loadPrivateKeyForCA(CAConfiguration ca) {
-        try {
-            // Try PEM first
-            Path keyPath = Path.of(ca.caKeyPath);
-            if (Files.exists(keyPath)) {
-                try (PEMParser p = new PEMParser(Files.newBufferedReader(keyPath))) {
-                    Object keyObj = p.readObject();
-                    return new JcaPEMKeyConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
-                            .getPrivateKey(((org.bouncycastle.openssl.PEMKeyPair) keyObj).getPrivateKeyInfo());
-                }
-            }
+    /**
+     * CRL file of a CA partition
+     */
+    public Path crlPathFor(CAConfiguration ca, int shard) {
+        String name = ca.caName.replaceAll("\\s+", "_").toLowerCase();
+        return Path.of(caStore, name + (ca.crlShards() > 1 ? "-" + shard : "") + ".crl.pem");
+    }
 
-            // Fallback : look for PKCS12 in caStore with same base name
-            String baseName = ca.caName.replaceAll("\\s+", "_").toLowerCase();
-            Path ksPath = Path.of(caStore, baseName + ".p12");
-            if (Files.exists(ksPath)) {
-                KeyStore ks = KeyStore.getInstance("PKCS12");
-                try (java.io.InputStream is = Files.newInputStream(ksPath)) {
-                    ks.load(is, keystorePasswordService.getPassword(ca));
-                }
-                Key key = ks.getKey("ca-key", keystorePasswordService.getPassword(ca));
-                if (key instanceof PrivateKey) {
-                    return (PrivateKey) key;
-                }
+    /**
+     * URL publique du certificat de l'AC (AIA caIssuers des certificats émis)
+     */
+    public String caIssuersUrlFor(CAConfiguration ca) {
+        String base = crlBaseUrl.endsWith("/") ? crlBaseUrl.substring(0, crlBaseUrl.length() - 1) : crlBaseUrl;
+        return base + "/crl/" + ca.id + ".crt";
+    }
+
+    /**
+     * Extensions pré-encodées du profil d'émission demandé pour l'AC ; un nom inconnu (profil de
+     * routage des AC seulement) donne le profil par défaut pki.certificates.default-profile
+     */
+    IssuanceTemplate issuanceTemplate(CAConfiguration ca, X509CertificateHolder caCert, String profile) {
+        CertificateProfile certificateProfile = CertificateProfile.byName(profile)
+                .or(() -> CertificateProfile.byName(defaultCertificateProfile))
+                .orElse(CertificateProfile.AUTHENTICATION);
+        return issuanceTemplates.computeIfAbsent(ca.id + ":" + certificateProfile.name(), key -> {
+            List<String> crlUrls = new ArrayList<>(ca.crlShards());
+            for (int shard = 0; shard < ca.crlShards(); shard++) {
+                crlUrls.add(crlUrlFor(ca, shard));
             }
+            return new IssuanceTemplate(certificateProfile, caCert, caIssuersUrlFor(ca), crlUrls);
+        });
+    }
 
-        } catch (Exception e) {
-            log.warn("Could not load private key for CA {}: {}", ca.caName, e.getMessage());
+    /**
+     * Oublie les extensions pré-encodées (changement d'URL publique ou de certificat d'AC)
+     */
+    public void invalidateIssuanceTemplates() {
+        issuanceTemplates.clear();
+    }
+
+    private DistributionPointName distributionPointName(CAConfiguration ca, int shard) {
+        return new DistributionPointName(new GeneralNames(
+                new GeneralName(GeneralName.uniformResourceIdentifier, crlUrlFor(ca, shard))));
+    }
+
+    /**
+     * Most recently created issuing CA, or the active root when no intermediate issues certificates.
+     * Signing itself goes through {@link IssuingCASelector}.
+     */
+    public CAConfiguration resolveIssuingCA() {
+        return caConfigurationRepository.findFirstByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtDesc()
+                .or(caConfigurationRepository::findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc)
+                .orElseThrow(() -> new RuntimeException("Aucune AC active trouvée"));
+    }
+
+    /**
+     * CA that signed a certificate (legacy certificates without issuer were signed by the root).
+     */
+    public CAConfiguration resolveIssuerOf(Certificate cert) {
+        if (cert.getIssuerCaId() != null) {
+            return caConfigurationRepository.findById(cert.getIssuerCaId())
+                    .orElseThrow(() -> new RuntimeException("Issuer CA not found"));
         }
-        return null;
+        return caConfigurationRepository.findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc()
+                .orElseThrow(() -> new RuntimeException("No active CA"));
+    }
+
+    
+
+    // Convertit un objet PEM (clé traditionnelle RSA/EC ou PKCS#8, ex. Ed25519) en PrivateKey
+    private PrivateKey toPrivateKey(Object keyObj) throws Exception {
+        return PemFileSigningKeyProvider.toPrivateKey(keyObj);
     }
 
     /**
-     * GÃ©nÃ©rer une CRL (Certificate Revocation List) pour l'AC active
+     * Générer une CRL (Certificate Revocation List) pour l'AC, au format PEM, sans numéro (aperçu).
+     * Les CRL publiées passent par {@link CrlPublicationService}.
+     * Les entrées sont lues et encodées en flux ({@link StreamingCrlWriter}) : seul le PEM final est en mémoire.
      */
+    @Transactional(readOnly = true)
     public String generateCRL(CAConfiguration ca) {
-        try {
-            // Charger l'AC (certificat et clÃ© privÃ©e)
-            Path caKeyPath = Path.of(ca.caKeyPath);
-            Path caCertPath = Path.of(ca.caCertPath);
-
-            // Load CA private key (PEM or keystore)
-            PrivateKey caPrivateKey = null;
-            if (Files.exists(caKeyPath)) {
-                Object caKeyObj;
-                try (PEMParser p = new PEMParser(Files.newBufferedReader(caKeyPath))) {
-                    caKeyObj = p.readObject();
-                }
-                caPrivateKey = new JcaPEMKeyConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
-                        .getPrivateKey(((org.bouncycastle.openssl.PEMKeyPair) caKeyObj).getPrivateKeyInfo());
-            } else {
-                caPrivateKey = loadPrivateKeyForCA(ca);
-                if (caPrivateKey == null) {
-                    throw new RuntimeException("CA private key not available. Use keystore for CRL generation.");
-                }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Path der = null;
+        Path pem = null;
+        try (StreamingCrlWriter writer = new StreamingCrlWriter(null);
+             Stream<RevokedEntry> entries = streamRevokedEntries(ca)) {
+            for (RevokedEntry entry : (Iterable<RevokedEntry>) entries::iterator) {
+                writer.add(entry.serial(), entry.revokedAt());
+            }
+            CrlHeader header = crlHeader(ca, null, null);
+            der = Files.createTempFile("crl-", ".der");
+            pem = Files.createTempFile("crl-", ".pem");
+            try (SigningKeyHandle caKey = signingKeyService.acquire(ca)) {
+                writer.finish(der, header.issuer(), header.thisUpdate(), header.nextUpdate(),
+                        toExtensions(header.extensions()), caKey.newContentSigner());
             }
+            StreamingCrlWriter.writePem(der, pem);
+            sample.stop(meterRegistry.timer("pki.crl.generation", "mode", "full"));
+            log.info("Generated CRL for CA: {} ({} entries)", ca.caName, writer.size());
+            return Files.readString(pem, StandardCharsets.US_ASCII);
+        } catch (RuntimeException e) {
+            log.error("Failed to generate CRL", e);
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Échec génération CRL: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(der);
+            deleteQuietly(pem);
+        }
+    }
 
-            X509Certificate caCert;
-            try (PEMParser p = new PEMParser(Files.newBufferedReader(caCertPath))) {
-                X509CertificateHolder holder = (X509CertificateHolder) p.readObject();
-                caCert = new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME).getCertificate(holder);
+    /**
+     * Certificats révoqués émis par l'AC, en une requête
+     */
+    public List<RevokedEntry> revokedEntries(CAConfiguration ca) {
+        List<Object[]> rows = certificateRepository.findRevokedEntries(Certificate.CertificateStatus.REVOKED, ca.id, ca.isRoot());
+        List<RevokedEntry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            RevokedEntry entry = toRevokedEntry(row);
+            if (entry != null) {
+                entries.add(entry);
             }
+        }
+        return entries;
+    }
 
-            // RÃ©cupÃ©rer les certificats rÃ©voquÃ©s depuis la base de donnÃ©es
-            // Pour l'instant, crÃ©er une CRL vide (aucun certificat rÃ©voquÃ©)
-            X500Name issuerName = X500Name.getInstance(caCert.getSubjectX500Principal().getEncoded());
-            Date thisUpdate = Date.from(Instant.now());
-            Date nextUpdate = Date.from(Instant.now().plusSeconds(7 * 24 * 3600)); // 7 jours
+    /**
+     * Certificats révoqués émis par l'AC, lus par lots (à consommer dans une transaction puis fermer)
+     */
+    public Stream<RevokedEntry> streamRevokedEntries(CAConfiguration ca) {
+        return certificateRepository.streamRevokedEntries(Certificate.CertificateStatus.REVOKED, ca.id, ca.isRoot())
+                .map(this::toRevokedEntry)
+                .filter(Objects::nonNull);
+    }
 
-            org.bouncycastle.cert.X509v2CRLBuilder crlBuilder = new org.bouncycastle.cert.X509v2CRLBuilder(
-                    issuerName,
-                    thisUpdate
-            );
-            crlBuilder.setNextUpdate(nextUpdate);
-
-            // Ajouter les entrÃ©es de rÃ©vocation depuis le repository Certificate
-            for (cm.gov.pki.entity.Certificate c : certificateRepository.findAll()) {
-                try {
-                    Object statusObj = getField(c, "status");
-                    Object revokedAtObj = getField(c, "revokedAt");
-                    Object serialObj = getField(c, "serialNumber");
-                    if (statusObj != null && revokedAtObj != null && serialObj != null) {
-                        // Compare by name to avoid depending on enum class identity issues
-                        String statusName = statusObj.toString();
-                        if ("REVOKED".equals(statusName)) {
-                            BigInteger serial = new BigInteger(serialObj.toString());
-                            LocalDateTime rdt = (LocalDateTime) revokedAtObj;
-                            Date revokedDate = Date.from(rdt.atZone(ZoneId.systemDefault()).toInstant());
-                            int reason = 0; // unspecified
-                            crlBuilder.addCRLEntry(serial, revokedDate, reason);
-                        }
-                    }
-                } catch (NoSuchFieldException nsf) {
-                    log.debug("Certificate field missing when building CRL: {}", nsf.getMessage());
-                } catch (Exception ex) {
-                    log.warn("Could not add revoked certificate to CRL: {}", ex.getMessage());
-                }
+    /**
+     * Certificats révoqués d'une seule partition de CRL, filtrés en base
+     */
+    public List<RevokedEntry> revokedEntries(CAConfiguration ca, int shard) {
+        if (ca.crlShards() == 1) {
+            return revokedEntries(ca);
+        }
+        List<Object[]> rows = certificateRepository.findRevokedEntriesInShard(Certificate.CertificateStatus.REVOKED.name(),
+                ca.id, ca.isRoot(), ca.crlShards(), shard);
+        List<RevokedEntry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            RevokedEntry entry = toRevokedEntry(row);
+            if (entry != null) {
+                entries.add(entry);
             }
+        }
+        return entries;
+    }
 
-            ContentSigner crlSigner = new JcaContentSignerBuilder("SHA256withRSA")
-                    .setProvider(BouncyCastleProvider.PROVIDER_NAME)
-                    .build(caPrivateKey);
+    /**
+     * Certificats révoqués d'une partition, lus par lots (à consommer dans une transaction puis fermer)
+     */
+    public Stream<RevokedEntry> streamRevokedEntries(CAConfiguration ca, int shard) {
+        if (ca.crlShards() == 1) {
+            return streamRevokedEntries(ca);
+        }
+        return certificateRepository.streamRevokedEntriesInShard(Certificate.CertificateStatus.REVOKED.name(),
+                        ca.id, ca.isRoot(), ca.crlShards(), shard)
+                .map(this::toRevokedEntry)
+                .filter(Objects::nonNull);
+    }
 
-            org.bouncycastle.cert.X509CRLHolder crlHolder = crlBuilder.build(crlSigner);
+    /**
+     * Nombre d'entrées de la CRL complète de l'AC
+     */
+    public long countRevokedEntries(CAConfiguration ca) {
+        return certificateRepository.countRevokedEntries(Certificate.CertificateStatus.REVOKED, ca.id, ca.isRoot());
+    }
 
-            StringWriter sw = new StringWriter();
-            try (JcaPEMWriter pw = new JcaPEMWriter(sw)) {
-                pw.writeObject(crlHolder);
+    private RevokedEntry toRevokedEntry(Object[] row) {
+        try {
+            BigInteger serial = new BigInteger(row[0].toString());
+            // LocalDateTime (JPQL) ou Timestamp (requête native)
+            LocalDateTime revokedAt = row[1] instanceof java.sql.Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) row[1];
+            return new RevokedEntry(serial, Date.from(revokedAt.atZone(ZoneId.systemDefault()).toInstant()));
+        } catch (Exception ex) {
+            log.warn("Could not add revoked certificate to CRL: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Prépare (sans signer) la CRL de l'AC avec les entrées données.
+     * shard : partition publiée, ou null pour la CRL complète. Une partition d'une AC partitionnée
+     * porte une extension Issuing Distribution Point critique égale au point de distribution
+     * inscrit dans les certificats de la partition.
+     */
+    public X509v2CRLBuilder prepareCRL(CAConfiguration ca, Integer shard, List<RevokedEntry> entries, BigInteger crlNumber) {
+        CrlHeader header = crlHeader(ca, shard, crlNumber);
+        try {
+            X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(header.issuer(), header.thisUpdate());
+            crlBuilder.setNextUpdate(header.nextUpdate());
+            for (Extension extension : header.extensions()) {
+                crlBuilder.addExtension(extension);
+            }
+            for (RevokedEntry entry : entries) {
+                crlBuilder.addCRLEntry(entry.serial(), entry.revokedAt(), 0); // unspecified
+            }
+            return crlBuilder;
+        } catch (Exception e) {
+            log.error("Failed to prepare CRL", e);
+            throw new RuntimeException("Échec génération CRL: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * En-tête de la CRL de l'AC (partition shard, ou null pour la CRL complète) ; crlNumber peut être null
+     */
+    public CrlHeader crlHeader(CAConfiguration ca, Integer shard, BigInteger crlNumber) {
+        try {
+            // Charger le certificat de l'AC (la clé est servie par le registre des clés)
+            X509CertificateHolder caCert = PemCodec.readCertificate(Path.of(ca.caCertPath));
+            Date thisUpdate = Date.from(Instant.now());
+            Date nextUpdate = Date.from(Instant.now().plusSeconds(7 * 24 * 3600)); // 7 jours
+
+            List<Extension> extensions = new ArrayList<>(2);
+            if (crlNumber != null) {
+                extensions.add(new Extension(Extension.cRLNumber, false,
+                        new CRLNumber(crlNumber).getEncoded(ASN1Encoding.DER)));
+            }
+            if (shard != null && ca.crlShards() > 1) {
+                extensions.add(new Extension(Extension.issuingDistributionPoint, true,
+                        new IssuingDistributionPoint(distributionPointName(ca, shard), false, false, null, false, false)
+                                .getEncoded(ASN1Encoding.DER)));
             }
+            return new CrlHeader(caCert.getSubject(), thisUpdate, nextUpdate, extensions);
+        } catch (Exception e) {
+            log.error("Failed to prepare CRL", e);
+            throw new RuntimeException("Échec génération CRL: " + e.getMessage(), e);
+        }
+    }
 
-            log.info("Generated CRL for CA: {}", ca.caName);
-            return sw.toString();
+    /**
+     * Extensions de CRL au format attendu par {@link StreamingCrlWriter} (null si aucune)
+     */
+    public static Extensions toExtensions(List<Extension> extensions) {
+        return extensions.isEmpty() ? null : new Extensions(extensions.toArray(new Extension[0]));
+    }
 
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
         } catch (Exception e) {
-            log.error("Failed to generate CRL", e);
-            throw new RuntimeException("Ã‰chec gÃ©nÃ©ration CRL: " + e.getMessage(), e);
+            log.warn("Fichier temporaire non supprimé : {}", path);
         }
     }
 }
-
@@ -4,51 +4,59 @@ import cm.gov.pki.entity.CAConfiguration;
 import cm.gov.pki.repository.CAConfigurationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.time.Duration;
 
 @Component
 public class CRLRotationScheduler {
     private static final Logger log = LoggerFactory.getLogger(CRLRotationScheduler.class);
 
-    private final CAService caService;
+    private final CrlPublicationService crlPublicationService;
     private final CAConfigurationRepository caConfigurationRepository;
+    private final ClusterLockService clusterLockService;
 
-    public CRLRotationScheduler(CAService caService, CAConfigurationRepository caConfigurationRepository) {
-        this.caService = caService;
+    public CRLRotationScheduler(CrlPublicationService crlPublicationService, CAConfigurationRepository caConfigurationRepository,
+                                ClusterLockService clusterLockService) {
+        this.crlPublicationService = crlPublicationService;
         this.caConfigurationRepository = caConfigurationRepository;
+        this.clusterLockService = clusterLockService;
     }
 
-    // Run daily at 02:00
+    // Run daily at 02:00 : une CRL par AC active (racine et intermédiaires), sur une seule instance
     @Scheduled(cron = "0 0 2 * * *")
+    public void scheduledRotation() {
+        clusterLockService.runExclusive("crl-rotation", Duration.ofMinutes(10), this::rotateCrl);
+    }
+
+    // Au démarrage : publier la première CRL des AC qui n'en ont pas encore (point de distribution public)
+    @EventListener(ApplicationReadyEvent.class)
+    public void publishMissing() {
+        clusterLockService.runExclusive("crl-rotation", Duration.ofMinutes(10), () -> {
+            for (CAConfiguration ca : caConfigurationRepository.findByIsActiveTrue()) {
+                if (crlPublicationService.isPublished(ca)) continue;
+                try {
+                    crlPublicationService.publish(ca);
+                } catch (Exception e) {
+                    log.error("Failed to publish initial CRL for CA {}", ca.caName, e);
+                }
+            }
+        });
+    }
+
     public void rotateCrl() {
-        try {
-            CAConfiguration ca = caConfigurationRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
-                    .orElse(null);
-            if (ca == null) return;
-            String crlPem = caService.generateCRL(ca);
-            Path crlPath = Path.of(caService.caStore, ca.caName.replaceAll("\\s+","_").toLowerCase() + ".crl.pem");
-            Files.writeString(crlPath, crlPem);
-
-            CAConfiguration updated = new CAConfiguration();
-            updated.caName = ca.caName;
-            updated.caCertPath = ca.caCertPath;
-            updated.caKeyPath = ca.caKeyPath;
-            updated.caCrlPath = crlPath.toAbsolutePath().toString();
-            updated.validFrom = ca.validFrom;
-            updated.validUntil = ca.validUntil;
-            updated.keyAlgorithm = ca.keyAlgorithm;
-            updated.keySize = ca.keySize;
-            updated.signatureAlgorithm = ca.signatureAlgorithm;
-            updated.isActive = ca.isActive;
-            // autres champs si besoin
-            caConfigurationRepository.save(updated);
-            log.info("Rotated CRL for CA {} -> {}", ca.caName, crlPath);
-        } catch (Exception e) {
-            log.error("Failed to rotate CRL", e);
+        for (CAConfiguration ca : caConfigurationRepository.findByIsActiveTrue()) {
+            try {
+                for (var publication : crlPublicationService.publish(ca)) {
+                    log.info("Rotated CRL for CA {} shard {} -> {} (n°{})", ca.caName, publication.getShard(),
+                            publication.getPath(), publication.getCrlNumber());
+                }
+            } catch (Exception e) {
+                log.error("Failed to rotate CRL for CA {}", ca.caName, e);
+            }
         }
     }
 }
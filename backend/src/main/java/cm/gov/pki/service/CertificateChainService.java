@@ -0,0 +1,132 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import cm.gov.pki.repository.CAConfigurationRepository;
+import cm.gov.pki.util.PemCodec;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSAbsentContent;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.util.CollectionStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chaînes de certification pré-encodées (PEM et PKCS#7) par AC émettrice.
+ * Les chaînes sont calculées une fois puis servies depuis le cache avec chaque certificat.
+ */
+@Service
+public class CertificateChainService {
+
+    private static final Logger log = LoggerFactory.getLogger(CertificateChainService.class);
+
+    private static final int MAX_CHAIN_DEPTH = 8;
+
+    private final CAConfigurationRepository caConfigurationRepository;
+    private final Map<UUID, ChainBundle> cache = new ConcurrentHashMap<>();
+
+    public CertificateChainService(CAConfigurationRepository caConfigurationRepository) {
+        this.caConfigurationRepository = caConfigurationRepository;
+    }
+
+    /**
+     * Chaîne d'une AC : elle-même puis ses parents jusqu'à la racine
+     *
+     * @param certificates certificats d'AC, de l'émettrice vers la racine
+     * @param pem          concaténation PEM des certificats d'AC
+     * @param pkcs7        structure PKCS#7 "certs-only" (DER) des certificats d'AC
+     */
+    public record ChainBundle(List<X509CertificateHolder> certificates, String pem, byte[] pkcs7) {}
+
+    public ChainBundle getChain(CAConfiguration ca) {
+        return cache.computeIfAbsent(ca.id, id -> buildChain(ca));
+    }
+
+    /**
+     * Chaîne de l'AC ayant émis un certificat (null = AC racine active, certificats historiques)
+     */
+    public ChainBundle getChainForIssuer(UUID issuerCaId) {
+        CAConfiguration ca = (issuerCaId != null
+                ? caConfigurationRepository.findById(issuerCaId)
+                : caConfigurationRepository.findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc())
+                .orElseThrow(() -> new RuntimeException("AC émettrice introuvable"));
+        return getChain(ca);
+    }
+
+    /**
+     * Certificat final suivi de sa chaîne, au format PEM
+     */
+    public String fullChainPem(String leafPem, ChainBundle chain) {
+        String leaf = leafPem.endsWith("\n") ? leafPem : leafPem + "\n";
+        return leaf + chain.pem();
+    }
+
+    /**
+     * Certificat final et sa chaîne dans une structure PKCS#7 (DER)
+     */
+    public byte[] fullChainPkcs7(X509CertificateHolder leaf, ChainBundle chain) {
+        List<X509CertificateHolder> all = new ArrayList<>(chain.certificates().size() + 1);
+        all.add(leaf);
+        all.addAll(chain.certificates());
+        return encodePkcs7(all);
+    }
+
+    public void invalidate(UUID caId) {
+        cache.remove(caId);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    private ChainBundle buildChain(CAConfiguration ca) {
+        try {
+            List<X509CertificateHolder> certificates = new ArrayList<>();
+            Set<UUID> visited = new HashSet<>();
+            CAConfiguration current = ca;
+            while (current != null) {
+                if (!visited.add(current.id)) {
+                    throw new IllegalStateException("cycle dans la hiérarchie d'AC (" + current.caName + ")");
+                }
+                if (visited.size() > MAX_CHAIN_DEPTH) {
+                    throw new IllegalStateException("chaîne plus longue que " + MAX_CHAIN_DEPTH + " AC");
+                }
+                certificates.add(PemCodec.readCertificate(Path.of(current.caCertPath)));
+                UUID parentId = current.parentId;
+                current = parentId == null ? null
+                        : caConfigurationRepository.findById(parentId)
+                                .orElseThrow(() -> new IllegalStateException("AC parente " + parentId + " introuvable"));
+            }
+
+            StringBuilder pem = new StringBuilder();
+            for (X509CertificateHolder holder : certificates) {
+                pem.append(PemCodec.encode(PemCodec.CERTIFICATE, holder.getEncoded()));
+            }
+
+            log.info("Chaîne de certification mise en cache pour l'AC {} ({} certificat(s))", ca.caName, certificates.size());
+            return new ChainBundle(Collections.unmodifiableList(certificates), pem.toString(), encodePkcs7(certificates));
+        } catch (Exception e) {
+            throw new RuntimeException("Échec construction de la chaîne pour l'AC " + ca.caName + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] encodePkcs7(List<X509CertificateHolder> certificates) {
+        try {
+            CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+            generator.addCertificates(new CollectionStore<>(certificates));
+            return generator.generate(new CMSAbsentContent()).getEncoded("DER");
+        } catch (Exception e) {
+            throw new RuntimeException("Échec encodage PKCS#7: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.util.PemCodec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1String;
+import org.bouncycastle.asn1.edec.EdECObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.RSAPublicKey;
+import org.bouncycastle.asn1.x500.AttributeTypeAndValue;
+import org.bouncycastle.asn1.x500.RDN;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.CertificatePolicies;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.PolicyInformation;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.asn1.x9.ECNamedCurveTable;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.operator.DefaultAlgorithmNameFinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Vue structurée d'un certificat émis (noms distinctifs, extensions, clé, empreintes, chaîne).
+ *
+ * Le certificat est analysé en mémoire avec BouncyCastle, sans appel à openssl. Un certificat émis
+ * ne change pas : la vue est gardée dans un cache borné indexé par l'empreinte SHA-256 ; seul le
+ * statut (révocation, suspension) est relu de l'entité à chaque appel. La chaîne de l'AC émettrice
+ * fait partie de la vue, le cache est donc vidé avec celui des chaînes (/admin/cache/evict).
+ */
+@Service
+public class CertificateDetailsService {
+
+    private static final Map<ASN1ObjectIdentifier, String> EXTENSION_NAMES = Map.ofEntries(
+            Map.entry(Extension.basicConstraints, "basicConstraints"),
+            Map.entry(Extension.keyUsage, "keyUsage"),
+            Map.entry(Extension.extendedKeyUsage, "extendedKeyUsage"),
+            Map.entry(Extension.subjectKeyIdentifier, "subjectKeyIdentifier"),
+            Map.entry(Extension.authorityKeyIdentifier, "authorityKeyIdentifier"),
+            Map.entry(Extension.subjectAlternativeName, "subjectAltName"),
+            Map.entry(Extension.issuerAlternativeName, "issuerAltName"),
+            Map.entry(Extension.cRLDistributionPoints, "cRLDistributionPoints"),
+            Map.entry(Extension.authorityInfoAccess, "authorityInfoAccess"),
+            Map.entry(Extension.certificatePolicies, "certificatePolicies"));
+
+    private static final Map<ASN1ObjectIdentifier, String> KEY_PURPOSES = Map.of(
+            KeyPurposeId.id_kp_serverAuth.toOID(), "serverAuth",
+            KeyPurposeId.id_kp_clientAuth.toOID(), "clientAuth",
+            KeyPurposeId.id_kp_codeSigning.toOID(), "codeSigning",
+            KeyPurposeId.id_kp_emailProtection.toOID(), "emailProtection",
+            KeyPurposeId.id_kp_timeStamping.toOID(), "timeStamping",
+            KeyPurposeId.id_kp_OCSPSigning.toOID(), "OCSPSigning",
+            new ASN1ObjectIdentifier("1.3.6.1.5.5.7.3.36"), "documentSigning");
+
+    private static final int[] KEY_USAGE_BITS = {
+            KeyUsage.digitalSignature, KeyUsage.nonRepudiation, KeyUsage.keyEncipherment, KeyUsage.dataEncipherment,
+            KeyUsage.keyAgreement, KeyUsage.keyCertSign, KeyUsage.cRLSign, KeyUsage.encipherOnly, KeyUsage.decipherOnly};
+    private static final String[] KEY_USAGE_NAMES = {
+            "digitalSignature", "nonRepudiation", "keyEncipherment", "dataEncipherment",
+            "keyAgreement", "keyCertSign", "cRLSign", "encipherOnly", "decipherOnly"};
+
+    private final CertificateChainService certificateChainService;
+    private final Cache<String, CertificateDetails> byFingerprint;
+
+    /**
+     * Attribut d'un nom distinctif, dans l'ordre du certificat (ex. CN, 2.5.4.3, Jean Dupont)
+     */
+    public record Rdn(String type, String oid, String value) {}
+
+    /**
+     * value : liste, objet ou, pour une extension non reconnue, DER de la valeur en hexadécimal
+     */
+    public record ExtensionInfo(String oid, String name, boolean critical, Object value) {}
+
+    /**
+     * Clé publique du titulaire ; curve pour les clés EC, spkiSha256 pour l'épinglage
+     */
+    public record PublicKeyInfo(String algorithm, Integer size, String curve, String spkiSha256) {}
+
+    public record Fingerprints(String sha256, String sha1) {}
+
+    /**
+     * Certificat d'AC de la chaîne, de l'AC émettrice vers la racine
+     */
+    public record ChainEntry(String subject, String serialNumber, String sha256, Instant notAfter) {}
+
+    /**
+     * Contenu du certificat, immuable une fois émis
+     */
+    public record CertificateDetails(int version, String serialNumber, List<Rdn> subject, List<Rdn> issuer,
+                                     Instant notBefore, Instant notAfter, String signatureAlgorithm,
+                                     PublicKeyInfo publicKey, List<ExtensionInfo> extensions,
+                                     Fingerprints fingerprints, List<ChainEntry> chain) {}
+
+    /**
+     * Réponse de GET /certificates/{id}/details : statut courant et contenu analysé
+     */
+    public record CertificateView(UUID id, String status, LocalDateTime revokedAt, String revocationReason,
+                                  CertificateDetails certificate) {}
+
+    public CertificateDetailsService(CertificateChainService certificateChainService,
+                                     @Value("${pki.certificate-details.cache-size:10000}") long cacheSize) {
+        this.certificateChainService = certificateChainService;
+        this.byFingerprint = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    public CertificateView view(Certificate certificate) {
+        return new CertificateView(certificate.getId(), certificate.getStatus().name(), certificate.getRevokedAt(),
+                certificate.getRevocationReason(), details(certificate));
+    }
+
+    /**
+     * Contenu analysé, depuis le cache si le certificat a déjà été consulté
+     */
+    public CertificateDetails details(Certificate certificate) {
+        String fingerprint = certificate.getFingerprintSha256() != null
+                ? certificate.getFingerprintSha256()
+                : PemCodec.fingerprintSha256(certificate.getCertificateDer());
+        return byFingerprint.get(fingerprint, key -> parse(certificate.getCertificateDer(), certificate.getIssuerCaId()));
+    }
+
+    public void invalidateAll() {
+        byFingerprint.invalidateAll();
+    }
+
+    CertificateDetails parse(byte[] der, UUID issuerCaId) {
+        try {
+            X509CertificateHolder holder = new X509CertificateHolder(der);
+            List<ExtensionInfo> extensions = new ArrayList<>();
+            if (holder.getExtensions() != null) {
+                for (ASN1ObjectIdentifier oid : holder.getExtensions().getExtensionOIDs()) {
+                    Extension extension = holder.getExtension(oid);
+                    extensions.add(new ExtensionInfo(oid.getId(), EXTENSION_NAMES.get(oid), extension.isCritical(),
+                            extensionValue(extension)));
+                }
+            }
+            return new CertificateDetails(
+                    holder.getVersionNumber(),
+                    holder.getSerialNumber().toString(),
+                    rdns(holder.getSubject()),
+                    rdns(holder.getIssuer()),
+                    holder.getNotBefore().toInstant(),
+                    holder.getNotAfter().toInstant(),
+                    new DefaultAlgorithmNameFinder().getAlgorithmName(holder.getSignatureAlgorithm()),
+                    publicKey(holder.getSubjectPublicKeyInfo()),
+                    List.copyOf(extensions),
+                    new Fingerprints(PemCodec.fingerprintSha256(der), PemCodec.hex(MessageDigest.getInstance("SHA-1").digest(der))),
+                    chain(issuerCaId));
+        } catch (Exception e) {
+            throw new RuntimeException("Échec analyse du certificat: " + e.getMessage(), e);
+        }
+    }
+
+    private List<ChainEntry> chain(UUID issuerCaId) {
+        if (issuerCaId == null) {
+            return List.of();
+        }
+        List<ChainEntry> chain = new ArrayList<>();
+        for (X509CertificateHolder ca : certificateChainService.getChainForIssuer(issuerCaId).certificates()) {
+            chain.add(new ChainEntry(ca.getSubject().toString(), ca.getSerialNumber().toString(),
+                    PemCodec.fingerprintSha256(encoded(ca)), ca.getNotAfter().toInstant()));
+        }
+        return List.copyOf(chain);
+    }
+
+    private static List<Rdn> rdns(X500Name name) {
+        List<Rdn> rdns = new ArrayList<>();
+        for (RDN rdn : name.getRDNs()) {
+            for (AttributeTypeAndValue attribute : rdn.getTypesAndValues()) {
+                ASN1ObjectIdentifier type = attribute.getType();
+                String displayName = BCStyle.INSTANCE.oidToDisplayName(type);
+                ASN1Encodable value = attribute.getValue();
+                rdns.add(new Rdn(displayName != null ? displayName : type.getId(), type.getId(),
+                        value instanceof ASN1String string ? string.getString() : IETFUtils.valueToString(value)));
+            }
+        }
+        return List.copyOf(rdns);
+    }
+
+    private static PublicKeyInfo publicKey(SubjectPublicKeyInfo spki) throws Exception {
+        ASN1ObjectIdentifier algorithm = spki.getAlgorithm().getAlgorithm();
+        String spkiSha256 = PemCodec.fingerprintSha256(spki.getEncoded());
+        if (PKCSObjectIdentifiers.rsaEncryption.equals(algorithm)) {
+            int bits = RSAPublicKey.getInstance(spki.parsePublicKey()).getModulus().bitLength();
+            return new PublicKeyInfo("RSA", bits, null, spkiSha256);
+        }
+        if (X9ObjectIdentifiers.id_ecPublicKey.equals(algorithm)
+                && spki.getAlgorithm().getParameters() instanceof ASN1ObjectIdentifier curve) {
+            X9ECParameters parameters = ECNamedCurveTable.getByOID(curve);
+            String curveName = ECNamedCurveTable.getName(curve);
+            return new PublicKeyInfo("EC", parameters != null ? parameters.getCurve().getFieldSize() : null,
+                    curveName != null ? curveName : curve.getId(), spkiSha256);
+        }
+        if (EdECObjectIdentifiers.id_Ed25519.equals(algorithm)) {
+            return new PublicKeyInfo("Ed25519", 256, null, spkiSha256);
+        }
+        if (EdECObjectIdentifiers.id_Ed448.equals(algorithm)) {
+            return new PublicKeyInfo("Ed448", 456, null, spkiSha256);
+        }
+        return new PublicKeyInfo(algorithm.getId(), null, null, spkiSha256);
+    }
+
+    private static Object extensionValue(Extension extension) {
+        ASN1ObjectIdentifier oid = extension.getExtnId();
+        ASN1Encodable parsed = extension.getParsedValue();
+        if (Extension.basicConstraints.equals(oid)) {
+            BasicConstraints constraints = BasicConstraints.getInstance(parsed);
+            Map<String, Object> value = new LinkedHashMap<>();
+            value.put("ca", constraints.isCA());
+            value.put("pathLength", constraints.getPathLenConstraint());
+            return value;
+        }
+        if (Extension.keyUsage.equals(oid)) {
+            KeyUsage keyUsage = KeyUsage.getInstance(parsed);
+            List<String> usages = new ArrayList<>();
+            for (int i = 0; i < KEY_USAGE_BITS.length; i++) {
+                if (keyUsage.hasUsages(KEY_USAGE_BITS[i])) usages.add(KEY_USAGE_NAMES[i]);
+            }
+            return usages;
+        }
+        if (Extension.extendedKeyUsage.equals(oid)) {
+            List<String> purposes = new ArrayList<>();
+            for (KeyPurposeId purpose : ExtendedKeyUsage.getInstance(parsed).getUsages()) {
+                purposes.add(KEY_PURPOSES.getOrDefault(purpose.toOID(), purpose.getId()));
+            }
+            return purposes;
+        }
+        if (Extension.subjectKeyIdentifier.equals(oid)) {
+            return PemCodec.colonHex(SubjectKeyIdentifier.getInstance(parsed).getKeyIdentifier());
+        }
+        if (Extension.authorityKeyIdentifier.equals(oid)) {
+            byte[] keyId = AuthorityKeyIdentifier.getInstance(parsed).getKeyIdentifier();
+            return keyId != null ? PemCodec.colonHex(keyId) : null;
+        }
+        if (Extension.subjectAlternativeName.equals(oid) || Extension.issuerAlternativeName.equals(oid)) {
+            return generalNames(GeneralNames.getInstance(parsed));
+        }
+        if (Extension.cRLDistributionPoints.equals(oid)) {
+            List<String> urls = new ArrayList<>();
+            for (DistributionPoint point : CRLDistPoint.getInstance(parsed).getDistributionPoints()) {
+                DistributionPointName name = point.getDistributionPoint();
+                if (name != null && name.getType() == DistributionPointName.FULL_NAME) {
+                    urls.addAll(generalNames(GeneralNames.getInstance(name.getName())));
+                }
+            }
+            return urls;
+        }
+        if (Extension.authorityInfoAccess.equals(oid)) {
+            List<Map<String, String>> access = new ArrayList<>();
+            for (AccessDescription description : AuthorityInformationAccess.getInstance(parsed).getAccessDescriptions()) {
+                String method = AccessDescription.id_ad_caIssuers.equals(description.getAccessMethod()) ? "caIssuers"
+                        : AccessDescription.id_ad_ocsp.equals(description.getAccessMethod()) ? "ocsp"
+                        : description.getAccessMethod().getId();
+                access.add(Map.of("method", method, "location", generalName(description.getAccessLocation())));
+            }
+            return access;
+        }
+        if (Extension.certificatePolicies.equals(oid)) {
+            List<String> policies = new ArrayList<>();
+            for (PolicyInformation policy : CertificatePolicies.getInstance(parsed).getPolicyInformation()) {
+                policies.add(policy.getPolicyIdentifier().getId());
+            }
+            return policies;
+        }
+        return PemCodec.hex(extension.getExtnValue().getOctets());
+    }
+
+    private static List<String> generalNames(GeneralNames names) {
+        List<String> values = new ArrayList<>();
+        for (GeneralName name : names.getNames()) {
+            values.add(generalName(name));
+        }
+        return values;
+    }
+
+    // Forme usuelle (DNS:, email:, URI:, IP:, DirName:)
+    private static String generalName(GeneralName name) {
+        switch (name.getTagNo()) {
+            case GeneralName.dNSName:
+                return "DNS:" + ((ASN1String) name.getName()).getString();
+            case GeneralName.rfc822Name:
+                return "email:" + ((ASN1String) name.getName()).getString();
+            case GeneralName.uniformResourceIdentifier:
+                return "URI:" + ((ASN1String) name.getName()).getString();
+            case GeneralName.iPAddress:
+                try {
+                    return "IP:" + InetAddress.getByAddress(ASN1OctetString.getInstance(name.getName()).getOctets()).getHostAddress();
+                } catch (Exception e) {
+                    return "IP:" + PemCodec.hex(ASN1OctetString.getInstance(name.getName()).getOctets());
+                }
+            case GeneralName.directoryName:
+                return "DirName:" + X500Name.getInstance(name.getName());
+            default:
+                return "othername:" + name.getTagNo();
+        }
+    }
+
+    private static byte[] encoded(X509CertificateHolder holder) {
+        try {
+            return holder.getEncoded();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.event.CertificateBatchStatusChangedEvent;
+import cm.gov.pki.repository.CertificateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Passage à EXPIRED des certificats actifs échus.
+ *
+ * Mise à jour ensembliste par tranches bornées (pki.expiry.chunk-size), une transaction par tranche :
+ * les verrous sont courts et les lignes déjà prises par un autre nœud sont sautées (SKIP LOCKED).
+ * Chaque tranche produit un lot d'entrées d'audit et un seul événement de transition.
+ */
+@Component
+public class CertificateExpirySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(CertificateExpirySweeper.class);
+
+    private final CertificateRepository certificateRepository;
+    private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterLockService clusterLockService;
+
+    @Value("${pki.expiry.chunk-size:500}")
+    private int chunkSize = 500;
+
+    /** Plafond de tranches par passage, pour ne pas monopoliser une connexion */
+    @Value("${pki.expiry.max-chunks:200}")
+    private int maxChunks = 200;
+
+    public CertificateExpirySweeper(CertificateRepository certificateRepository,
+                                    AuditService auditService,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager,
+                                    ClusterLockService clusterLockService) {
+        this.certificateRepository = certificateRepository;
+        this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clusterLockService = clusterLockService;
+    }
+
+    @Scheduled(fixedDelayString = "${pki.expiry.sweep-interval-ms:600000}", initialDelayString = "${pki.expiry.initial-delay-ms:60000}")
+    public void scheduledSweep() {
+        try {
+            // SKIP LOCKED suffit à la correction ; le verrou évite des balayages redondants
+            clusterLockService.runExclusive("certificate-expiry", Duration.ofMinutes(5), this::sweep);
+        } catch (Exception e) {
+            log.error("Échec du balayage des certificats expirés", e);
+        }
+    }
+
+    /**
+     * Expire les certificats échus ; retourne le nombre de certificats passés à EXPIRED
+     */
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            Integer expired = transactionTemplate.execute(status -> expireChunk(now));
+            int count = expired != null ? expired : 0;
+            total += count;
+            if (count < chunkSize) break;
+        }
+        if (total > 0) {
+            log.info("{} certificat(s) passé(s) à EXPIRED", total);
+        }
+        return total;
+    }
+
+    private int expireChunk(LocalDateTime now) {
+        List<Object[]> rows = certificateRepository.expireActiveBefore(now, chunkSize);
+        if (rows.isEmpty()) return 0;
+
+        List<UUID> ids = new ArrayList<>(rows.size());
+        Map<UUID, Map<String, Object>> audit = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            UUID id = (UUID) row[0];
+            ids.add(id);
+            audit.put(id, Map.of("serialNumber", String.valueOf(row[1]), "expiredAt", now.toString()));
+        }
+        auditService.logSystemBatch("CERTIFICATE_EXPIRED", "Certificate", audit);
+        // Publié dans la transaction de la tranche : les compteurs suivent après commit
+        eventPublisher.publishEvent(new CertificateBatchStatusChangedEvent(ids,
+                Certificate.CertificateStatus.ACTIVE, Certificate.CertificateStatus.EXPIRED));
+        return rows.size();
+    }
+}
@@ -0,0 +1,196 @@
+package cm.gov.pki.service;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1String;
+import org.bouncycastle.asn1.x500.RDN;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Profils d'émission des certificats finaux : usages de la clé (keyUsage, extendedKeyUsage) et
+ * noms alternatifs admis. Les extensions communes (basicConstraints, AKI, AIA, CRL DP) et les
+ * parties propres à chaque certificat (SKI, subjectAltName) sont posées par {@link IssuanceTemplate}.
+ *
+ * Le subjectAltName n'est jamais repris tel quel de la CSR : il est reconstruit à partir des seuls
+ * noms validés ici (types admis par le profil, syntaxe, cohérence avec le sujet approuvé).
+ */
+public enum CertificateProfile {
+    /** Authentification du titulaire (TLS client, connexion aux services en ligne) */
+    AUTHENTICATION("authentication", KeyUsage.digitalSignature, 0, false,
+            new int[]{GeneralName.rfc822Name},
+            KeyPurposeId.id_kp_clientAuth),
+    /** Signature de documents et de messages (non-répudiation) */
+    SIGNATURE("signature", KeyUsage.digitalSignature | KeyUsage.nonRepudiation, 0, false,
+            new int[]{GeneralName.rfc822Name},
+            KeyPurposeId.getInstance(new ASN1ObjectIdentifier("1.3.6.1.5.5.7.3.36")), // id-kp-documentSigning (RFC 9336)
+            KeyPurposeId.id_kp_emailProtection),
+    /** Serveur TLS : subjectAltName obligatoire (noms DNS, adresses IP), keyEncipherment pour les clés RSA */
+    TLS_SERVER("tls-server", KeyUsage.digitalSignature, KeyUsage.keyEncipherment, true,
+            new int[]{GeneralName.dNSName, GeneralName.iPAddress},
+            KeyPurposeId.id_kp_serverAuth);
+
+    // Nom DNS (RFC 1035, minuscules), joker admis sur le seul label de gauche
+    private static final Pattern DNS_NAME = Pattern.compile(
+            "^(\\*\\.)?([a-z0-9]([a-z0-9-]{0,61}[a-z0-9])?\\.)+[a-z0-9]([a-z0-9-]{0,61}[a-z0-9])?$");
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+
+    private final String profileName;
+    private final int keyUsage;
+    private final int rsaKeyUsage;
+    private final boolean subjectAltNameRequired;
+    private final int[] subjectAltNameTypes;
+    private final KeyPurposeId[] extendedKeyUsage;
+
+    CertificateProfile(String profileName, int keyUsage, int rsaOnlyKeyUsage, boolean subjectAltNameRequired,
+                       int[] subjectAltNameTypes, KeyPurposeId... extendedKeyUsage) {
+        this.profileName = profileName;
+        this.keyUsage = keyUsage;
+        this.rsaKeyUsage = keyUsage | rsaOnlyKeyUsage;
+        this.subjectAltNameRequired = subjectAltNameRequired;
+        this.subjectAltNameTypes = subjectAltNameTypes;
+        this.extendedKeyUsage = extendedKeyUsage;
+    }
+
+    /** Nom du profil dans l'API (paramètre profile) */
+    public String getProfileName() { return profileName; }
+
+    /** Bits keyUsage selon le type de clé du titulaire */
+    public int keyUsage(boolean rsa) {
+        return rsa ? rsaKeyUsage : keyUsage;
+    }
+
+    public KeyPurposeId[] getExtendedKeyUsage() { return extendedKeyUsage.clone(); }
+
+    public boolean isSubjectAltNameRequired() { return subjectAltNameRequired; }
+
+    /**
+     * subjectAltName critique seulement quand le sujet est vide (RFC 5280, 4.2.1.6)
+     */
+    public boolean isSubjectAltNameCritical(X500Name subject) {
+        return subject.getRDNs().length == 0;
+    }
+
+    /**
+     * Noms alternatifs à inscrire dans le certificat, reconstruits à partir de ceux de la CSR :
+     * types admis par le profil, syntaxe vérifiée, adresse email égale à celle du sujet, CN d'un
+     * serveur TLS repris parmi les noms. Doublons retirés.
+     *
+     * @throws IllegalArgumentException si un nom demandé n'est pas acceptable
+     */
+    public GeneralNames subjectAltNames(X500Name subject, GeneralNames requested) {
+        Set<GeneralName> names = new LinkedHashSet<>();
+        for (GeneralName name : requested.getNames()) {
+            if (!allows(name.getTagNo())) {
+                throw new IllegalArgumentException("Nom alternatif de type " + name.getTagNo()
+                        + " non admis par le profil " + profileName);
+            }
+            names.add(validated(subject, name));
+        }
+        if (this == TLS_SERVER) {
+            for (String cn : values(subject, BCStyle.CN)) {
+                if (!coversCommonName(names, cn)) {
+                    throw new IllegalArgumentException("Le CN " + cn + " du sujet doit figurer dans le subjectAltName");
+                }
+            }
+        }
+        return new GeneralNames(names.toArray(GeneralName[]::new));
+    }
+
+    private boolean allows(int tagNo) {
+        for (int type : subjectAltNameTypes) {
+            if (type == tagNo) return true;
+        }
+        return false;
+    }
+
+    private static GeneralName validated(X500Name subject, GeneralName name) {
+        switch (name.getTagNo()) {
+            case GeneralName.rfc822Name -> {
+                String email = ((ASN1String) name.getName()).getString();
+                if (!EMAIL.matcher(email).matches()) {
+                    throw new IllegalArgumentException("Adresse email invalide dans le subjectAltName : " + email);
+                }
+                if (values(subject, BCStyle.EmailAddress).stream().noneMatch(email::equalsIgnoreCase)) {
+                    throw new IllegalArgumentException("L'adresse " + email + " ne correspond pas à celle du sujet");
+                }
+                return new GeneralName(GeneralName.rfc822Name, email);
+            }
+            case GeneralName.dNSName -> {
+                String dns = ((ASN1String) name.getName()).getString().toLowerCase(Locale.ROOT);
+                if (dns.length() > 253 || !DNS_NAME.matcher(dns).matches()) {
+                    throw new IllegalArgumentException("Nom DNS invalide dans le subjectAltName : " + dns);
+                }
+                return new GeneralName(GeneralName.dNSName, dns);
+            }
+            case GeneralName.iPAddress -> {
+                byte[] address = ASN1OctetString.getInstance(name.getName()).getOctets();
+                if (address.length != 4 && address.length != 16) {
+                    throw new IllegalArgumentException("Adresse IP invalide dans le subjectAltName");
+                }
+                return name;
+            }
+            default -> throw new IllegalArgumentException("Nom alternatif de type " + name.getTagNo() + " non pris en charge");
+        }
+    }
+
+    private static boolean coversCommonName(Set<GeneralName> names, String cn) {
+        for (GeneralName name : names) {
+            if (name.getTagNo() == GeneralName.dNSName
+                    && ((ASN1String) name.getName()).getString().equalsIgnoreCase(cn)) {
+                return true;
+            }
+            if (name.getTagNo() == GeneralName.iPAddress && cn.equals(ipAddress(name))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String ipAddress(GeneralName name) {
+        try {
+            return InetAddress.getByAddress(ASN1OctetString.getInstance(name.getName()).getOctets()).getHostAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static List<String> values(X500Name subject, ASN1ObjectIdentifier type) {
+        List<String> values = new ArrayList<>();
+        for (RDN rdn : subject.getRDNs(type)) {
+            values.add(IETFUtils.valueToString(rdn.getFirst().getValue()));
+        }
+        return values;
+    }
+
+    /**
+     * Profil d'émission portant ce nom (authentication, signature, tls-server)
+     */
+    public static Optional<CertificateProfile> byName(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+        for (CertificateProfile profile : values()) {
+            if (profile.profileName.equals(normalized)) {
+                return Optional.of(profile);
+            }
+        }
+        return Optional.empty();
+    }
+}
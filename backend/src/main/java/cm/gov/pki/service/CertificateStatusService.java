@@ -0,0 +1,256 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.event.CertificateStatusChangedEvent;
+import cm.gov.pki.repository.CertificateRepository;
+import cm.gov.pki.util.PemCodec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.Signature;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Statut des certificats par lot, pour les parties utilisatrices.
+ *
+ * Les statuts sont servis depuis un cache borné (numéro de série -> statut, empreinte -> numéro
+ * de série) ; les absents sont lus en une seule requête IN. Une révocation faite sur ce nœud
+ * retire l'entrée après commit ; une révocation faite ailleurs est vue par l'index de révocation
+ * ({@link RevocationIndexService}), consulté pour toute entrée non révoquée du cache. Les autres
+ * changements (suspension) sont visibles au plus tard après pki.certificate-status.cache-ttl-seconds.
+ *
+ * Les réponses signées le sont par une clé de répondeur dédiée (pki.certificate-status.responder-key-path),
+ * jamais par une clé d'AC : la signature d'un corps de réponse n'engage pas l'AC et ne consomme
+ * pas de session sur le jeton PKCS#11.
+ */
+@Service
+public class CertificateStatusService {
+
+    private static final String RESPONSE_SIGNATURE_ALGORITHM = "SHA256withECDSA";
+
+    private final CertificateRepository certificateRepository;
+    private final RevocationIndexService revocationIndex;
+    private final KeyPairPool keyPairPool;
+    private final Cache<String, StatusEntry> bySerial;
+    private final Cache<String, String> serialByFingerprint;
+    private final Counter cacheHits;
+    private final Counter databaseLookups;
+
+    @Value("${pki.certificate-status.max-batch:1000}")
+    private int maxBatch = 1000;
+
+    @Value("${pki.certificate-status.responder-key-path:${pki.ca.store:ca-store}/status-responder-key.pem}")
+    private String responderKeyPath = "ca-store/status-responder-key.pem";
+
+    private KeyPair responderKey;
+    private String responderKeyId;
+
+    /**
+     * Statut connu d'un certificat (status tel qu'en base)
+     */
+    record StatusEntry(String serialNumber, String fingerprintSha256, Certificate.CertificateStatus status,
+                       LocalDateTime revokedAt, String revocationReason, LocalDateTime notAfter) {}
+
+    /**
+     * Demande : numéros de série (décimaux) et/ou empreintes SHA-256 (hex, avec ou sans ':')
+     */
+    public record BatchStatusRequest(List<String> serials, List<String> fingerprints) {}
+
+    /**
+     * Statut d'un certificat demandé ; status vaut ACTIVE, EXPIRED, REVOKED, SUSPENDED ou UNKNOWN
+     */
+    public record CertificateStatusResult(String query, String serialNumber, String fingerprintSha256, String status,
+                                          Instant revokedAt, String revocationReason, Instant notAfter) {}
+
+    public record BatchStatusResponse(Instant producedAt, List<CertificateStatusResult> results) {}
+
+    /**
+     * Signature détachée d'une réponse par la clé du répondeur ; keyId est le SHA-256 (hex) de sa
+     * clé publique (SubjectPublicKeyInfo)
+     */
+    public record ResponseSignature(String keyId, String algorithm, String signature) {}
+
+    public CertificateStatusService(CertificateRepository certificateRepository,
+                                    RevocationIndexService revocationIndex,
+                                    KeyPairPool keyPairPool,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${pki.certificate-status.cache-size:200000}") long cacheSize,
+                                    @Value("${pki.certificate-status.cache-ttl-seconds:300}") long cacheTtlSeconds) {
+        this.certificateRepository = certificateRepository;
+        this.revocationIndex = revocationIndex;
+        this.keyPairPool = keyPairPool;
+        this.bySerial = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+        this.serialByFingerprint = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+        this.cacheHits = meterRegistry.counter("pki.certificate.status.lookups", "source", "cache");
+        this.databaseLookups = meterRegistry.counter("pki.certificate.status.lookups", "source", "database");
+    }
+
+    public BatchStatusResponse status(BatchStatusRequest request) {
+        List<String> serials = request.serials() != null ? request.serials() : List.of();
+        List<String> fingerprints = request.fingerprints() != null ? request.fingerprints() : List.of();
+        if (serials.size() + fingerprints.size() > maxBatch) {
+            throw new IllegalArgumentException("Trop de certificats demandés (maximum " + maxBatch + ")");
+        }
+
+        // Résolution depuis le cache ; les absents sont regroupés pour une seule requête
+        Map<String, StatusEntry> bySerialFound = new HashMap<>();
+        Map<String, StatusEntry> byFingerprintFound = new HashMap<>();
+        Set<String> missingSerials = new LinkedHashSet<>();
+        Set<String> missingFingerprints = new LinkedHashSet<>();
+        for (String raw : serials) {
+            String serial = normalizeSerial(raw);
+            if (serial == null) continue;
+            StatusEntry entry = cached(serial);
+            if (entry != null) {
+                bySerialFound.put(serial, entry);
+            } else {
+                missingSerials.add(serial);
+            }
+        }
+        for (String raw : fingerprints) {
+            String fingerprint = normalizeFingerprint(raw);
+            if (fingerprint == null) continue;
+            String serial = serialByFingerprint.getIfPresent(fingerprint);
+            StatusEntry entry = serial != null ? cached(serial) : null;
+            if (entry != null) {
+                byFingerprintFound.put(fingerprint, entry);
+            } else {
+                missingFingerprints.add(fingerprint);
+            }
+        }
+        cacheHits.increment(bySerialFound.size() + byFingerprintFound.size());
+
+        if (!missingSerials.isEmpty() || !missingFingerprints.isEmpty()) {
+            databaseLookups.increment(missingSerials.size() + missingFingerprints.size());
+            // Une liste IN vide n'est pas portable : "" ne désigne aucun certificat
+            for (Object[] row : certificateRepository.findStatusBySerialNumberInOrFingerprintIn(
+                    missingSerials.isEmpty() ? List.of("") : missingSerials,
+                    missingFingerprints.isEmpty() ? List.of("") : missingFingerprints)) {
+                StatusEntry entry = new StatusEntry((String) row[0], (String) row[1],
+                        (Certificate.CertificateStatus) row[2], (LocalDateTime) row[3], (String) row[4],
+                        (LocalDateTime) row[5]);
+                bySerial.put(entry.serialNumber(), entry);
+                serialByFingerprint.put(entry.fingerprintSha256(), entry.serialNumber());
+                bySerialFound.put(entry.serialNumber(), entry);
+                byFingerprintFound.put(entry.fingerprintSha256(), entry);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<CertificateStatusResult> results = new ArrayList<>(serials.size() + fingerprints.size());
+        for (String raw : serials) {
+            String serial = normalizeSerial(raw);
+            results.add(result(raw, serial != null ? bySerialFound.get(serial) : null, now));
+        }
+        for (String raw : fingerprints) {
+            String fingerprint = normalizeFingerprint(raw);
+            results.add(result(raw, fingerprint != null ? byFingerprintFound.get(fingerprint) : null, now));
+        }
+        return new BatchStatusResponse(Instant.now(), results);
+    }
+
+    @PostConstruct
+    public void start() throws Exception {
+        responderKey = LocalKeyFile.loadOrCreate(Path.of(responderKeyPath), keyPairPool, "répondeur de statut");
+        responderKeyId = PemCodec.fingerprintSha256(responderKey.getPublic().getEncoded());
+    }
+
+    /**
+     * Signe les octets exacts d'une réponse avec la clé du répondeur (SHA256withECDSA)
+     */
+    public ResponseSignature sign(byte[] body) {
+        try {
+            Signature signature = Signature.getInstance(RESPONSE_SIGNATURE_ALGORITHM);
+            signature.initSign(responderKey.getPrivate());
+            signature.update(body);
+            return new ResponseSignature(responderKeyId, RESPONSE_SIGNATURE_ALGORITHM,
+                    Base64.getEncoder().encodeToString(signature.sign()));
+        } catch (Exception e) {
+            throw new RuntimeException("Échec signature de la réponse de statut: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Clé publique du répondeur (PEM), pour vérifier les réponses signées
+     */
+    public String responderPublicKeyPem() {
+        return PemCodec.encode(PemCodec.PUBLIC_KEY, responderKey.getPublic().getEncoded());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCertificateStatusChanged(CertificateStatusChangedEvent event) {
+        certificateRepository.findSerialNumberById(event.certificateId()).ifPresent(bySerial::invalidate);
+    }
+
+    // Entrée du cache, ignorée si l'index de révocation la contredit (révocation sur un autre nœud)
+    private StatusEntry cached(String serial) {
+        StatusEntry entry = bySerial.getIfPresent(serial);
+        if (entry != null && entry.status() != Certificate.CertificateStatus.REVOKED
+                && revocationIndex.isReady() && revocationIndex.isRevoked(serial)) {
+            bySerial.invalidate(serial);
+            return null;
+        }
+        return entry;
+    }
+
+    private static CertificateStatusResult result(String query, StatusEntry entry, LocalDateTime now) {
+        if (entry == null) {
+            return new CertificateStatusResult(query, null, null, "UNKNOWN", null, null, null);
+        }
+        Certificate.CertificateStatus status = entry.status();
+        // Le balayage des expirations passe périodiquement : l'échéance fait foi
+        if (status == Certificate.CertificateStatus.ACTIVE && entry.notAfter() != null && now.isAfter(entry.notAfter())) {
+            status = Certificate.CertificateStatus.EXPIRED;
+        }
+        return new CertificateStatusResult(query, entry.serialNumber(), entry.fingerprintSha256(), status.name(),
+                toInstant(entry.revokedAt()), entry.revocationReason(), toInstant(entry.notAfter()));
+    }
+
+    // Forme décimale canonique, comme en base (sans zéros de tête)
+    private static String normalizeSerial(String serial) {
+        if (serial == null) return null;
+        try {
+            BigInteger value = new BigInteger(serial.trim());
+            return value.signum() > 0 ? value.toString() : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String normalizeFingerprint(String fingerprint) {
+        if (fingerprint == null) return null;
+        String hex = fingerprint.replace(":", "").trim().toLowerCase(Locale.ROOT);
+        return hex.length() == 64 && hex.chars().allMatch(c -> Character.digit(c, 16) >= 0) ? hex : null;
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,144 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.repository.SchedulerLockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exclusion mutuelle des jobs planifiés entre les instances du backend.
+ *
+ * Chaque job prend un bail dans la table scheduler_locks ; les autres instances sautent
+ * l'exécution tant que le bail court. Le bail est prolongé pendant l'exécution (tous les
+ * tiers de bail) et libéré à la fin ; si l'instance meurt, il expire de lui-même.
+ *
+ * Métriques : pki.scheduler.lock{job, outcome=acquired|skipped|renewed|lost|error},
+ * pki.scheduler.job.duration{job} et pki.scheduler.locks.held.
+ */
+@Service
+public class ClusterLockService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterLockService.class);
+
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final MeterRegistry meterRegistry;
+    private final String owner;
+    private final Map<String, ScheduledFuture<?>> held = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "scheduler-lock-renewer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** false = chaque instance exécute ses jobs (déploiement mono-instance, tests) */
+    @Value("${pki.scheduler.locks-enabled:true}")
+    private boolean enabled = true;
+
+    public ClusterLockService(SchedulerLockRepository schedulerLockRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${pki.scheduler.node-id:}") String nodeId) {
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.meterRegistry = meterRegistry;
+        this.owner = nodeId != null && !nodeId.isBlank() ? nodeId : defaultNodeId();
+        meterRegistry.gauge("pki.scheduler.locks.held", held, Map::size);
+    }
+
+    /**
+     * Exécute la tâche si cette instance obtient le bail du job ; retourne false si elle a été sautée
+     */
+    public boolean runExclusive(String job, Duration lease, Runnable task) {
+        if (!enabled) {
+            task.run();
+            return true;
+        }
+        long leaseMs = lease.toMillis();
+        if (!tryLock(job, leaseMs)) {
+            count(job, "skipped");
+            log.debug("Job {} déjà en cours sur une autre instance, exécution sautée", job);
+            return false;
+        }
+        count(job, "acquired");
+        long period = Math.max(1, leaseMs / 3);
+        held.put(job, renewer.scheduleAtFixedRate(() -> renew(job, leaseMs), period, period, TimeUnit.MILLISECONDS));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            task.run();
+        } finally {
+            sample.stop(meterRegistry.timer("pki.scheduler.job.duration", "job", job));
+            ScheduledFuture<?> renewal = held.remove(job);
+            if (renewal != null) renewal.cancel(false);
+            release(job);
+        }
+        return true;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    @PreDestroy
+    public void stop() {
+        renewer.shutdownNow();
+    }
+
+    private boolean tryLock(String job, long leaseMs) {
+        try {
+            return schedulerLockRepository.tryLock(job, owner, leaseMs) == 1;
+        } catch (Exception e) {
+            count(job, "error");
+            log.warn("Impossible de prendre le verrou du job {} : {}", job, e.getMessage());
+            return false;
+        }
+    }
+
+    private void renew(String job, long leaseMs) {
+        try {
+            if (schedulerLockRepository.extend(job, owner, leaseMs) == 1) {
+                count(job, "renewed");
+            } else {
+                count(job, "lost");
+                log.warn("Bail du job {} perdu (expiré ou repris par une autre instance)", job);
+            }
+        } catch (Exception e) {
+            count(job, "error");
+            log.warn("Échec de la prolongation du bail du job {} : {}", job, e.getMessage());
+        }
+    }
+
+    private void release(String job) {
+        try {
+            schedulerLockRepository.unlock(job, owner);
+        } catch (Exception e) {
+            // Le bail expirera de lui-même
+            log.warn("Échec de la libération du verrou du job {} : {}", job, e.getMessage());
+        }
+    }
+
+    private void count(String job, String outcome) {
+        meterRegistry.counter("pki.scheduler.lock", "job", job, "outcome", outcome).increment();
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
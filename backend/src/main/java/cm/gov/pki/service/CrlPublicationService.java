@@ -0,0 +1,446 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.entity.CrlPublication;
+import cm.gov.pki.event.CertificateStatusChangedEvent;
+import cm.gov.pki.repository.CertificateRepository;
+import cm.gov.pki.repository.CrlPublicationRepository;
+import cm.gov.pki.service.CAService.RevokedEntry;
+import cm.gov.pki.util.PemCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bouncycastle.cert.X509CRLHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Publication des CRL.
+ *
+ * Une AC peut répartir ses révocations en N partitions (ca_configuration.crl_shard_count, numéro
+ * de série modulo N) ; chaque certificat porte le point de distribution de sa partition et chaque
+ * partition est une CRL distincte, avec son propre numéro et une extension Issuing Distribution
+ * Point. Les partitions sont préparées puis signées en parallèle par le moteur de signature, et
+ * une révocation ne republie que la partition concernée.
+ *
+ * Au-delà de pki.crl.streaming-threshold révocations, les entrées sont lues en flux et chaque
+ * partition est encodée et signée sur disque par {@link StreamingCrlWriter}, sans construire la
+ * CRL en mémoire.
+ *
+ * L'état de la dernière CRL de chaque partition (numéro, thisUpdate/nextUpdate, fichier, SHA-256,
+ * taille) est tenu dans crl_publications, une ligne par (AC, partition) mise à jour en place. Les
+ * lignes sont verrouillées, dans l'ordre des partitions, pendant la signature pour que les numéros
+ * de CRL soient strictement croissants, même entre instances.
+ *
+ * Chaque CRL est écrite en DER (.crl) et en PEM (.crl.pem) dans des fichiers temporaires, renommés
+ * atomiquement une fois la transaction validée : un lecteur ne voit jamais de fichier partiel, ni
+ * de CRL dont le numéro n'a pas été enregistré. Les octets publiés sont gardés en
+ * mémoire et servis tels quels ; la ligne de publication n'est relue qu'au plus toutes les
+ * pki.crl.cache-check-seconds pour voir une CRL publiée par une autre instance.
+ */
+@Service
+public class CrlPublicationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CrlPublicationService.class);
+
+    private final CAService caService;
+    private final CrlPublicationRepository crlPublicationRepository;
+    private final CertificateRepository certificateRepository;
+    private final SigningEngine signingEngine;
+    private final SigningKeyService signingKeyService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<CrlPublication.Key, Cached> cache = new ConcurrentHashMap<>();
+
+    @Value("${pki.crl.cache-check-seconds:30}")
+    private long cacheCheckSeconds = 30;
+
+    /** Au-delà de ce nombre de révocations, les CRL sont encodées et signées en flux (StreamingCrlWriter) */
+    @Value("${pki.crl.streaming-threshold:50000}")
+    private long streamingThreshold = 50_000;
+
+    /**
+     * CRL publiée d'une partition, telle que servie aux parties utilisatrices
+     */
+    public record PublishedCrl(UUID caId, int shard, long crlNumber, byte[] der, byte[] pem, String sha256,
+                               Instant thisUpdate, Instant nextUpdate) {}
+
+    private record Cached(PublishedCrl crl, long checkedAt) {}
+
+    // Fichier écrit sous un nom temporaire, mis en place après le commit
+    private record StagedFile(Path tmp, Path target) {}
+
+    public CrlPublicationService(CAService caService,
+                                 CrlPublicationRepository crlPublicationRepository,
+                                 CertificateRepository certificateRepository,
+                                 SigningEngine signingEngine,
+                                 SigningKeyService signingKeyService,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.caService = caService;
+        this.crlPublicationRepository = crlPublicationRepository;
+        this.certificateRepository = certificateRepository;
+        this.signingEngine = signingEngine;
+        this.signingKeyService = signingKeyService;
+        this.meterRegistry = meterRegistry;
+        // Transaction propre : publish est aussi appelé après le commit d'une révocation
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Signe la CRL suivante de chaque partition de l'AC ; retourne les publications par partition
+     */
+    public List<CrlPublication> publish(CAConfiguration ca) {
+        return publishShards(ca, IntStream.range(0, ca.crlShards()).boxed().toList());
+    }
+
+    /**
+     * Republie une seule partition (après une révocation)
+     */
+    public CrlPublication publishShard(CAConfiguration ca, int shard) {
+        if (shard < 0 || shard >= ca.crlShards()) {
+            throw new IllegalArgumentException("Partition de CRL invalide " + shard + " pour l'AC " + ca.caName);
+        }
+        return publishShards(ca, List.of(shard)).get(0);
+    }
+
+    private List<CrlPublication> publishShards(CAConfiguration ca, List<Integer> shards) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<PublishedCrl> published = new ArrayList<>(shards.size());
+        List<StagedFile> staged = new ArrayList<>(shards.size() * 2);
+        try {
+            List<CrlPublication> saved = transactionTemplate.execute(status -> signShards(ca, shards, published, staged));
+            // Fichiers mis en place seulement une fois les numéros de CRL validés
+            for (StagedFile file : staged) {
+                moveAtomically(file.tmp(), file.target());
+            }
+            // Verrous, lecture des révocations, signature, écriture des fichiers et commit
+            sample.stop(meterRegistry.timer("pki.crl.generation", "mode", shards.size() == 1 ? "shard" : "all-shards"));
+            // Visibles par les lecteurs seulement une fois les publications validées
+            long now = System.currentTimeMillis();
+            for (PublishedCrl crl : published) {
+                cache.merge(new CrlPublication.Key(crl.caId(), crl.shard()), new Cached(crl, now),
+                        (old, fresh) -> fresh.crl().crlNumber() >= old.crl().crlNumber() ? fresh : old);
+            }
+            return saved;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Échec mise en place de la CRL de l'AC " + ca.caName + ": " + e.getMessage(), e);
+        } finally {
+            // Transaction annulée ou renommage interrompu : aucun fichier temporaire ne reste
+            for (StagedFile file : staged) {
+                deleteQuietly(file.tmp());
+            }
+        }
+    }
+
+    // Dans la transaction : verrouille, signe et écrit les CRL sous des noms temporaires (staged)
+    private List<CrlPublication> signShards(CAConfiguration ca, List<Integer> shards,
+                                            List<PublishedCrl> published, List<StagedFile> staged) {
+        // Verrous pris dans l'ordre des partitions : pas d'interblocage entre publications
+        List<CrlPublication> publications = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            crlPublicationRepository.ensureExists(ca.id, shard);
+            publications.add(crlPublicationRepository.findForUpdate(ca.id, shard)
+                    .orElseThrow(() -> new IllegalStateException("Publication CRL introuvable pour l'AC " + ca.caName)));
+        }
+
+        if (caService.countRevokedEntries(ca) >= streamingThreshold) {
+            published.addAll(writeStreaming(ca, shards, publications, staged));
+            return crlPublicationRepository.saveAll(publications);
+        }
+
+        // Toutes les partitions : une seule lecture répartie en mémoire ; sinon seules les entrées
+        // des partitions demandées sont lues
+        List<List<RevokedEntry>> entries;
+        if (shards.size() == ca.crlShards()) {
+            List<List<RevokedEntry>> partitions = partition(ca, caService.revokedEntries(ca));
+            entries = shards.stream().map(partitions::get).toList();
+        } else {
+            entries = shards.stream().map(shard -> caService.revokedEntries(ca, shard)).toList();
+        }
+        List<X509v2CRLBuilder> builders = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            builders.add(caService.prepareCRL(ca, shards.get(i), entries.get(i),
+                    BigInteger.valueOf(publications.get(i).getCrlNumber() + 1)));
+        }
+        List<X509CRLHolder> crls;
+        try (SigningKeyHandle caKey = signingKeyService.acquire(ca)) {
+            Timer.Sample signSample = Timer.start(meterRegistry);
+            crls = signingEngine.signCrls(builders, caKey);
+            signSample.stop(meterRegistry.timer("pki.signing.duration", "kind", "crl"));
+        }
+
+        for (int i = 0; i < shards.size(); i++) {
+            published.add(write(ca, shards.get(i), publications.get(i), crls.get(i), staged));
+        }
+        return crlPublicationRepository.saveAll(publications);
+    }
+
+    private PublishedCrl write(CAConfiguration ca, int shard, CrlPublication publication, X509CRLHolder crl,
+                               List<StagedFile> staged) {
+        long number = publication.getCrlNumber() + 1;
+        PublishedCrl encoded = encode(ca.id, shard, number, crl);
+        Path pemPath = caService.crlPathFor(ca, shard).toAbsolutePath();
+        Path derPath = derPathFor(pemPath);
+        stage(derPath, encoded.der(), staged);
+        stage(pemPath, encoded.pem(), staged);
+
+        publication.published(number, toLocal(crl.getThisUpdate()), toLocal(crl.getNextUpdate()),
+                derPath.toString(), encoded.sha256(), encoded.der().length);
+        log.info("CRL n°{} signée pour l'AC {} (partition {}) -> {}", number, ca.caName, shard, derPath);
+        return encoded;
+    }
+
+    /**
+     * Publication en flux : une seule lecture des révocations (celles de la partition quand une seule
+     * est republiée), réparties au fil de l'eau entre les partitions demandées, chacune encodée sur
+     * disque puis signée sans être construite en mémoire. Les octets publiés ne sont relus qu'une
+     * fois, pour le cache de distribution.
+     */
+    private List<PublishedCrl> writeStreaming(CAConfiguration ca, List<Integer> shards, List<CrlPublication> publications,
+                                              List<StagedFile> staged) {
+        Map<Integer, StreamingCrlWriter> writers = new HashMap<>();
+        try {
+            for (int shard : shards) {
+                writers.put(shard, new StreamingCrlWriter(caService.crlPathFor(ca, shard).toAbsolutePath().getParent()));
+            }
+            try (Stream<RevokedEntry> entries = shards.size() == 1
+                    ? caService.streamRevokedEntries(ca, shards.get(0))
+                    : caService.streamRevokedEntries(ca)) {
+                for (RevokedEntry entry : (Iterable<RevokedEntry>) entries::iterator) {
+                    StreamingCrlWriter writer = writers.get(caService.crlShardOf(ca, entry.serial()));
+                    if (writer != null) {
+                        writer.add(entry.serial(), entry.revokedAt());
+                    }
+                }
+            }
+
+            List<PublishedCrl> published = new ArrayList<>(shards.size());
+            try (SigningKeyHandle caKey = signingKeyService.acquire(ca)) {
+                for (int i = 0; i < shards.size(); i++) {
+                    int shard = shards.get(i);
+                    CrlPublication publication = publications.get(i);
+                    long number = publication.getCrlNumber() + 1;
+                    CAService.CrlHeader header = caService.crlHeader(ca, shard, BigInteger.valueOf(number));
+                    Path pemPath = caService.crlPathFor(ca, shard).toAbsolutePath();
+                    Path derPath = derPathFor(pemPath);
+                    Path derTmp = Files.createTempFile(derPath.getParent(), derPath.getFileName().toString(), ".tmp");
+                    staged.add(new StagedFile(derTmp, derPath));
+                    Path pemTmp = Files.createTempFile(pemPath.getParent(), pemPath.getFileName().toString(), ".tmp");
+                    staged.add(new StagedFile(pemTmp, pemPath));
+
+                    Timer.Sample signSample = Timer.start(meterRegistry);
+                    StreamingCrlWriter.Result result = writers.get(shard).finish(derTmp, header.issuer(),
+                            header.thisUpdate(), header.nextUpdate(), CAService.toExtensions(header.extensions()),
+                            caKey.newContentSigner());
+                    signSample.stop(meterRegistry.timer("pki.signing.duration", "kind", "crl"));
+                    StreamingCrlWriter.writePem(derTmp, pemTmp);
+
+                    publication.published(number, toLocal(header.thisUpdate()), toLocal(header.nextUpdate()),
+                            derPath.toString(), result.sha256(), result.sizeBytes());
+                    published.add(new PublishedCrl(ca.id, shard, number, Files.readAllBytes(derTmp),
+                            Files.readAllBytes(pemTmp), result.sha256(),
+                            header.thisUpdate().toInstant(), header.nextUpdate().toInstant()));
+                    log.info("CRL n°{} signée en flux pour l'AC {} (partition {}, {} entrées) -> {}",
+                            number, ca.caName, shard, result.entries(), derPath);
+                }
+            }
+            return published;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Échec écriture de la CRL de l'AC " + ca.caName + ": " + e.getMessage(), e);
+        } finally {
+            for (StreamingCrlWriter writer : writers.values()) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    log.warn("Fichier temporaire de CRL non supprimé : {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Répartit les entrées par partition (numéro de série modulo N)
+    private List<List<RevokedEntry>> partition(CAConfiguration ca, List<RevokedEntry> entries) {
+        List<List<RevokedEntry>> partitions = new ArrayList<>(ca.crlShards());
+        for (int shard = 0; shard < ca.crlShards(); shard++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (RevokedEntry entry : entries) {
+            partitions.get(caService.crlShardOf(ca, entry.serial())).add(entry);
+        }
+        return partitions;
+    }
+
+    public Optional<CrlPublication> find(UUID caId, int shard) {
+        return crlPublicationRepository.findByCaIdAndShard(caId, shard);
+    }
+
+    /**
+     * true si chaque partition de l'AC a une CRL publiée
+     */
+    public boolean isPublished(CAConfiguration ca) {
+        return IntStream.range(0, ca.crlShards()).allMatch(shard -> current(ca.id, shard).isPresent());
+    }
+
+    /**
+     * Dernière CRL publiée de l'AC non partitionnée (partition 0)
+     */
+    public Optional<PublishedCrl> current(UUID caId) {
+        return current(caId, 0);
+    }
+
+    /**
+     * Dernière CRL publiée d'une partition, depuis la mémoire (vide si aucune CRL n'a été publiée)
+     */
+    public Optional<PublishedCrl> current(UUID caId, int shard) {
+        CrlPublication.Key key = new CrlPublication.Key(caId, shard);
+        long now = System.currentTimeMillis();
+        Cached cached = cache.get(key);
+        if (cached != null && now - cached.checkedAt() < cacheCheckSeconds * 1000) {
+            return Optional.of(cached.crl());
+        }
+
+        Optional<CrlPublication> publication = crlPublicationRepository.findByCaIdAndShard(caId, shard)
+                .filter(p -> p.getPath() != null);
+        if (publication.isEmpty()) {
+            cache.remove(key);
+            return Optional.empty();
+        }
+        if (cached != null && cached.crl().crlNumber() == publication.get().getCrlNumber()) {
+            cache.put(key, new Cached(cached.crl(), now));
+            return Optional.of(cached.crl());
+        }
+        try {
+            PublishedCrl loaded = load(publication.get());
+            cache.put(key, new Cached(loaded, now));
+            return Optional.of(loaded);
+        } catch (Exception e) {
+            log.warn("CRL publiée illisible pour l'AC {} partition {} ({}): {}", caId, shard,
+                    publication.get().getPath(), e.getMessage());
+            return cached != null ? Optional.of(cached.crl()) : Optional.empty();
+        }
+    }
+
+    /**
+     * Republie la partition du certificat après chaque révocation validée
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCertificateStatusChanged(CertificateStatusChangedEvent event) {
+        if (event.newStatus() != Certificate.CertificateStatus.REVOKED) return;
+        try {
+            Certificate cert = certificateRepository.findById(event.certificateId())
+                    .orElseThrow(() -> new RuntimeException("Certificate not found"));
+            CAConfiguration ca = caService.resolveIssuerOf(cert);
+            publishShard(ca, caService.crlShardOf(ca, new BigInteger(cert.getSerialNumber())));
+        } catch (Exception e) {
+            // La rotation planifiée republiera la CRL
+            log.error("Échec de la publication de la CRL après révocation de {}", event.certificateId(), e);
+        }
+    }
+
+    // Relit le fichier publié (DER, ou PEM pour les CRL antérieures à la publication versionnée).
+    // Quand le DER et son PEM sont présents, les octets sont repris tels quels, sans décodage.
+    private static PublishedCrl load(CrlPublication publication) throws Exception {
+        Path path = Path.of(publication.getPath());
+        Path pemPath = path.resolveSibling(path.getFileName() + ".pem");
+        if (!publication.getPath().endsWith(".pem") && publication.getSha256() != null
+                && publication.getThisUpdate() != null && Files.exists(pemPath)) {
+            byte[] der = Files.readAllBytes(path);
+            String sha256 = PemCodec.fingerprintSha256(der);
+            if (sha256.equals(publication.getSha256())) {
+                return new PublishedCrl(publication.getCaId(), publication.getShard(), publication.getCrlNumber(),
+                        der, Files.readAllBytes(pemPath), sha256,
+                        toInstant(publication.getThisUpdate()), toInstant(publication.getNextUpdate()));
+            }
+        }
+        byte[] content = Files.readAllBytes(path);
+        X509CRLHolder crl;
+        if (publication.getPath().endsWith(".pem")) {
+            crl = new X509CRLHolder(PemCodec.decodeFirst(content).der());
+        } else {
+            crl = new X509CRLHolder(content);
+        }
+        return encode(publication.getCaId(), publication.getShard(), publication.getCrlNumber(), crl);
+    }
+
+    private static PublishedCrl encode(UUID caId, int shard, long number, X509CRLHolder crl) {
+        try {
+            byte[] der = crl.getEncoded();
+            return new PublishedCrl(caId, shard, number, der, PemCodec.encodeToBytes(PemCodec.X509_CRL, der),
+                    PemCodec.fingerprintSha256(der),
+                    crl.getThisUpdate().toInstant(),
+                    crl.getNextUpdate() != null ? crl.getNextUpdate().toInstant() : null);
+        } catch (Exception e) {
+            throw new RuntimeException("Échec encodage de la CRL: " + e.getMessage(), e);
+        }
+    }
+
+    static Path derPathFor(Path pemPath) {
+        String name = pemPath.getFileName().toString();
+        return pemPath.resolveSibling(name.endsWith(".pem") ? name.substring(0, name.length() - 4) : name + ".der");
+    }
+
+    // Écrit dans un fichier temporaire du même répertoire, renommé sur la cible après le commit
+    private static void stage(Path target, byte[] content, List<StagedFile> staged) {
+        try {
+            Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            staged.add(new StagedFile(tmp, target));
+            Files.write(tmp, content);
+        } catch (Exception e) {
+            throw new RuntimeException("Échec écriture de la CRL " + target + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Fichier temporaire de CRL non supprimé {} : {}", path, e.getMessage());
+        }
+    }
+
+    private static void moveAtomically(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static LocalDateTime toLocal(java.util.Date date) {
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,41 @@
+package cm.gov.pki.service;
+
+import java.util.Map;
+
+/**
+ * Abstraction des opérations cryptographiques de l'AC Racine.
+ *
+ * Implémentations :
+ * - {@link BouncyCastleCryptoBackend} : en processus (défaut, pki.crypto.backend=bouncycastle)
+ * - {@link OpenSSLService} : CLI OpenSSL (optionnel, pki.crypto.backend=openssl)
+ */
+public interface CryptoBackend {
+
+    /**
+     * Nom du backend (journalisation / diagnostic)
+     */
+    String getName();
+
+    /**
+     * Vérifie que le backend est utilisable
+     */
+    boolean isAvailable();
+
+    /**
+     * Génère l'Autorité de Certification Racine
+     * Retourne les clés "keyPath", "certPath" et "subjectDN", et si le backend les connaît
+     * "keyAlgorithm", "keySize" et "signatureAlgorithm" (RSA 4096 / SHA256withRSA sinon)
+     */
+    Map<String, String> generateRootCA(String caName, int validityDays) throws Exception;
+
+    /**
+     * Retourne les informations principales d'un certificat
+     * (subject, issuer, notBefore, notAfter, fingerprint)
+     */
+    Map<String, String> verifyCertificate(String certPath) throws Exception;
+
+    /**
+     * Retourne une représentation texte lisible d'un certificat
+     */
+    String getCertificateText(String certPath) throws Exception;
+}
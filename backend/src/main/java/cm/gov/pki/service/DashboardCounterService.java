@@ -0,0 +1,213 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.event.CertificateBatchStatusChangedEvent;
+import cm.gov.pki.event.CertificateRequestStatusChangedEvent;
+import cm.gov.pki.event.CertificateStatusChangedEvent;
+import cm.gov.pki.event.DashboardCounterChangedEvent;
+import cm.gov.pki.event.UserDeletedEvent;
+import cm.gov.pki.event.UserRegisteredEvent;
+import cm.gov.pki.repository.CertificateRepository;
+import cm.gov.pki.repository.CertificateRequestRepository;
+import cm.gov.pki.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs du tableau de bord administrateur tenus en mémoire.
+ *
+ * Mis à jour après commit par les événements de domaine (inscription, demande, émission,
+ * révocation...) et réconciliés avec la base au démarrage puis périodiquement
+ * (pki.dashboard.reconcile-interval-ms). Les lectures ne font aucune requête SQL.
+ * Chaque variation est republiée en {@link DashboardCounterChangedEvent} (flux SSE).
+ */
+@Service
+public class DashboardCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardCounterService.class);
+
+    private final UserRepository userRepository;
+    private final CertificateRequestRepository certificateRequestRepository;
+    private final CertificateRepository certificateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicLong users = new AtomicLong();
+    private final Map<String, AtomicLong> requestsByStatus = new ConcurrentHashMap<>();
+    private final Map<Certificate.CertificateStatus, AtomicLong> certificatesByStatus = new EnumMap<>(Certificate.CertificateStatus.class);
+    private volatile boolean reconciled;
+
+    public DashboardCounterService(UserRepository userRepository,
+                                   CertificateRequestRepository certificateRequestRepository,
+                                   CertificateRepository certificateRepository,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.certificateRequestRepository = certificateRequestRepository;
+        this.certificateRepository = certificateRepository;
+        this.eventPublisher = eventPublisher;
+        for (Certificate.CertificateStatus status : Certificate.CertificateStatus.values()) {
+            certificatesByStatus.put(status, new AtomicLong());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reconcile();
+    }
+
+    /**
+     * Recalcule tous les compteurs depuis la base (3 requêtes)
+     */
+    @Scheduled(fixedDelayString = "${pki.dashboard.reconcile-interval-ms:300000}",
+               initialDelayString = "${pki.dashboard.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        try {
+            long userCount = userRepository.count();
+
+            Map<String, Long> requests = new HashMap<>();
+            for (Object[] row : certificateRequestRepository.countGroupedByStatus()) {
+                if (row[0] != null) requests.merge(normalize((String) row[0]), (Long) row[1], Long::sum);
+            }
+
+            Map<Certificate.CertificateStatus, Long> certificates = new EnumMap<>(Certificate.CertificateStatus.class);
+            for (Object[] row : certificateRepository.countGroupedByStatus()) {
+                if (row[0] != null) certificates.put((Certificate.CertificateStatus) row[0], (Long) row[1]);
+            }
+
+            set("users", users, userCount);
+            requestsByStatus.forEach((status, counter) -> {
+                if (!requests.containsKey(status)) set("requests." + status, counter, 0);
+            });
+            requests.forEach((status, count) -> set("requests." + status, requestCounter(status), count));
+            certificatesByStatus.forEach((status, counter) -> set("certificates." + status, counter, certificates.getOrDefault(status, 0L)));
+            reconciled = true;
+            log.debug("Compteurs du tableau de bord réconciliés : {} utilisateurs, demandes {}, certificats {}",
+                    userCount, requests, certificates);
+        } catch (Exception e) {
+            log.warn("Échec de la réconciliation des compteurs du tableau de bord : {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        add("users", users, 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        // La suppression emporte demandes et certificats : recalcul complet
+        reconcile();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestStatusChanged(CertificateRequestStatusChangedEvent event) {
+        if (event.previousStatus() != null) {
+            String status = normalize(event.previousStatus());
+            add("requests." + status, requestCounter(status), -1);
+        }
+        if (event.newStatus() != null) {
+            String status = normalize(event.newStatus());
+            add("requests." + status, requestCounter(status), 1);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCertificateStatusChanged(CertificateStatusChangedEvent event) {
+        if (event.previousStatus() != null) {
+            add("certificates." + event.previousStatus(), certificatesByStatus.get(event.previousStatus()), -1);
+        }
+        if (event.newStatus() != null) {
+            add("certificates." + event.newStatus(), certificatesByStatus.get(event.newStatus()), 1);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCertificateBatchStatusChanged(CertificateBatchStatusChangedEvent event) {
+        int count = event.certificateIds().size();
+        if (count == 0) return;
+        if (event.previousStatus() != null) {
+            add("certificates." + event.previousStatus(), certificatesByStatus.get(event.previousStatus()), -count);
+        }
+        if (event.newStatus() != null) {
+            add("certificates." + event.newStatus(), certificatesByStatus.get(event.newStatus()), count);
+        }
+    }
+
+    public long users() {
+        ensureReconciled();
+        return users.get();
+    }
+
+    public long requests(String status) {
+        ensureReconciled();
+        AtomicLong counter = requestsByStatus.get(normalize(status));
+        return counter == null ? 0 : counter.get();
+    }
+
+    public long totalRequests() {
+        ensureReconciled();
+        return requestsByStatus.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public long certificates(Certificate.CertificateStatus status) {
+        ensureReconciled();
+        return certificatesByStatus.get(status).get();
+    }
+
+    public long totalCertificates() {
+        ensureReconciled();
+        return certificatesByStatus.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Valeurs de tous les compteurs, sous les noms utilisés par {@link DashboardCounterChangedEvent}
+     */
+    public Map<String, Long> snapshot() {
+        ensureReconciled();
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("users", users.get());
+        requestsByStatus.forEach((status, counter) -> snapshot.put("requests." + status, counter.get()));
+        certificatesByStatus.forEach((status, counter) -> snapshot.put("certificates." + status, counter.get()));
+        return snapshot;
+    }
+
+    private void add(String name, AtomicLong counter, long delta) {
+        long value = counter.addAndGet(delta);
+        eventPublisher.publishEvent(new DashboardCounterChangedEvent(name, delta, value));
+    }
+
+    private void set(String name, AtomicLong counter, long value) {
+        long previous = counter.getAndSet(value);
+        if (previous != value && reconciled) {
+            eventPublisher.publishEvent(new DashboardCounterChangedEvent(name, value - previous, value));
+        }
+    }
+
+    private void ensureReconciled() {
+        if (!reconciled) {
+            reconcile();
+        }
+    }
+
+    private AtomicLong requestCounter(String status) {
+        return requestsByStatus.computeIfAbsent(status, s -> new AtomicLong());
+    }
+
+    private static String normalize(String status) {
+        return status.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,194 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.event.CertificateRequestStatusChangedEvent;
+import cm.gov.pki.event.DashboardCounterChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diffusion en direct du tableau de bord administrateur (Server-Sent Events).
+ *
+ * Les événements qui mettent à jour les compteurs sont diffusés une seule fois à toutes les
+ * sessions abonnées. Chaque abonné a sa file ; elle est vidée sur un thread virtuel, dans l'ordre,
+ * sans que l'émetteur de l'événement n'attende. Un client trop lent (file pleine) est déconnecté.
+ *
+ * Événements : "snapshot" (à l'abonnement), "counter" (delta), "request" (nouvelle demande),
+ * plus un commentaire "heartbeat" périodique pour garder la connexion ouverte.
+ */
+@Service
+public class DashboardStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStreamService.class);
+
+    private final DashboardCounterService dashboardCounters;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Durée de vie d'une connexion SSE (le navigateur se reconnecte ensuite) */
+    @Value("${pki.dashboard.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs = 1_800_000;
+
+    /** Événements en attente au-delà desquels un abonné est considéré comme bloqué */
+    @Value("${pki.dashboard.stream-max-pending:256}")
+    private int maxPending = 256;
+
+    public DashboardStreamService(DashboardCounterService dashboardCounters) {
+        this.dashboardCounters = dashboardCounters;
+    }
+
+    /**
+     * Ouvre un flux pour une session administrateur ; le premier événement est l'état complet
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(streamTimeoutMs));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // L'état complet passe en tête de file avant toute diffusion vers cette session
+        subscriber.offer(event("snapshot", dashboardCounters.snapshot()));
+        subscribers.add(subscriber);
+        if (subscriber.closed) {
+            // Envoi de l'état déjà échoué : close() a pu passer avant l'ajout
+            subscribers.remove(subscriber);
+        }
+        log.debug("Abonnement au flux du tableau de bord ({} sessions)", subscribers.size());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onCounterChanged(DashboardCounterChangedEvent event) {
+        broadcast(event("counter", event));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestStatusChanged(CertificateRequestStatusChangedEvent event) {
+        if (event.previousStatus() != null) return;
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("requestId", event.requestId());
+        data.put("status", event.newStatus());
+        data.put("submittedAt", event.occurredAt() != null ? event.occurredAt().toString() : null);
+        broadcast(event("request", data));
+    }
+
+    @Scheduled(fixedDelayString = "${pki.dashboard.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(s -> s.emitter.complete());
+        subscribers.clear();
+        fanOut.shutdown();
+    }
+
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    /**
+     * Encode l'événement une seule fois (le builder n'est pas réutilisable entre sessions)
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(String name, Object data) {
+        return SseEmitter.event()
+                .id(Long.toString(sequence.incrementAndGet()))
+                .name(name)
+                .data(data, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    /**
+     * File d'envoi d'une session ; un seul drain actif à la fois pour préserver l'ordre
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (size.incrementAndGet() > maxPending) {
+                log.warn("Session du tableau de bord trop lente, déconnexion");
+                close();
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    fanOut.execute(this::drain);
+                } catch (Exception e) {
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while ((event = pending.poll()) != null) {
+                    size.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (Exception e) {
+                        // Client parti : l'émetteur est retiré par onError/onCompletion
+                        close();
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            pending.clear();
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // déjà fermé
+            }
+        }
+    }
+}
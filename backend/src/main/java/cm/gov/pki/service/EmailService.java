@@ -1,5 +1,7 @@
 package cm.gov.pki.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,6 +9,8 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 /**
@@ -18,6 +22,7 @@ public class EmailService {
     private static final Logger log = LoggerFactory.getLogger(EmailService.class);
 
     private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
 
     @Value("${spring.mail.username:support@pki-souverain.gov.cm}")
     private String fromEmail;
@@ -28,14 +33,17 @@ public class EmailService {
     @Value("${pki.email.debug-mode:false}")
     private boolean debugMode;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, MeterRegistry meterRegistry) {
         this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
-     * Envoie ou affiche un email en mode debug
+     * Envoie ou affiche un email en mode debug (durée dans pki.email.send{type,outcome}) ; false en cas d'échec
      */
-    private void sendOrLog(SimpleMailMessage message) {
+    private boolean sendOrLog(String type, SimpleMailMessage message) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = debugMode ? "logged" : "sent";
         try {
             if (debugMode) {
                 log.info("\n" +
@@ -57,8 +65,12 @@ public class EmailService {
                 mailSender.send(message);
             }
         } catch (Exception e) {
+            outcome = "error";
             log.error("Erreur lors de l'envoi/affichage de l'email", e);
+        } finally {
+            sample.stop(meterRegistry.timer("pki.email.send", "type", type, "outcome", outcome));
         }
+        return !"error".equals(outcome);
     }
 
     /**
@@ -98,7 +110,7 @@ public class EmailService {
             
             message.setText(messageBody);
             
-            sendOrLog(message);
+            sendOrLog("validation", message);
             if (!debugMode) {
                 log.info("Email de validation envoyé avec succès à: {}", toEmail);
             }
@@ -138,7 +150,7 @@ public class EmailService {
             
             message.setText(messageBody);
             
-            sendOrLog(message);
+            sendOrLog("rejection", message);
             if (!debugMode) {
                 log.info("Email de rejet envoyé avec succès à: {}", toEmail);
             }
@@ -148,6 +160,51 @@ public class EmailService {
         }
     }
 
+    /**
+     * Envoie un rappel de renouvellement avant expiration d'un certificat
+     *
+     * @param toEmail      Email du destinataire
+     * @param userName     Nom de l'utilisateur
+     * @param serialNumber Numéro de série du certificat
+     * @param notAfter     Date d'expiration
+     * @param daysLeft     Jours restants avant expiration
+     * @return true si l'email est parti (ou a été affiché en mode debug)
+     */
+    public boolean sendRenewalReminderEmail(String toEmail, String userName, String serialNumber, LocalDateTime notAfter, long daysLeft) {
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(toEmail);
+            message.setSubject("Votre certificat numérique expire dans " + daysLeft + " jour(s)");
+            
+            String messageBody = String.format(
+                "Bonjour %s,\n\n" +
+                "Votre certificat numérique (n° de série %s) expire le %s.\n\n" +
+                "Pour éviter toute interruption, vous pouvez dès maintenant soumettre une demande de renouvellement :\n\n" +
+                "%s\n\n" +
+                "Cordialement,\n" +
+                "Autorité de Certification Souveraine",
+                userName,
+                serialNumber,
+                notAfter.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")),
+                frontendUrl
+            );
+            
+            message.setText(messageBody);
+            
+            if (!sendOrLog("renewal-reminder", message)) {
+                return false;
+            }
+            if (!debugMode) {
+                log.info("Rappel de renouvellement envoyé à: {}", toEmail);
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Erreur lors de l'envoi du rappel de renouvellement à {}: {}", toEmail, e.getMessage(), e);
+            return false;
+        }
+    }
+
     /**
      * Envoie un email avec un lien de réinitialisation de mot de passe
      *
@@ -183,7 +240,7 @@ public class EmailService {
             
             message.setText(messageBody);
             
-            sendOrLog(message);
+            sendOrLog("password-reset", message);
             if (!debugMode) {
                 log.info("Email de réinitialisation du mot de passe envoyé à: {}", toEmail);
             }
@@ -218,7 +275,7 @@ public class EmailService {
             
             message.setText(messageBody);
             
-            sendOrLog(message);
+            sendOrLog("password-reset-confirmation", message);
             if (!debugMode) {
                 log.info("Email de confirmation de réinitialisation envoyé à: {}", toEmail);
             }
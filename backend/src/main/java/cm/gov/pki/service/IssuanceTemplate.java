@@ -0,0 +1,166 @@
+package cm.gov.pki.service;
+
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.CertIOException;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Extensions d'un profil d'émission pour une AC, encodées en DER une seule fois.
+ *
+ * Les extensions statiques (basicConstraints, keyUsage, extendedKeyUsage, authorityKeyIdentifier,
+ * authorityInfoAccess et le CRL Distribution Point de chaque partition) sont gardées sous forme
+ * d'{@link Extension} déjà encodées et ajoutées telles quelles au certificat. Seuls le
+ * subjectKeyIdentifier (SHA-1 de la clé du titulaire, RFC 5280 méthode 1) et le subjectAltName
+ * sont calculés à chaque émission ; ce dernier est reconstruit à partir des noms de la CSR validés
+ * par le profil, jamais recopié tel quel.
+ *
+ * Immuable, partageable entre threads.
+ */
+public final class IssuanceTemplate {
+
+    private final CertificateProfile profile;
+    private final Extension basicConstraints;
+    private final Extension keyUsage;
+    private final Extension rsaKeyUsage;
+    private final Extension extendedKeyUsage;
+    private final Extension authorityKeyIdentifier;
+    private final Extension authorityInfoAccess;
+    private final Extension[] crlDistributionPoints;
+
+    /**
+     * @param caCert       certificat de l'AC émettrice
+     * @param caIssuersUrl URL publique du certificat de l'AC (AIA caIssuers)
+     * @param crlUrls      URL de la CRL de chaque partition, dans l'ordre des partitions
+     */
+    public IssuanceTemplate(CertificateProfile profile, X509CertificateHolder caCert, String caIssuersUrl, List<String> crlUrls) {
+        try {
+            this.profile = profile;
+            this.basicConstraints = new Extension(Extension.basicConstraints, true,
+                    new BasicConstraints(false).getEncoded(ASN1Encoding.DER));
+            this.keyUsage = new Extension(Extension.keyUsage, true,
+                    new KeyUsage(profile.keyUsage(false)).getEncoded(ASN1Encoding.DER));
+            this.rsaKeyUsage = new Extension(Extension.keyUsage, true,
+                    new KeyUsage(profile.keyUsage(true)).getEncoded(ASN1Encoding.DER));
+            this.extendedKeyUsage = new Extension(Extension.extendedKeyUsage, false,
+                    new ExtendedKeyUsage(profile.getExtendedKeyUsage()).getEncoded(ASN1Encoding.DER));
+            this.authorityKeyIdentifier = new Extension(Extension.authorityKeyIdentifier, false,
+                    new AuthorityKeyIdentifier(caKeyIdentifier(caCert)).getEncoded(ASN1Encoding.DER));
+            this.authorityInfoAccess = new Extension(Extension.authorityInfoAccess, false,
+                    new AuthorityInformationAccess(AccessDescription.id_ad_caIssuers,
+                            new GeneralName(GeneralName.uniformResourceIdentifier, caIssuersUrl)).getEncoded(ASN1Encoding.DER));
+            this.crlDistributionPoints = new Extension[crlUrls.size()];
+            for (int shard = 0; shard < crlUrls.size(); shard++) {
+                DistributionPointName name = new DistributionPointName(new GeneralNames(
+                        new GeneralName(GeneralName.uniformResourceIdentifier, crlUrls.get(shard))));
+                crlDistributionPoints[shard] = new Extension(Extension.cRLDistributionPoints, false,
+                        new CRLDistPoint(new DistributionPoint[]{new DistributionPoint(name, null, null)})
+                                .getEncoded(ASN1Encoding.DER));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Encodage du profil " + profile.getProfileName() + " impossible", e);
+        }
+    }
+
+    public CertificateProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Ajoute les extensions du profil au certificat d'un titulaire.
+     *
+     * @param subject   sujet approuvé du certificat
+     * @param requested extensions demandées dans la CSR (seuls les noms du subjectAltName sont repris), ou null
+     */
+    public void apply(X509v3CertificateBuilder builder, X500Name subject, SubjectPublicKeyInfo subjectKey, int shard,
+                      Extensions requested) throws CertIOException {
+        Extension subjectAltName = subjectAltName(subject, requested);
+        if (subjectAltName == null && (profile.isSubjectAltNameRequired() || subject.getRDNs().length == 0)) {
+            throw new IllegalArgumentException("Le profil " + profile.getProfileName()
+                    + " exige une extension subjectAltName dans la CSR");
+        }
+        boolean rsa = PKCSObjectIdentifiers.rsaEncryption.equals(subjectKey.getAlgorithm().getAlgorithm());
+        builder.addExtension(basicConstraints);
+        builder.addExtension(rsa ? rsaKeyUsage : keyUsage);
+        builder.addExtension(extendedKeyUsage);
+        builder.addExtension(subjectKeyIdentifier(subjectKey));
+        builder.addExtension(authorityKeyIdentifier);
+        builder.addExtension(authorityInfoAccess);
+        builder.addExtension(crlDistributionPoints[shard]);
+        if (subjectAltName != null) {
+            builder.addExtension(subjectAltName);
+        }
+    }
+
+    // subjectAltName reconstruit à partir des noms validés, ou null si la CSR n'en demande aucun
+    private Extension subjectAltName(X500Name subject, Extensions requested) throws CertIOException {
+        Extension extension = requested != null ? requested.getExtension(Extension.subjectAlternativeName) : null;
+        if (extension == null) {
+            return null;
+        }
+        GeneralNames names;
+        try {
+            names = profile.subjectAltNames(subject, GeneralNames.getInstance(extension.getParsedValue()));
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException("Extension subjectAltName de la CSR mal formée", e);
+        }
+        if (names.getNames().length == 0) {
+            return null;
+        }
+        try {
+            return new Extension(Extension.subjectAlternativeName, profile.isSubjectAltNameCritical(subject),
+                    names.getEncoded(ASN1Encoding.DER));
+        } catch (IOException e) {
+            throw new CertIOException("Encodage du subjectAltName impossible", e);
+        }
+    }
+
+    // OCTET STRING de 20 octets encodé directement : 04 14 || SHA-1(subjectPublicKey)
+    static Extension subjectKeyIdentifier(SubjectPublicKeyInfo subjectKey) {
+        byte[] keyId = sha1(subjectKey.getPublicKeyData().getBytes());
+        byte[] value = new byte[2 + keyId.length];
+        value[0] = 0x04;
+        value[1] = (byte) keyId.length;
+        System.arraycopy(keyId, 0, value, 2, keyId.length);
+        return new Extension(Extension.subjectKeyIdentifier, false, value);
+    }
+
+    // Identifiant de clé de l'AC : son SKI s'il existe, sinon calculé de la même façon
+    private static byte[] caKeyIdentifier(X509CertificateHolder caCert) {
+        Extension ski = caCert.getExtension(Extension.subjectKeyIdentifier);
+        if (ski != null) {
+            return SubjectKeyIdentifier.getInstance(ski.getParsedValue()).getKeyIdentifier();
+        }
+        return sha1(caCert.getSubjectPublicKeyInfo().getPublicKeyData().getBytes());
+    }
+
+    private static byte[] sha1(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
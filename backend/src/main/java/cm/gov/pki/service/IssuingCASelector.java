@@ -0,0 +1,151 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import cm.gov.pki.repository.CAConfigurationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Choix de l'AC émettrice parmi les AC intermédiaires actives (is_issuing).
+ *
+ * Politiques (pki.ca.selection-policy) :
+ * - round-robin : rotation circulaire sur les AC émettrices
+ * - least-loaded : AC ayant le moins de signatures en cours
+ * - per-profile : AC dont issuing_profile correspond au profil demandé, sinon AC sans profil
+ *   dédié, puis rotation ; une AC réservée à un autre profil n'est jamais retenue
+ *
+ * La liste des AC candidates est gardée en mémoire et rechargée après toute
+ * modification locale ou à l'expiration du délai pki.ca.selection-refresh-seconds.
+ */
+@Component
+public class IssuingCASelector {
+
+    private static final Logger log = LoggerFactory.getLogger(IssuingCASelector.class);
+
+    public enum Policy {
+        ROUND_ROBIN, LEAST_LOADED, PER_PROFILE;
+
+        static Policy parse(String value) {
+            return Policy.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final CAConfigurationRepository caConfigurationRepository;
+    private final AtomicLong cursor = new AtomicLong();
+    private final Map<UUID, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${pki.ca.selection-policy:round-robin}")
+    private String selectionPolicy = "round-robin";
+
+    @Value("${pki.ca.selection-refresh-seconds:30}")
+    private long refreshSeconds = 30;
+
+    private volatile List<CAConfiguration> candidates;
+    private volatile long loadedAt;
+
+    public IssuingCASelector(CAConfigurationRepository caConfigurationRepository) {
+        this.caConfigurationRepository = caConfigurationRepository;
+    }
+
+    public Policy getPolicy() {
+        try {
+            return Policy.parse(selectionPolicy);
+        } catch (IllegalArgumentException e) {
+            log.warn("Politique de sélection inconnue '{}', utilisation de round-robin", selectionPolicy);
+            return Policy.ROUND_ROBIN;
+        }
+    }
+
+    /**
+     * Sélectionne une AC émettrice et la marque comme occupée jusqu'à {@link #release(CAConfiguration)}.
+     * Sans AC intermédiaire émettrice, l'AC racine active signe directement.
+     */
+    public CAConfiguration acquire(String profile) {
+        CAConfiguration ca = select(profile);
+        inFlight.computeIfAbsent(ca.id, id -> new AtomicInteger()).incrementAndGet();
+        return ca;
+    }
+
+    public void release(CAConfiguration ca) {
+        AtomicInteger counter = inFlight.get(ca.id);
+        if (counter != null) {
+            counter.decrementAndGet();
+        }
+    }
+
+    /**
+     * Sélectionne une AC émettrice sans la réserver (les AC expirées sont écartées)
+     */
+    public CAConfiguration select(String profile) {
+        LocalDateTime now = LocalDateTime.now();
+        List<CAConfiguration> pool = candidates().stream()
+                .filter(ca -> ca.validUntil == null || now.isBefore(ca.validUntil))
+                .toList();
+        if (pool.isEmpty()) {
+            return caConfigurationRepository.findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc()
+                    .orElseThrow(() -> new RuntimeException("Aucune AC active trouvée"));
+        }
+        return switch (getPolicy()) {
+            case ROUND_ROBIN -> next(pool);
+            case LEAST_LOADED -> pool.stream()
+                    .min(Comparator.comparingInt(this::load))
+                    .orElseThrow();
+            case PER_PROFILE -> next(forProfile(pool, profile));
+        };
+    }
+
+    /**
+     * AC émettrices actives, dans l'ordre de création
+     */
+    public List<CAConfiguration> candidates() {
+        List<CAConfiguration> current = candidates;
+        if (current == null || System.currentTimeMillis() - loadedAt > refreshSeconds * 1000) {
+            current = List.copyOf(caConfigurationRepository.findByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtAsc());
+            candidates = current;
+            loadedAt = System.currentTimeMillis();
+        }
+        return current;
+    }
+
+    /**
+     * Force le rechargement des AC candidates (activation / désactivation d'une AC)
+     */
+    public void refresh() {
+        candidates = null;
+    }
+
+    public int load(CAConfiguration ca) {
+        AtomicInteger counter = inFlight.get(ca.id);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private CAConfiguration next(List<CAConfiguration> pool) {
+        return pool.get((int) Math.floorMod(cursor.getAndIncrement(), (long) pool.size()));
+    }
+
+    private static List<CAConfiguration> forProfile(List<CAConfiguration> pool, String profile) {
+        if (profile != null) {
+            List<CAConfiguration> matching = pool.stream()
+                    .filter(ca -> profile.equalsIgnoreCase(ca.issuingProfile))
+                    .toList();
+            if (!matching.isEmpty()) return matching;
+        }
+        List<CAConfiguration> generic = pool.stream().filter(ca -> ca.issuingProfile == null).toList();
+        if (generic.isEmpty()) {
+            throw new RuntimeException("Aucune AC émettrice pour le profil " + (profile != null ? profile : "par défaut"));
+        }
+        return generic;
+    }
+}
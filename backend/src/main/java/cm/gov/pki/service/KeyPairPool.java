@@ -0,0 +1,234 @@
+package cm.gov.pki.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Réserve de paires de clés pré-générées par algorithme / taille.
+ *
+ * Les clés privées sont conservées chiffrées (AES-GCM, clé éphémère propre au processus)
+ * et chaque paire n'est remise qu'une seule fois. La réserve est re-remplie en arrière-plan
+ * sur des threads de basse priorité ; si elle est vide, la génération reste synchrone.
+ */
+@Component
+public class KeyPairPool {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyPairPool.class);
+
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    /** Format : ALGO:TAILLE=QUANTITE séparés par des virgules (ex. RSA:2048=4,EC:256=8,Ed25519:255=4) */
+    @Value("${pki.keypool.specs:RSA:2048=4,RSA:4096=2}")
+    private String specs = "";
+
+    @Value("${pki.keypool.refill-threads:1}")
+    private int refillThreads = 1;
+
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKey wrappingKey;
+    private final Map<KeyProfile, Slot> slots = new ConcurrentHashMap<>();
+    private volatile ExecutorService refillExecutor;
+
+    public KeyPairPool() {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+        try {
+            KeyGenerator kg = KeyGenerator.getInstance("AES");
+            kg.init(256, random);
+            this.wrappingKey = kg.generateKey();
+        } catch (Exception e) {
+            throw new IllegalStateException("Impossible d'initialiser la clé de protection de la réserve", e);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (String entry : specs.split(",")) {
+            String spec = entry.trim();
+            if (spec.isEmpty()) continue;
+            try {
+                String[] sizeAndTarget = spec.split("=");
+                String[] algoAndSize = sizeAndTarget[0].split(":");
+                KeyProfile profile = KeyProfile.of(algoAndSize[0], Integer.parseInt(algoAndSize[1].trim()));
+                int target = Integer.parseInt(sizeAndTarget[1].trim());
+                slots.put(profile, new Slot(profile, target));
+            } catch (RuntimeException e) {
+                log.warn("Spécification de réserve de clés invalide ignorée : '{}'", spec);
+            }
+        }
+        if (slots.isEmpty()) return;
+
+        AtomicInteger counter = new AtomicInteger();
+        refillExecutor = Executors.newFixedThreadPool(Math.max(1, refillThreads), r -> {
+            Thread t = new Thread(r, "keypool-refill-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        slots.values().forEach(this::scheduleRefill);
+        log.info("Réserve de clés démarrée : {}", slots.keySet());
+    }
+
+    @PreDestroy
+    public void stop() {
+        ExecutorService executor = refillExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (Slot slot : slots.values()) {
+            PooledKeyPair pooled;
+            while ((pooled = slot.queue.poll()) != null) {
+                Arrays.fill(pooled.encryptedPrivateKey, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Retire une paire de clés de la réserve (ou la génère si la réserve est vide)
+     */
+    public KeyPair take(String algorithm, int keySize) {
+        return take(KeyProfile.of(algorithm, keySize));
+    }
+
+    /**
+     * Retire une paire de clés du profil demandé (ou la génère si la réserve est vide)
+     */
+    public KeyPair take(KeyProfile profile) {
+        Slot slot = slots.get(profile);
+        if (slot != null) {
+            PooledKeyPair pooled = slot.queue.poll();
+            scheduleRefill(slot);
+            if (pooled != null) {
+                try {
+                    return unwrap(profile, pooled);
+                } catch (Exception e) {
+                    log.warn("Paire de clés de la réserve {} inutilisable, génération directe : {}", profile, e.getMessage());
+                }
+            } else {
+                log.debug("Réserve {} vide, génération synchrone", profile);
+            }
+        }
+        return generate(profile);
+    }
+
+    /**
+     * Nombre de paires disponibles pour un algorithme / une taille
+     */
+    public int available(String algorithm, int keySize) {
+        return available(KeyProfile.of(algorithm, keySize));
+    }
+
+    public int available(KeyProfile profile) {
+        Slot slot = slots.get(profile);
+        return slot == null ? 0 : slot.queue.size();
+    }
+
+    /**
+     * Profils configurés dans pki.keypool.specs
+     */
+    public Set<KeyProfile> profiles() {
+        return Set.copyOf(slots.keySet());
+    }
+
+    private void scheduleRefill(Slot slot) {
+        ExecutorService executor = refillExecutor;
+        if (executor == null || executor.isShutdown()) return;
+        if (slot.queue.size() >= slot.target || !slot.refilling.compareAndSet(false, true)) return;
+        executor.execute(() -> {
+            boolean completed = false;
+            try {
+                while (slot.queue.size() < slot.target && !Thread.currentThread().isInterrupted()) {
+                    slot.queue.offer(wrap(generate(slot.profile)));
+                }
+                completed = !Thread.currentThread().isInterrupted();
+            } catch (Exception e) {
+                log.warn("Échec du remplissage de la réserve {} : {}", slot.profile, e.getMessage());
+            } finally {
+                slot.refilling.set(false);
+            }
+            // Un take() survenu entre le dernier contrôle et la remise à false n'a pas pu relancer le remplissage
+            if (completed) {
+                scheduleRefill(slot);
+            }
+        });
+    }
+
+    private KeyPair generate(KeyProfile profile) {
+        try {
+            return profile.newKeyPairGenerator(random).generateKeyPair();
+        } catch (Exception e) {
+            throw new RuntimeException("Échec génération de clés " + profile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private PooledKeyPair wrap(KeyPair kp) throws Exception {
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+        byte[] encoded = kp.getPrivate().getEncoded();
+        try {
+            return new PooledKeyPair(kp.getPublic().getEncoded(), iv, cipher.doFinal(encoded));
+        } finally {
+            Arrays.fill(encoded, (byte) 0);
+        }
+    }
+
+    private KeyPair unwrap(KeyProfile profile, PooledKeyPair pooled) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(GCM_TAG_BITS, pooled.iv));
+        byte[] encoded = cipher.doFinal(pooled.encryptedPrivateKey);
+        try {
+            KeyFactory kf = KeyFactory.getInstance(profile.getAlgorithm(), BouncyCastleProvider.PROVIDER_NAME);
+            PublicKey publicKey = kf.generatePublic(new X509EncodedKeySpec(pooled.publicKey));
+            PrivateKey privateKey = kf.generatePrivate(new PKCS8EncodedKeySpec(encoded));
+            return new KeyPair(publicKey, privateKey);
+        } finally {
+            Arrays.fill(encoded, (byte) 0);
+            Arrays.fill(pooled.encryptedPrivateKey, (byte) 0);
+        }
+    }
+
+    private record PooledKeyPair(byte[] publicKey, byte[] iv, byte[] encryptedPrivateKey) {}
+
+    private static final class Slot {
+        final KeyProfile profile;
+        final int target;
+        final ConcurrentLinkedQueue<PooledKeyPair> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean refilling = new AtomicBoolean(false);
+
+        Slot(KeyProfile profile, int target) {
+            this.profile = profile;
+            this.target = target;
+        }
+    }
+}
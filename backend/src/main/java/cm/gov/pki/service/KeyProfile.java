@@ -0,0 +1,132 @@
+package cm.gov.pki.service;
+
+import org.bouncycastle.asn1.x9.ECNamedCurveTable;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.security.Key;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.ECKey;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.util.Locale;
+
+/**
+ * Profils de clés supportés pour les AC et l'émission
+ * L'algorithme de signature est toujours dérivé de la clé de l'AC
+ */
+public enum KeyProfile {
+    RSA_2048("RSA", 2048, null),
+    RSA_3072("RSA", 3072, null),
+    RSA_4096("RSA", 4096, null),
+    EC_P256("EC", 256, "secp256r1"),
+    EC_P384("EC", 384, "secp384r1"),
+    ED25519("Ed25519", 255, null);
+
+    private final String algorithm;
+    private final int keySize;
+    private final String curve;
+
+    KeyProfile(String algorithm, int keySize, String curve) {
+        this.algorithm = algorithm;
+        this.keySize = keySize;
+        this.curve = curve;
+    }
+
+    /** Nom JCA de l'algorithme de clé (KeyPairGenerator / KeyFactory) */
+    public String getAlgorithm() { return algorithm; }
+
+    public int getKeySize() { return keySize; }
+
+    /** Algorithme de signature produit par une clé de ce profil */
+    public String getSignatureAlgorithm() {
+        return switch (this) {
+            case RSA_2048, RSA_3072, RSA_4096 -> "SHA256withRSA";
+            case EC_P256 -> "SHA256withECDSA";
+            case EC_P384 -> "SHA384withECDSA";
+            case ED25519 -> "Ed25519";
+        };
+    }
+
+    public KeyPairGenerator newKeyPairGenerator(SecureRandom random) throws Exception {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance(algorithm, BouncyCastleProvider.PROVIDER_NAME);
+        if (curve != null) {
+            kpg.initialize(new ECGenParameterSpec(curve), random);
+        } else if (this != ED25519) {
+            kpg.initialize(keySize, random);
+        }
+        return kpg;
+    }
+
+    /**
+     * Résout un profil à partir d'un algorithme (RSA, EC/ECDSA, Ed25519/EdDSA) et d'une taille
+     */
+    public static KeyProfile of(String algorithm, int keySize) {
+        String algo = algorithm == null ? "RSA" : algorithm.trim().toUpperCase(Locale.ROOT);
+        switch (algo) {
+            case "ED25519", "EDDSA":
+                return ED25519;
+            case "EC", "ECDSA":
+                if (keySize == 256) return EC_P256;
+                if (keySize == 384) return EC_P384;
+                break;
+            case "RSA":
+                for (KeyProfile p : values()) {
+                    if ("RSA".equals(p.algorithm) && p.keySize == keySize) return p;
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Profil de clé non supporté : " + algorithm + " " + keySize);
+    }
+
+    /**
+     * Profil correspondant à une clé existante (publique ou privée)
+     */
+    public static KeyProfile fromKey(Key key) {
+        String algo = key.getAlgorithm().toUpperCase(Locale.ROOT);
+        if (algo.equals("ED25519") || algo.equals("EDDSA")) {
+            return ED25519;
+        }
+        if ((algo.equals("EC") || algo.equals("ECDSA")) && key instanceof ECKey ecKey) {
+            for (KeyProfile p : values()) {
+                if (p.curve != null && p.isCurve(ecKey.getParams())) return p;
+            }
+            throw new IllegalArgumentException("Courbe elliptique non supportée ("
+                    + ecKey.getParams().getCurve().getField().getFieldSize() + " bits) : P-256 ou P-384 attendue");
+        }
+        if (algo.equals("RSA") && key instanceof java.security.interfaces.RSAKey rsaKey) {
+            int bits = rsaKey.getModulus().bitLength();
+            if (bits > 3072) return RSA_4096;
+            if (bits > 2048) return RSA_3072;
+            return RSA_2048;
+        }
+        throw new IllegalArgumentException("Algorithme de clé non supporté : " + key.getAlgorithm());
+    }
+
+    // Compare les paramètres du domaine à ceux de la courbe nommée (P-521, brainpool, etc. sont écartés)
+    private boolean isCurve(ECParameterSpec params) {
+        if (params == null || !(params.getCurve().getField() instanceof ECFieldFp field)) {
+            return false;
+        }
+        X9ECParameters named = ECNamedCurveTable.getByName(curve);
+        ECPoint g = params.getGenerator();
+        return field.getP().equals(named.getCurve().getField().getCharacteristic())
+                && params.getCurve().getA().equals(named.getCurve().getA().toBigInteger())
+                && params.getCurve().getB().equals(named.getCurve().getB().toBigInteger())
+                && params.getOrder().equals(named.getN())
+                && g.getAffineX().equals(named.getG().getAffineXCoord().toBigInteger())
+                && g.getAffineY().equals(named.getG().getAffineYCoord().toBigInteger());
+    }
+
+    /**
+     * Algorithme de signature à utiliser avec la clé privée d'une AC
+     */
+    public static String signatureAlgorithmFor(Key key) {
+        return fromKey(key).getSignatureAlgorithm();
+    }
+}
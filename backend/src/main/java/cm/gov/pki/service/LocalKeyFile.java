@@ -0,0 +1,69 @@
+package cm.gov.pki.service;
+
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.StringWriter;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * Clé EC P-256 propre à un service (journal de transparence, répondeur de statut), distincte des
+ * clés d'AC. Le fichier PEM (clé privée puis publique) est créé au premier démarrage et partagé
+ * par les instances.
+ */
+final class LocalKeyFile {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalKeyFile.class);
+
+    private LocalKeyFile() {
+    }
+
+    static KeyPair loadOrCreate(Path path, KeyPairPool keyPairPool, String label) throws Exception {
+        if (!Files.exists(path)) {
+            KeyPair generated = keyPairPool.take(KeyProfile.EC_P256);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                StringWriter sw = new StringWriter();
+                try (JcaPEMWriter pw = new JcaPEMWriter(sw)) {
+                    pw.writeObject(generated.getPrivate());
+                    pw.writeObject(generated.getPublic());
+                }
+                Files.writeString(tmp, sw.toString());
+                // Sans remplacement : si une autre instance a créé la clé entre-temps, on garde la sienne
+                Files.move(tmp, path);
+                log.info("Clé de signature du {} créée : {}", label, path);
+            } catch (FileAlreadyExistsException e) {
+                log.debug("Clé du {} créée par une autre instance : {}", label, path);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        PrivateKey privateKey = null;
+        PublicKey publicKey = null;
+        try (PEMParser p = new PEMParser(Files.newBufferedReader(path))) {
+            Object object;
+            while ((object = p.readObject()) != null) {
+                if (object instanceof SubjectPublicKeyInfo publicKeyInfo) {
+                    publicKey = new JcaPEMKeyConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME).getPublicKey(publicKeyInfo);
+                } else {
+                    privateKey = PemFileSigningKeyProvider.toPrivateKey(object);
+                }
+            }
+        }
+        if (privateKey == null || publicKey == null) {
+            throw new IllegalStateException("Clé du " + label + " incomplète : " + path);
+        }
+        return new KeyPair(publicKey, privateKey);
+    }
+}
@@ -0,0 +1,251 @@
+package cm.gov.pki.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arbre de Merkle (RFC 6962) adossé à des fichiers.
+ *
+ * Un fichier par niveau (level-NN.bin), hash SHA-256 de 32 octets à la position index * 32.
+ * Seuls les nœuds des sous-arbres complets sont stockés : le niveau k contient le hash de chaque
+ * bloc aligné de 2^k feuilles. Toute racine, preuve d'inclusion ou de cohérence se calcule avec
+ * O(log n) lectures positionnelles, sans charger l'arbre en mémoire ; un ajout écrit au plus
+ * log n nœuds (O(1) amorti).
+ *
+ * Les ajouts doivent être sérialisés par l'appelant ; les lectures sont possibles en parallèle
+ * pour toute taille inférieure ou égale à {@link #size()}.
+ */
+public class MerkleTreeFile implements AutoCloseable {
+
+    static final int HASH_SIZE = 32;
+    private static final int MAX_LEVELS = 64;
+
+    private final Path dir;
+    private final FileChannel[] levels = new FileChannel[MAX_LEVELS];
+    private volatile long size;
+
+    public MerkleTreeFile(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        this.dir = dir;
+        // Une écriture interrompue peut laisser un hash partiel ou des niveaux en retard
+        truncate(channel(0).size() / HASH_SIZE);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Ajoute une feuille (hash déjà calculé par {@link #leafHash(byte[])})
+     */
+    public synchronized void append(byte[] leafHash) throws IOException {
+        if (leafHash.length != HASH_SIZE) {
+            throw new IllegalArgumentException("Hash de feuille invalide (" + leafHash.length + " octets)");
+        }
+        long index = size;
+        write(0, index, leafHash);
+        byte[] node = leafHash;
+        long i = index;
+        int level = 0;
+        // Chaque index impair complète un bloc : on remonte tant que le nœud a un frère gauche
+        while ((i & 1) == 1) {
+            node = nodeHash(read(level, i - 1), node);
+            i >>= 1;
+            level++;
+            write(level, i, node);
+        }
+        size = index + 1;
+    }
+
+    /**
+     * Ramène l'arbre à ses n premières feuilles (et complète les niveaux en retard)
+     */
+    public synchronized void truncate(long n) throws IOException {
+        if (n > channel(0).size() / HASH_SIZE) {
+            throw new IllegalArgumentException("L'arbre ne contient que " + channel(0).size() / HASH_SIZE + " feuilles");
+        }
+        channel(0).truncate(n * HASH_SIZE);
+        for (int level = 1; level < MAX_LEVELS; level++) {
+            long expected = n >> level;
+            if (expected == 0 && !Files.exists(levelPath(level))) break;
+            FileChannel channel = channel(level);
+            long actual = channel.size() / HASH_SIZE;
+            if (actual > expected) {
+                channel.truncate(expected * HASH_SIZE);
+                actual = expected;
+            } else {
+                channel.truncate(actual * HASH_SIZE);
+            }
+            for (long i = actual; i < expected; i++) {
+                write(level, i, nodeHash(read(level - 1, 2 * i), read(level - 1, 2 * i + 1)));
+            }
+        }
+        size = n;
+    }
+
+    public byte[] leaf(long index) throws IOException {
+        checkRange(index, size);
+        return read(0, index);
+    }
+
+    /**
+     * Racine de l'arbre des n premières feuilles (MTH)
+     */
+    public byte[] rootHash(long n) throws IOException {
+        checkSize(n);
+        return n == 0 ? sha256().digest() : subtreeHash(0, n);
+    }
+
+    /**
+     * Chemin d'audit de la feuille m dans l'arbre des n premières feuilles (PATH, de la feuille vers la racine)
+     */
+    public List<byte[]> inclusionProof(long m, long n) throws IOException {
+        checkSize(n);
+        checkRange(m, n);
+        List<byte[]> proof = new ArrayList<>();
+        path(m, 0, n, proof);
+        return proof;
+    }
+
+    /**
+     * Preuve que l'arbre de taille m est un préfixe de l'arbre de taille n (PROOF)
+     */
+    public List<byte[]> consistencyProof(long m, long n) throws IOException {
+        checkSize(n);
+        if (m <= 0 || m > n) {
+            throw new IllegalArgumentException("Tailles d'arbre invalides : " + m + ", " + n);
+        }
+        List<byte[]> proof = new ArrayList<>();
+        if (m < n) {
+            subproof(m, 0, n, true, proof);
+        }
+        return proof;
+    }
+
+    public static byte[] leafHash(byte[] data) {
+        MessageDigest md = sha256();
+        md.update((byte) 0x00);
+        return md.digest(data);
+    }
+
+    public static byte[] nodeHash(byte[] left, byte[] right) {
+        MessageDigest md = sha256();
+        md.update((byte) 0x01);
+        md.update(left);
+        return md.digest(right);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (levels) {
+            for (int level = 0; level < MAX_LEVELS; level++) {
+                if (levels[level] != null) {
+                    levels[level].close();
+                    levels[level] = null;
+                }
+            }
+        }
+    }
+
+    // MTH(D[start:end]) : une lecture si le bloc est complet et aligné, sinon découpage RFC 6962
+    private byte[] subtreeHash(long start, long end) throws IOException {
+        long n = end - start;
+        if (Long.bitCount(n) == 1 && start % n == 0) {
+            return read(Long.numberOfTrailingZeros(n), start / n);
+        }
+        long k = Long.highestOneBit(n - 1);
+        return nodeHash(subtreeHash(start, start + k), subtreeHash(start + k, end));
+    }
+
+    private void path(long m, long start, long end, List<byte[]> proof) throws IOException {
+        long n = end - start;
+        if (n == 1) return;
+        long k = Long.highestOneBit(n - 1);
+        if (m < k) {
+            path(m, start, start + k, proof);
+            proof.add(subtreeHash(start + k, end));
+        } else {
+            path(m - k, start + k, end, proof);
+            proof.add(subtreeHash(start, start + k));
+        }
+    }
+
+    private void subproof(long m, long start, long end, boolean complete, List<byte[]> proof) throws IOException {
+        long n = end - start;
+        if (m == n) {
+            if (!complete) proof.add(subtreeHash(start, end));
+            return;
+        }
+        long k = Long.highestOneBit(n - 1);
+        if (m <= k) {
+            subproof(m, start, start + k, complete, proof);
+            proof.add(subtreeHash(start + k, end));
+        } else {
+            subproof(m - k, start + k, end, false, proof);
+            proof.add(subtreeHash(start, start + k));
+        }
+    }
+
+    private byte[] read(int level, long index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HASH_SIZE);
+        long position = index * HASH_SIZE;
+        FileChannel channel = channel(level);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IllegalStateException("Nœud manquant dans l'arbre de Merkle : niveau " + level + ", index " + index);
+            }
+        }
+        return buffer.array();
+    }
+
+    private void write(int level, long index, byte[] hash) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        long position = index * HASH_SIZE;
+        FileChannel channel = channel(level);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private FileChannel channel(int level) throws IOException {
+        synchronized (levels) {
+            if (levels[level] == null) {
+                levels[level] = FileChannel.open(levelPath(level),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return levels[level];
+        }
+    }
+
+    private Path levelPath(int level) {
+        return dir.resolve(String.format("level-%02d.bin", level));
+    }
+
+    private void checkSize(long n) {
+        if (n < 0 || n > size) {
+            throw new IllegalArgumentException("Taille d'arbre " + n + " inconnue (taille courante " + size + ")");
+        }
+    }
+
+    private static void checkRange(long index, long n) {
+        if (index < 0 || index >= n) {
+            throw new IllegalArgumentException("Index de feuille " + index + " hors de l'arbre de taille " + n);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
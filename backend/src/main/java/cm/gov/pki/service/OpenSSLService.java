@@ -3,6 +3,7 @@ package cm.gov.pki.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -18,9 +19,11 @@ import java.util.concurrent.TimeUnit;
  * Bridge Java → OpenSSL CLI
  * 
  * ITÉRATION 1 : Génération de l'AC Racine uniquement
+ * Backend optionnel : activé par pki.crypto.backend=openssl
  */
 @Service
-public class OpenSSLService {
+@ConditionalOnProperty(name = "pki.crypto.backend", havingValue = "openssl")
+public class OpenSSLService implements CryptoBackend {
 
     private static final Logger log = LoggerFactory.getLogger(OpenSSLService.class);
 
@@ -61,10 +64,21 @@ public class OpenSSLService {
         log.info("✅ Structure PKI initialisée");
     }
 
+    @Override
+    public String getName() {
+        return "openssl";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return isOpenSSLAvailable();
+    }
+
     /**
      * Génère l'Autorité de Certification Racine
      * Crée ca.key (clé privée) et ca.crt (certificat racine)
      */
+    @Override
     public Map<String, String> generateRootCA(String caName, int validityDays) throws Exception {
         log.info("🔐 Génération de l'AC Racine : {}");
 
@@ -113,6 +127,7 @@ public class OpenSSLService {
     /**
      * Vérifie la validité d'un certificat
      */
+    @Override
     public Map<String, String> verifyCertificate(String certPath) throws Exception {
         log.info("🔍 Vérification du certificat : {}");
 
@@ -133,6 +148,7 @@ public class OpenSSLService {
     /**
      * Récupère les informations d'un certificat
      */
+    @Override
     public String getCertificateText(String certPath) throws Exception {
         return executeOpenSSL(List.of(
             "x509",
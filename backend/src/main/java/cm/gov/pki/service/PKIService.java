@@ -5,9 +5,6 @@ import cm.gov.pki.entity.CAConfiguration;
 import cm.gov.pki.entity.Certificate;
 import cm.gov.pki.entity.User;
 import cm.gov.pki.repository.CAConfigurationRepository;
-import cm.gov.pki.repository.CertificateRepository;
-import cm.gov.pki.repository.CertificateRequestRepository;
-import cm.gov.pki.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,27 +23,21 @@ import java.util.Map;
 @Service
 public class PKIService {
     private final CAConfigurationRepository caConfigRepository;
-    private final CertificateRequestRepository requestRepository;
-    private final CertificateRepository certificateRepository;
-    private final UserRepository userRepository;
-    private final OpenSSLService opensslService;
+    private final CryptoBackend cryptoBackend;
     private final AuditService auditService;
+    private final DashboardCounterService dashboardCounters;
 
     private static final Logger log = LoggerFactory.getLogger(PKIService.class);
 
     @Autowired
     public PKIService(CAConfigurationRepository caConfigRepository,
-                      CertificateRequestRepository requestRepository,
-                      CertificateRepository certificateRepository,
-                      UserRepository userRepository,
-                      OpenSSLService opensslService,
-                      AuditService auditService) {
+                      CryptoBackend cryptoBackend,
+                      AuditService auditService,
+                      DashboardCounterService dashboardCounters) {
         this.caConfigRepository = caConfigRepository;
-        this.requestRepository = requestRepository;
-        this.certificateRepository = certificateRepository;
-        this.userRepository = userRepository;
-        this.opensslService = opensslService;
+        this.cryptoBackend = cryptoBackend;
         this.auditService = auditService;
+        this.dashboardCounters = dashboardCounters;
     }
 
     @Value("${pki.ca-defaults.name:Autorité de Certification Souveraine}")
@@ -67,18 +58,18 @@ public class PKIService {
             throw new SecurityException("Seuls les administrateurs peuvent initialiser l'AC");
         }
 
-        if (caConfigRepository.existsByIsActiveTrue()) {
+        if (caConfigRepository.existsByParentIdIsNullAndIsActiveTrue()) {
             throw new IllegalStateException("Une AC Racine est déjà active");
         }
 
-        // Vérifier OpenSSL
-        if (!opensslService.isOpenSSLAvailable()) {
-            throw new RuntimeException("OpenSSL n'est pas disponible sur ce système");
+        // Vérifier le backend cryptographique
+        if (!cryptoBackend.isAvailable()) {
+            throw new RuntimeException("Backend cryptographique '" + cryptoBackend.getName() + "' non disponible");
         }
 
-        // Générer l'AC via OpenSSL
+        // Générer l'AC via le backend configuré (Bouncy Castle par défaut)
         int validityDays = defaultValidityYears * 365;
-        Map<String, String> caInfo = opensslService.generateRootCA(defaultCAName, validityDays);
+        Map<String, String> caInfo = cryptoBackend.generateRootCA(defaultCAName, validityDays);
 
         // Sauvegarder en base de données
         CAConfiguration caConfig = new CAConfiguration();
@@ -87,9 +78,9 @@ public class PKIService {
         caConfig.caKeyPath = caInfo.get("keyPath");
         caConfig.validFrom = LocalDateTime.now();
         caConfig.validUntil = LocalDateTime.now().plusDays(validityDays);
-        caConfig.keyAlgorithm = "RSA";
-        caConfig.keySize = 4096;
-        caConfig.signatureAlgorithm = "SHA256withRSA";
+        caConfig.keyAlgorithm = caInfo.getOrDefault("keyAlgorithm", "RSA");
+        caConfig.keySize = Integer.parseInt(caInfo.getOrDefault("keySize", "4096"));
+        caConfig.signatureAlgorithm = caInfo.getOrDefault("signatureAlgorithm", "SHA256withRSA");
         caConfig.isActive = true;
         caConfig.createdBy = admin;
 
@@ -107,7 +98,7 @@ public class PKIService {
      * Récupère le statut de l'AC Racine
      */
     public DashboardDTO.CAStatus getCAStatus() {
-        return caConfigRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
+        return caConfigRepository.findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc()
                 .map(this::buildCAStatus)
                 .orElse(DashboardDTO.CAStatus.builder()
                         .isInitialized(false)
@@ -116,13 +107,13 @@ public class PKIService {
     }
 
     /**
-     * Récupère les statistiques pour le Dashboard Admin
+     * Récupère les statistiques pour le Dashboard Admin (compteurs en mémoire)
      */
     public DashboardDTO getAdminDashboard() {
-        long totalUsers = userRepository.count() - 1; // -1 pour exclure l'admin système
-        long pendingRequests = requestRepository.countByStatus("PENDING");
-        long activeCertificates = certificateRepository.countByStatus(Certificate.CertificateStatus.ACTIVE);
-        long revokedCertificates = certificateRepository.countByStatus(Certificate.CertificateStatus.REVOKED);
+        long totalUsers = dashboardCounters.users() - 1; // -1 pour exclure l'admin système
+        long pendingRequests = dashboardCounters.requests("PENDING");
+        long activeCertificates = dashboardCounters.certificates(Certificate.CertificateStatus.ACTIVE);
+        long revokedCertificates = dashboardCounters.certificates(Certificate.CertificateStatus.REVOKED);
 
         return DashboardDTO.builder()
                 .totalUsers(totalUsers)
@@ -151,10 +142,10 @@ public class PKIService {
     }
 
     /**
-     * Vérifie si l'AC est initialisée et valide
+     * Vérifie si l'AC racine est initialisée et valide
      */
     public boolean isCAReady() {
-        return caConfigRepository.findFirstByIsActiveTrueOrderByCreatedAtDesc()
+        return caConfigRepository.findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc()
                 .map(CAConfiguration::isValid)
                 .orElse(false);
     }
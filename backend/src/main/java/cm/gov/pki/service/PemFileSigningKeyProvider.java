@@ -0,0 +1,58 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.PEMKeyPair;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PrivateKey;
+
+/**
+ * Clé d'AC en clair dans un fichier PEM (caKeyPath)
+ */
+@Component
+@Order(2)
+public class PemFileSigningKeyProvider implements SigningKeyProvider {
+
+    @Override
+    public String getName() {
+        return "pem";
+    }
+
+    @Override
+    public boolean supports(CAConfiguration ca) {
+        return ca.caKeyPath != null
+                && !ca.caKeyPath.startsWith(Pkcs11SigningKeyProvider.PREFIX)
+                && Files.exists(Path.of(ca.caKeyPath));
+    }
+
+    @Override
+    public KeyMaterial load(CAConfiguration ca) throws Exception {
+        PrivateKey key;
+        try (PEMParser p = new PEMParser(Files.newBufferedReader(Path.of(ca.caKeyPath)))) {
+            key = toPrivateKey(p.readObject());
+        }
+        return new KeyMaterial(key, BouncyCastleProvider.PROVIDER_NAME, KeyProfile.signatureAlgorithmFor(key));
+    }
+
+    /**
+     * Convertit un objet PEM (clé traditionnelle RSA/EC ou PKCS#8, ex. Ed25519) en PrivateKey
+     */
+    static PrivateKey toPrivateKey(Object keyObj) throws Exception {
+        JcaPEMKeyConverter converter = new JcaPEMKeyConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (keyObj instanceof PEMKeyPair pemKeyPair) {
+            return converter.getPrivateKey(pemKeyPair.getPrivateKeyInfo());
+        }
+        if (keyObj instanceof PrivateKeyInfo privateKeyInfo) {
+            return converter.getPrivateKey(privateKeyInfo);
+        }
+        throw new IllegalArgumentException("Format de clé privée PEM non supporté: "
+                + (keyObj == null ? "vide" : keyObj.getClass().getSimpleName()));
+    }
+}
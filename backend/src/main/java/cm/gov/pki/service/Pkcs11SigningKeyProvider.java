@@ -0,0 +1,127 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import cm.gov.pki.util.PemCodec;
+import jakarta.annotation.PostConstruct;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Clé d'AC sur un jeton PKCS#11 (HSM ou SoftHSM) via le provider SunPKCS11.
+ *
+ * La clé est désignée par caKeyPath = "pkcs11:&lt;alias&gt;". Le jeton est ouvert et
+ * authentifié une seule fois (pki.pkcs11.config / pki.pkcs11.pin) ; SunPKCS11 réutilise
+ * ensuite ses sessions, et le nombre de signatures simultanées est borné par
+ * pki.pkcs11.max-sessions.
+ */
+@Component
+@Order(1)
+public class Pkcs11SigningKeyProvider implements SigningKeyProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(Pkcs11SigningKeyProvider.class);
+
+    public static final String PREFIX = "pkcs11:";
+
+    /** Fichier de configuration SunPKCS11 (name, library, slot...) */
+    @Value("${pki.pkcs11.config:}")
+    private String configPath = "";
+
+    @Value("${pki.pkcs11.pin:}")
+    private String pin = "";
+
+    @Value("${pki.pkcs11.max-sessions:4}")
+    private int maxSessions = 4;
+
+    private volatile Provider provider;
+    private volatile KeyStore keyStore;
+    private Semaphore sessions = new Semaphore(4, true);
+
+    @PostConstruct
+    public void init() {
+        sessions = new Semaphore(Math.max(1, maxSessions), true);
+    }
+
+    @Override
+    public String getName() {
+        return "pkcs11";
+    }
+
+    @Override
+    public boolean supports(CAConfiguration ca) {
+        return ca.caKeyPath != null && ca.caKeyPath.startsWith(PREFIX);
+    }
+
+    @Override
+    public KeyMaterial load(CAConfiguration ca) throws Exception {
+        KeyStore ks = token();
+        String alias = ca.caKeyPath.substring(PREFIX.length());
+        Key key = ks.getKey(alias, null);
+        if (!(key instanceof PrivateKey privateKey)) {
+            throw new IllegalStateException("Aucune clé privée '" + alias + "' sur le jeton PKCS#11");
+        }
+        // Les clés du jeton ne sont pas exportables : l'algorithme est déduit de la clé publique
+        Certificate tokenCert = ks.getCertificate(alias);
+        PublicKey publicKey = tokenCert != null ? tokenCert.getPublicKey() : readCertificate(ca).getPublicKey();
+        return new KeyMaterial(privateKey, provider.getName(), KeyProfile.signatureAlgorithmFor(publicKey));
+    }
+
+    @Override
+    public Semaphore sessionLimit() {
+        return sessions;
+    }
+
+    public boolean isConfigured() {
+        return configPath != null && !configPath.isBlank();
+    }
+
+    /**
+     * Importe une clé d'AC sur le jeton (objet persistant) et retourne la référence caKeyPath
+     */
+    public String store(String alias, PrivateKey privateKey, X509Certificate certificate) throws Exception {
+        KeyStore ks = token();
+        synchronized (ks) {
+            ks.setKeyEntry(alias, privateKey, null, new Certificate[]{certificate});
+        }
+        log.info("Clé d'AC importée sur le jeton PKCS#11 (alias {})", alias);
+        return PREFIX + alias;
+    }
+
+    private KeyStore token() throws Exception {
+        KeyStore ks = keyStore;
+        if (ks != null) return ks;
+        synchronized (this) {
+            if (keyStore == null) {
+                if (!isConfigured()) {
+                    throw new IllegalStateException("PKCS#11 non configuré (pki.pkcs11.config)");
+                }
+                Provider p = Security.getProvider("SunPKCS11").configure(configPath);
+                Security.addProvider(p);
+                KeyStore loaded = KeyStore.getInstance("PKCS11", p);
+                loaded.load(null, pin.toCharArray());
+                provider = p;
+                keyStore = loaded;
+                log.info("Jeton PKCS#11 ouvert : {} ({} sessions de signature max)", p.getName(), maxSessions);
+            }
+            return keyStore;
+        }
+    }
+
+    private static X509Certificate readCertificate(CAConfiguration ca) throws Exception {
+        return new JcaX509CertificateConverter().getCertificate(PemCodec.readCertificate(Path.of(ca.caCertPath)));
+    }
+}
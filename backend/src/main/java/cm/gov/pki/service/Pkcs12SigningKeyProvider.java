@@ -0,0 +1,61 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+
+/**
+ * Clé d'AC protégée dans un keystore PKCS#12 (caStore/&lt;nom&gt;.p12, alias 'ca-key')
+ */
+@Component
+@Order(3)
+public class Pkcs12SigningKeyProvider implements SigningKeyProvider {
+
+    static final String KEY_ALIAS = "ca-key";
+
+    private final KeystorePasswordService keystorePasswordService;
+
+    @Value("${pki.ca.store:ca-store}")
+    private String caStore = "ca-store";
+
+    public Pkcs12SigningKeyProvider(KeystorePasswordService keystorePasswordService) {
+        this.keystorePasswordService = keystorePasswordService;
+    }
+
+    @Override
+    public String getName() {
+        return "pkcs12";
+    }
+
+    @Override
+    public boolean supports(CAConfiguration ca) {
+        return Files.exists(keystorePath(ca));
+    }
+
+    @Override
+    public KeyMaterial load(CAConfiguration ca) throws Exception {
+        char[] password = keystorePasswordService.getPassword(ca);
+        KeyStore ks = KeyStore.getInstance("PKCS12");
+        try (InputStream is = Files.newInputStream(keystorePath(ca))) {
+            ks.load(is, password);
+        }
+        Key key = ks.getKey(KEY_ALIAS, password);
+        if (!(key instanceof PrivateKey privateKey)) {
+            throw new IllegalStateException("Aucune clé '" + KEY_ALIAS + "' dans le keystore de l'AC " + ca.caName);
+        }
+        return new KeyMaterial(privateKey, BouncyCastleProvider.PROVIDER_NAME, KeyProfile.signatureAlgorithmFor(privateKey));
+    }
+
+    private Path keystorePath(CAConfiguration ca) {
+        return Path.of(caStore, ca.caName.replaceAll("\\s+", "_").toLowerCase() + ".p12");
+    }
+}
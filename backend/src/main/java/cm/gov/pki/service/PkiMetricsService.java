@@ -0,0 +1,77 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.event.CertificateRequestStatusChangedEvent;
+import cm.gov.pki.event.CertificateStatusChangedEvent;
+import cm.gov.pki.event.CertificatesIssuedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Compteurs et jauges de la chaîne PKI (exportés par /actuator/metrics et /actuator/prometheus).
+ *
+ * Les compteurs suivent les événements de domaine après commit : une émission annulée n'est pas
+ * comptée. Les jauges lisent l'état courant des files (réserve de clés, moteur de signature,
+ * demandes en attente). Les temps sont mesurés dans les services eux-mêmes (pki.*.duration,
+ * pki.signing.*, pki.crl.generation, pki.email.send, pki.audit.write, pki.password.bcrypt,
+ * pki.documents.upload).
+ */
+@Service
+public class PkiMetricsService {
+
+    private final Counter issued;
+    private final Counter revoked;
+    private final Counter submitted;
+    private final Counter rejected;
+
+    public PkiMetricsService(MeterRegistry meterRegistry,
+                             DashboardCounterService dashboardCounters,
+                             KeyPairPool keyPairPool,
+                             SigningEngine signingEngine,
+                             DashboardStreamService dashboardStream) {
+        this.issued = meterRegistry.counter("pki.certificates.issued");
+        this.revoked = meterRegistry.counter("pki.certificates.revoked");
+        this.submitted = meterRegistry.counter("pki.certificate.requests.submitted");
+        this.rejected = meterRegistry.counter("pki.certificate.requests.rejected");
+
+        Gauge.builder("pki.certificate.requests.pending", dashboardCounters, c -> c.requests("PENDING"))
+                .description("Demandes en attente de validation")
+                .register(meterRegistry);
+        for (KeyProfile profile : keyPairPool.profiles()) {
+            Gauge.builder("pki.keypool.available", keyPairPool, pool -> pool.available(profile))
+                    .tag("profile", profile.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("pki.signing.queued", signingEngine, SigningEngine::queuedTasks)
+                .description("Tranches de signature en attente d'un worker")
+                .register(meterRegistry);
+        Gauge.builder("pki.dashboard.stream.subscribers", dashboardStream, DashboardStreamService::subscriberCount)
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCertificatesIssued(CertificatesIssuedEvent event) {
+        issued.increment(event.certificates().size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCertificateStatusChanged(CertificateStatusChangedEvent event) {
+        if (event.newStatus() == Certificate.CertificateStatus.REVOKED
+                && event.previousStatus() != Certificate.CertificateStatus.REVOKED) {
+            revoked.increment();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestStatusChanged(CertificateRequestStatusChangedEvent event) {
+        if (event.previousStatus() == null) {
+            submitted.increment();
+        } else if ("REJECTED".equalsIgnoreCase(event.newStatus())) {
+            rejected.increment();
+        }
+    }
+}
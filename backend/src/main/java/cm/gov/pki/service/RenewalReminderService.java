@@ -0,0 +1,143 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.entity.User;
+import cm.gov.pki.repository.CertificateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rappels de renouvellement avant expiration.
+ *
+ * Chaque jour, pour chaque fenêtre (pki.renewal.windows-days, ex. 30,7,1), les certificats actifs
+ * expirant dans cette fenêtre (et après la fenêtre suivante) sont parcourus par pages sur
+ * l'index (not_after, id). Le rappel est réservé en base avant l'envoi : un certificat ne reçoit
+ * qu'un rappel par fenêtre, même si le job tourne sur plusieurs nœuds ou est relancé. Si l'envoi
+ * échoue, la réservation est libérée et le passage suivant retente le rappel.
+ */
+@Service
+public class RenewalReminderService {
+
+    private static final Logger log = LoggerFactory.getLogger(RenewalReminderService.class);
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final CertificateRepository certificateRepository;
+    private final EmailService emailService;
+    private final ClusterLockService clusterLockService;
+
+    @Value("${pki.renewal.windows-days:30,7,1}")
+    private int[] windowsDays = {30, 7, 1};
+
+    /** Taille d'une page (et d'un lot d'emails) */
+    @Value("${pki.renewal.batch-size:200}")
+    private int batchSize = 200;
+
+    /** Pause entre deux lots pour lisser la charge SMTP */
+    @Value("${pki.renewal.batch-pause-ms:0}")
+    private long batchPauseMs = 0;
+
+    public RenewalReminderService(CertificateRepository certificateRepository, EmailService emailService,
+                                  ClusterLockService clusterLockService) {
+        this.certificateRepository = certificateRepository;
+        this.emailService = emailService;
+        this.clusterLockService = clusterLockService;
+    }
+
+    @Scheduled(cron = "${pki.renewal.cron:0 30 6 * * *}")
+    public void scheduledReminders() {
+        try {
+            clusterLockService.runExclusive("renewal-reminders", Duration.ofMinutes(10), this::sendReminders);
+        } catch (Exception e) {
+            log.error("Échec de l'envoi des rappels de renouvellement", e);
+        }
+    }
+
+    /**
+     * Envoie les rappels dus pour toutes les fenêtres ; retourne le nombre d'emails envoyés
+     */
+    public int sendReminders() {
+        LocalDateTime now = LocalDateTime.now();
+        int[] windows = Arrays.stream(windowsDays).filter(d -> d > 0).boxed()
+                .sorted((a, b) -> b - a).distinct().mapToInt(Integer::intValue).toArray();
+        int total = 0;
+        for (int i = 0; i < windows.length; i++) {
+            int lower = i + 1 < windows.length ? windows[i + 1] : 0;
+            total += remindWindow(windows[i], now.plusDays(lower), now.plusDays(windows[i]), now);
+        }
+        if (total > 0) {
+            log.info("{} rappel(s) de renouvellement envoyé(s)", total);
+        }
+        return total;
+    }
+
+    private int remindWindow(int windowDays, LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        LocalDateTime afterNotAfter = from;
+        UUID afterId = MIN_UUID;
+        int sent = 0;
+        int failed = 0;
+        while (true) {
+            List<Certificate> page = certificateRepository.findExpiringPage(Certificate.CertificateStatus.ACTIVE,
+                    to, afterNotAfter, afterId, PageRequest.of(0, batchSize));
+            if (page.isEmpty()) break;
+            Certificate last = page.get(page.size() - 1);
+            afterNotAfter = last.getNotAfter();
+            afterId = last.getId();
+
+            List<UUID> ids = page.stream().map(Certificate::getId).toList();
+            Set<UUID> reserved = new HashSet<>(certificateRepository.reserveRenewalReminders(ids, windowDays));
+            for (Certificate cert : page) {
+                if (!reserved.contains(cert.getId())) continue;
+                User user = cert.getUser();
+                long daysLeft = Math.max(0, Duration.between(now, cert.getNotAfter()).toDays());
+                boolean delivered;
+                try {
+                    delivered = emailService.sendRenewalReminderEmail(user.getEmail(), displayName(user),
+                            cert.getSerialNumber(), cert.getNotAfter(), daysLeft);
+                } catch (RuntimeException e) {
+                    log.warn("Rappel de renouvellement non envoyé pour {}: {}", cert.getSerialNumber(), e.getMessage());
+                    delivered = false;
+                }
+                if (delivered) {
+                    sent++;
+                } else {
+                    certificateRepository.releaseRenewalReminder(cert.getId(), windowDays);
+                    failed++;
+                }
+            }
+
+            if (page.size() < batchSize) break;
+            pause();
+        }
+        if (failed > 0) {
+            log.warn("{} rappel(s) de la fenêtre {} j non envoyé(s), à retenter au prochain passage", failed, windowDays);
+        }
+        return sent;
+    }
+
+    private void pause() {
+        if (batchPauseMs <= 0) return;
+        try {
+            Thread.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String displayName(User user) {
+        String name = ((user.getFirstName() != null ? user.getFirstName() : "") + " "
+                + (user.getLastName() != null ? user.getLastName() : "")).trim();
+        return name.isEmpty() ? user.getEmail() : name;
+    }
+}
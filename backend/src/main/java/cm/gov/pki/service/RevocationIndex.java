@@ -0,0 +1,167 @@
+package cm.gov.pki.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ensemble des numéros de série révoqués, hors tas.
+ *
+ * Table de hachage à adressage ouvert (sondage linéaire) de longs dans un ByteBuffer direct :
+ * 8 octets par case, facteur de charge au plus 1/2, aucun objet par entrée. Une recherche lit en
+ * moyenne une ou deux cases, sans verrou ni allocation. Les numéros qui ne tiennent pas sur 63 bits
+ * (séries héritées) ou nuls vont dans un petit ensemble sur le tas.
+ *
+ * Insertion seule (une révocation est définitive) : les ajouts sont sérialisés, les lectures
+ * concurrentes voient chaque case écrite de façon atomique (accès acquire/release).
+ */
+public class RevocationIndex {
+
+    private static final VarHandle SLOT = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 1 << 10;
+    // 2^27 cases : 1 Gio, la taille de tampon (capacity * 8 + 8) et les décalages (i << 3) restent des int positifs
+    static final int MAX_CAPACITY = 1 << 27;
+
+    private final Set<BigInteger> wide = ConcurrentHashMap.newKeySet();
+    private volatile Table table;
+
+    private static final class Table {
+        final ByteBuffer slots;
+        final int mask;
+        volatile int count;
+
+        Table(int capacity) {
+            // alignedSlice : accès atomiques de 8 octets garantis
+            this.slots = ByteBuffer.allocateDirect(bufferBytes(capacity)).alignedSlice(Long.BYTES);
+            this.mask = capacity - 1;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+
+    public RevocationIndex() {
+        this(0);
+    }
+
+    /**
+     * @param expected nombre d'entrées attendu (dimensionne la table pour éviter les agrandissements)
+     */
+    public RevocationIndex(int expected) {
+        this.table = new Table(capacityFor(expected));
+    }
+
+    public boolean contains(BigInteger serial) {
+        return fitsInTable(serial) ? contains(serial.longValue()) : wide.contains(serial);
+    }
+
+    public boolean contains(long serial) {
+        if (serial <= 0) {
+            return wide.contains(BigInteger.valueOf(serial));
+        }
+        Table t = table;
+        int i = slot(serial, t.mask);
+        while (true) {
+            long value = (long) SLOT.getAcquire(t.slots, i << 3);
+            if (value == serial) return true;
+            if (value == EMPTY) return false;
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    /**
+     * Ajoute un numéro de série ; retourne false s'il était déjà présent
+     */
+    public boolean add(BigInteger serial) {
+        return fitsInTable(serial) ? add(serial.longValue()) : wide.add(serial);
+    }
+
+    public synchronized boolean add(long serial) {
+        if (serial <= 0) {
+            return wide.add(BigInteger.valueOf(serial));
+        }
+        Table t = table;
+        if ((t.count + 1) * 2L > t.capacity()) {
+            t = grow(t);
+        }
+        if (!insert(t, serial)) {
+            return false;
+        }
+        t.count++;
+        return true;
+    }
+
+    public int size() {
+        return table.count + wide.size();
+    }
+
+    /**
+     * Mémoire hors tas occupée par la table
+     */
+    public long offHeapBytes() {
+        return (long) table.capacity() * Long.BYTES;
+    }
+
+    // Double la table et la publie une fois remplie : les lecteurs gardent l'ancienne, complète, jusque-là
+    private Table grow(Table current) {
+        if (current.capacity() >= MAX_CAPACITY) {
+            throw new IllegalStateException("Index de révocation plein (" + current.count + " entrées)");
+        }
+        Table bigger = new Table(current.capacity() * 2);
+        for (int i = 0; i < current.capacity(); i++) {
+            long value = (long) SLOT.getAcquire(current.slots, i << 3);
+            if (value != EMPTY) {
+                insert(bigger, value);
+            }
+        }
+        bigger.count = current.count;
+        table = bigger;
+        return bigger;
+    }
+
+    private static boolean insert(Table t, long serial) {
+        int i = slot(serial, t.mask);
+        while (true) {
+            long value = (long) SLOT.getAcquire(t.slots, i << 3);
+            if (value == serial) return false;
+            if (value == EMPTY) {
+                SLOT.setRelease(t.slots, i << 3, serial);
+                return true;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    // Les séries émises sont aléatoires, mais les séries séquentielles héritées doivent aussi se répartir
+    private static int slot(long serial, int mask) {
+        long h = serial * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static boolean fitsInTable(BigInteger serial) {
+        return serial.signum() > 0 && serial.bitLength() < Long.SIZE;
+    }
+
+    // Taille du tampon direct (marge d'alignement comprise), calculée en long
+    static int bufferBytes(int capacity) {
+        long bytes = (long) capacity * Long.BYTES + Long.BYTES;
+        if (capacity <= 0 || capacity > MAX_CAPACITY || bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacité d'index de révocation invalide : " + capacity);
+        }
+        return (int) bytes;
+    }
+
+    static int capacityFor(int expected) {
+        long needed = Math.max(MIN_CAPACITY, (long) expected * 2);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Trop d'entrées pour l'index de révocation : " + expected);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+}
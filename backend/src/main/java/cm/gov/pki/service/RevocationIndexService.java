@@ -0,0 +1,177 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.event.CertificateStatusChangedEvent;
+import cm.gov.pki.repository.CertificateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Statut de révocation par numéro de série, servi depuis un {@link RevocationIndex} hors tas.
+ *
+ * L'index est reconstruit depuis la base au démarrage puis périodiquement (certificats supprimés),
+ * alimenté après commit par chaque révocation de ce nœud, et rattrapé toutes les
+ * pki.revocation-index.sync-ms par les révocations récentes (faites sur un autre nœud).
+ * Tant que la première reconstruction n'est pas terminée, les questions vont à la base.
+ */
+@Service
+public class RevocationIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationIndexService.class);
+
+    private final CertificateRepository certificateRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /** Recouvrement de la relecture incrémentale : couvre les transactions longues et le décalage d'horloge */
+    @Value("${pki.revocation-index.sync-overlap-ms:300000}")
+    private long syncOverlapMs = 300_000;
+
+    private volatile RevocationIndex index = new RevocationIndex();
+    private volatile RevocationIndex building;
+    private volatile boolean ready;
+    private volatile LocalDateTime syncedAt;
+
+    public RevocationIndexService(CertificateRepository certificateRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.certificateRepository = certificateRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        Gauge.builder("pki.revocation.index.size", this, s -> s.index.size())
+                .register(meterRegistry);
+        Gauge.builder("pki.revocation.index.offheap", this, s -> s.index.offHeapBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /**
+     * Le certificat de ce numéro de série (décimal) est-il révoqué ?
+     */
+    public boolean isRevoked(String serialNumber) {
+        BigInteger serial = parse(serialNumber);
+        if (!ready || serial == null) {
+            return certificateRepository.findBySerialNumber(serialNumber)
+                    .map(c -> c.getStatus() == Certificate.CertificateStatus.REVOKED)
+                    .orElse(false);
+        }
+        return index.contains(serial);
+    }
+
+    public boolean isRevoked(BigInteger serial) {
+        return ready ? index.contains(serial) : isRevoked(serial.toString());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCertificateStatusChanged(CertificateStatusChangedEvent event) {
+        if (event.newStatus() != Certificate.CertificateStatus.REVOKED) return;
+        certificateRepository.findSerialNumberById(event.certificateId()).ifPresent(this::add);
+    }
+
+    /**
+     * Relit les révocations récentes ; idempotent, les séries déjà présentes sont ignorées
+     */
+    @Scheduled(fixedDelayString = "${pki.revocation-index.sync-ms:10000}", initialDelayString = "${pki.revocation-index.sync-ms:10000}")
+    public void sync() {
+        LocalDateTime since = syncedAt;
+        if (!ready || since == null) return;
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int added = 0;
+            for (String serialNumber : certificateRepository.findSerialNumbersRevokedSince(
+                    Certificate.CertificateStatus.REVOKED, since.minus(Duration.ofMillis(syncOverlapMs)))) {
+                if (add(serialNumber)) added++;
+            }
+            syncedAt = now;
+            if (added > 0) {
+                log.info("Index de révocation : {} révocation(s) d'autres nœuds ajoutée(s)", added);
+            }
+        } catch (Exception e) {
+            log.warn("Échec de la synchronisation de l'index de révocation : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruit l'index depuis la base et le substitue à l'index courant
+     */
+    @Scheduled(fixedDelayString = "${pki.revocation-index.rebuild-interval-ms:21600000}",
+               initialDelayString = "${pki.revocation-index.rebuild-interval-ms:21600000}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        // Les révocations validées pendant la lecture sont ajoutées aux deux index
+        RevocationIndex fresh = new RevocationIndex(index.size());
+        building = fresh;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> serials = certificateRepository.streamSerialNumbersByStatus(Certificate.CertificateStatus.REVOKED)) {
+                    serials.forEach(serialNumber -> {
+                        BigInteger serial = parse(serialNumber);
+                        if (serial != null) fresh.add(serial);
+                    });
+                }
+            });
+            index = fresh;
+            if (syncedAt == null) {
+                syncedAt = now;
+            }
+            ready = true;
+            log.info("Index de révocation reconstruit : {} série(s), {} Ko hors tas en {} ms",
+                    fresh.size(), fresh.offHeapBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Échec de la reconstruction de l'index de révocation", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    private boolean add(String serialNumber) {
+        BigInteger serial = parse(serialNumber);
+        if (serial == null) return false;
+        // building lu avant index : une reconstruction qui démarre après cette lecture voit déjà la révocation en base
+        RevocationIndex pending = building;
+        boolean added = index.add(serial);
+        if (pending != null) {
+            pending.add(serial);
+        }
+        return added;
+    }
+
+    private static BigInteger parse(String serialNumber) {
+        if (serialNumber == null) return null;
+        try {
+            return new BigInteger(serialNumber.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Numéro de série non décimal ignoré par l'index de révocation : {}", serialNumber);
+            return null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package cm.gov.pki.service;
 
 import cm.gov.pki.util.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -44,11 +45,23 @@ public class SecurityConfig {
                                 "/api/auth/**",
                                 "/actuator/health",
                                 "/actuator/info",
+                                "/crl/**",
+                                "/api/crl/**",
+                                "/transparency/**",
+                                "/api/transparency/**",
+                                "/certificates/status:batch",
+                                "/api/certificates/status:batch",
+                                "/certificates/status:key",
+                                "/api/certificates/status:key",
                                 "/swagger-ui.html",
                                 "/swagger-ui/**",
                                 "/api-docs/**"
                         ).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // Métriques internes (volumes, files d'attente) : administrateurs uniquement
+                        .requestMatchers("/actuator/prometheus", "/actuator/metrics/**").hasRole("ADMIN")
+                        // Redispatch de fin des flux SSE : la requête initiale a déjà été authentifiée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(new JwtAuthenticationFilter(authService), UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,179 @@
+package cm.gov.pki.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bouncycastle.cert.X509CRLHolder;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.PrivateKey;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Signature parallèle de lots de certificats (TBS préparés) ou de partitions de CRL avec la clé d'une AC.
+ *
+ * Le lot est découpé en tranches, une par worker ; chaque tranche utilise son propre
+ * ContentSigner (donc sa propre instance Signature), sans synchronisation sur le provider.
+ * Exécuteur : ForkJoinPool dédié (pki.signing.executor=forkjoin) ou threads virtuels (virtual).
+ */
+@Component
+public class SigningEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningEngine.class);
+
+    @Value("${pki.signing.executor:forkjoin}")
+    private String executorType = "forkjoin";
+
+    /** Nombre de workers (0 = nombre de cœurs) */
+    @Value("${pki.signing.parallelism:0}")
+    private int parallelism = 0;
+
+    /** En dessous de cette taille de tranche, le découpage coûte plus qu'il ne rapporte */
+    @Value("${pki.signing.min-chunk:4}")
+    private int minChunk = 4;
+
+    private volatile ExecutorService executor;
+
+    public SigningEngine() {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        int workers = workers();
+        if ("virtual".equalsIgnoreCase(executorType)) {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            executor = new ForkJoinPool(workers);
+        }
+        log.info("Moteur de signature démarré : {} ({} workers)", executorType, workers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ExecutorService current = executor;
+        executor = null;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /**
+     * Signe un seul certificat dans le thread appelant
+     */
+    public X509CertificateHolder sign(X509v3CertificateBuilder builder, PrivateKey signingKey) {
+        return builder.build(newSigner(signingKey));
+    }
+
+    public X509CertificateHolder sign(X509v3CertificateBuilder builder, SigningKeyHandle signingKey) {
+        return builder.build(signingKey.newContentSigner());
+    }
+
+    /**
+     * Signe un lot de certificats ; les résultats sont dans l'ordre des builders
+     */
+    public List<X509CertificateHolder> signAll(List<? extends X509v3CertificateBuilder> builders, PrivateKey signingKey) {
+        return signAll(builders, X509v3CertificateBuilder::build, () -> newSigner(signingKey), Integer.MAX_VALUE, minChunk);
+    }
+
+    /**
+     * Signe un lot avec une clé du registre ; une clé sur jeton PKCS#11 limite le parallélisme
+     */
+    public List<X509CertificateHolder> signAll(List<? extends X509v3CertificateBuilder> builders, SigningKeyHandle signingKey) {
+        return signAll(builders, X509v3CertificateBuilder::build, signingKey::newContentSigner,
+                signingKey.getMaxParallelism(), minChunk);
+    }
+
+    /**
+     * Signe des partitions de CRL indépendantes ; chaque CRL est assez grosse pour justifier son propre worker
+     */
+    public List<X509CRLHolder> signCrls(List<? extends X509v2CRLBuilder> builders, SigningKeyHandle signingKey) {
+        return signAll(builders, X509v2CRLBuilder::build, signingKey::newContentSigner,
+                signingKey.getMaxParallelism(), 1);
+    }
+
+    private <B, R> List<R> signAll(List<? extends B> builders, BiFunction<B, ContentSigner, R> build,
+                                   Supplier<ContentSigner> signers, int maxParallelism, int minChunkSize) {
+        int size = builders.size();
+        ExecutorService current = executor;
+        int chunks = Math.min(Math.min(workers(), maxParallelism), Math.max(1, size / Math.max(1, minChunkSize)));
+        @SuppressWarnings("unchecked")
+        R[] results = (R[]) new Object[size];
+        if (current == null || chunks <= 1) {
+            signChunk(builders, 0, size, build, signers, results);
+            return Arrays.asList(results);
+        }
+
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        int chunkSize = (size + chunks - 1) / chunks;
+        for (int from = 0; from < size; from += chunkSize) {
+            int start = from;
+            int end = Math.min(size, from + chunkSize);
+            futures.add(current.submit(() -> signChunk(builders, start, end, build, signers, results)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new RuntimeException("Signature du lot interrompue", e);
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException re ? re
+                        : new RuntimeException("Échec signature du lot: " + cause.getMessage(), cause);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    public int workers() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Tranches en attente d'un worker (toujours 0 avec les threads virtuels)
+     */
+    public long queuedTasks() {
+        return executor instanceof ForkJoinPool pool ? pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount() : 0;
+    }
+
+    private static <B, R> void signChunk(List<? extends B> builders, int from, int to, BiFunction<B, ContentSigner, R> build,
+                                         Supplier<ContentSigner> signers, R[] results) {
+        ContentSigner signer = signers.get();
+        for (int i = from; i < to; i++) {
+            results[i] = build.apply(builders.get(i), signer);
+        }
+    }
+
+    private static ContentSigner newSigner(PrivateKey signingKey) {
+        try {
+            return new JcaContentSignerBuilder(KeyProfile.signatureAlgorithmFor(signingKey))
+                    .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                    .build(signingKey);
+        } catch (Exception e) {
+            throw new RuntimeException("Impossible de créer le signataire: " + e.getMessage(), e);
+        }
+    }
+}
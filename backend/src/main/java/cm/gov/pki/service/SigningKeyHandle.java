@@ -0,0 +1,72 @@
+package cm.gov.pki.service;
+
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import java.security.PrivateKey;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Accès à la clé de signature d'une AC pour la durée d'une opération.
+ * Libère la session réservée auprès du fournisseur à la fermeture.
+ */
+public final class SigningKeyHandle implements AutoCloseable {
+
+    private final SigningKeyProvider.KeyMaterial material;
+    private final String providerName;
+    private final Semaphore permit;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    SigningKeyHandle(SigningKeyProvider.KeyMaterial material, String providerName, Semaphore permit) {
+        this.material = material;
+        this.providerName = providerName;
+        this.permit = permit;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return material.privateKey();
+    }
+
+    /** Fournisseur SPI ayant chargé la clé (pem, pkcs12, pkcs11) */
+    public String getProviderName() {
+        return providerName;
+    }
+
+    /** Provider JCA à utiliser pour signer avec cette clé */
+    public String getJcaProvider() {
+        return material.jcaProvider();
+    }
+
+    public String getSignatureAlgorithm() {
+        return material.signatureAlgorithm();
+    }
+
+    /**
+     * Nombre de signataires parallèles utilisables avec ce handle :
+     * une clé sur jeton n'utilise qu'une session par handle.
+     */
+    public int getMaxParallelism() {
+        return permit == null ? Integer.MAX_VALUE : 1;
+    }
+
+    /**
+     * Nouveau ContentSigner (non partageable entre threads)
+     */
+    public ContentSigner newContentSigner() {
+        try {
+            return new JcaContentSignerBuilder(material.signatureAlgorithm())
+                    .setProvider(material.jcaProvider())
+                    .build(material.privateKey());
+        } catch (Exception e) {
+            throw new RuntimeException("Impossible de créer le signataire: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (permit != null && closed.compareAndSet(false, true)) {
+            permit.release();
+        }
+    }
+}
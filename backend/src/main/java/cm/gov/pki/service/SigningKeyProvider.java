@@ -0,0 +1,47 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+
+import java.security.PrivateKey;
+import java.util.concurrent.Semaphore;
+
+/**
+ * SPI de stockage des clés de signature des AC.
+ *
+ * Implémentations (consultées dans l'ordre de {@link org.springframework.core.annotation.Order}) :
+ * - {@link Pkcs11SigningKeyProvider} : jeton PKCS#11 (HSM, SoftHSM), caKeyPath = "pkcs11:&lt;alias&gt;"
+ * - {@link PemFileSigningKeyProvider} : fichier PEM désigné par caKeyPath
+ * - {@link Pkcs12SigningKeyProvider} : keystore PKCS#12 créé par CAService.createKeystore
+ *
+ * Les clés chargées sont mises en cache par {@link SigningKeyService} ; un fournisseur
+ * peut borner le nombre de signatures simultanées (sessions d'un jeton).
+ */
+public interface SigningKeyProvider {
+
+    /**
+     * Clé chargée : clé privée, provider JCA capable de l'utiliser et algorithme de signature
+     */
+    record KeyMaterial(PrivateKey privateKey, String jcaProvider, String signatureAlgorithm) {}
+
+    /**
+     * Nom du fournisseur (journalisation / diagnostic)
+     */
+    String getName();
+
+    /**
+     * Indique si ce fournisseur détient la clé de l'AC
+     */
+    boolean supports(CAConfiguration ca);
+
+    /**
+     * Charge la clé de l'AC (appelé une seule fois par AC, le résultat est mis en cache)
+     */
+    KeyMaterial load(CAConfiguration ca) throws Exception;
+
+    /**
+     * Limite de signatures simultanées, ou null si non bornée
+     */
+    default Semaphore sessionLimit() {
+        return null;
+    }
+}
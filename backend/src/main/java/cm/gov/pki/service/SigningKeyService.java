@@ -0,0 +1,110 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registre des fournisseurs de clés de signature.
+ *
+ * La clé de chaque AC est chargée une seule fois par le premier fournisseur qui la détient,
+ * puis servie depuis le cache. {@link #acquire(CAConfiguration)} réserve une session
+ * si le fournisseur en limite le nombre ; le handle doit être fermé après usage.
+ * Métriques : pki.signing.key.load{provider,outcome} (chargements hors cache) et
+ * pki.signing.session.wait{provider} (attente d'une session).
+ */
+@Service
+public class SigningKeyService {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyService.class);
+
+    private final List<SigningKeyProvider> providers;
+    private final MeterRegistry meterRegistry;
+    private final Map<UUID, Entry> cache = new ConcurrentHashMap<>();
+
+    @Value("${pki.signing.session-timeout-ms:10000}")
+    private long sessionTimeoutMs = 10_000;
+
+    private record Entry(SigningKeyProvider provider, SigningKeyProvider.KeyMaterial material) {}
+
+    public SigningKeyService(List<SigningKeyProvider> providers, MeterRegistry meterRegistry) {
+        this.providers = providers;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Réserve la clé de signature de l'AC (à fermer après usage)
+     */
+    public SigningKeyHandle acquire(CAConfiguration ca) {
+        Entry entry = ca.id != null ? cache.computeIfAbsent(ca.id, id -> load(ca)) : load(ca);
+        Semaphore limit = entry.provider().sessionLimit();
+        if (limit != null) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                if (!limit.tryAcquire(sessionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new RuntimeException("Aucune session de signature disponible (" + entry.provider().getName() + ")");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Attente de session de signature interrompue", e);
+            } finally {
+                sample.stop(meterRegistry.timer("pki.signing.session.wait", "provider", entry.provider().getName()));
+            }
+        }
+        return new SigningKeyHandle(entry.material(), entry.provider().getName(), limit);
+    }
+
+    /**
+     * Oublie la clé en cache (changement de stockage : keystore, import sur jeton)
+     */
+    public void invalidate(UUID caId) {
+        cache.remove(caId);
+    }
+
+    /**
+     * Importe une clé d'AC sur le jeton PKCS#11 configuré et retourne la nouvelle référence caKeyPath
+     */
+    public String importToToken(String alias, PrivateKey privateKey, X509Certificate certificate) {
+        Pkcs11SigningKeyProvider token = providers.stream()
+                .filter(Pkcs11SigningKeyProvider.class::isInstance)
+                .map(Pkcs11SigningKeyProvider.class::cast)
+                .filter(Pkcs11SigningKeyProvider::isConfigured)
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Aucun jeton PKCS#11 configuré (pki.pkcs11.config)"));
+        try {
+            return token.store(alias, privateKey, certificate);
+        } catch (Exception e) {
+            throw new RuntimeException("Échec import de la clé sur le jeton: " + e.getMessage(), e);
+        }
+    }
+
+    private Entry load(CAConfiguration ca) {
+        for (SigningKeyProvider provider : providers) {
+            if (!provider.supports(ca)) continue;
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                SigningKeyProvider.KeyMaterial material = provider.load(ca);
+                sample.stop(meterRegistry.timer("pki.signing.key.load", "provider", provider.getName(), "outcome", "success"));
+                log.info("Clé de l'AC {} chargée via {}", ca.caName, provider.getName());
+                return new Entry(provider, material);
+            } catch (Exception e) {
+                sample.stop(meterRegistry.timer("pki.signing.key.load", "provider", provider.getName(), "outcome", "error"));
+                log.warn("Could not load private key for CA {} via {}: {}", ca.caName, provider.getName(), e.getMessage());
+            }
+        }
+        throw new RuntimeException("Clé privée de l'AC " + ca.caName + " introuvable (PEM, PKCS#12 ou PKCS#11)");
+    }
+}
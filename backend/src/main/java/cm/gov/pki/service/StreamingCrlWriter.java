@@ -0,0 +1,195 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.util.PemCodec;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.operator.ContentSigner;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Écriture d'une CRL X.509 v2 en DER sans la construire en mémoire.
+ *
+ * Les entrées (numéro de série, date de révocation) sont encodées une à une dans un fichier
+ * temporaire. {@link #finish} calcule alors les longueurs du TBSCertList, le relit en flux dans le
+ * ContentSigner puis écrit la CRL signée dans le fichier cible en calculant son SHA-256 au passage.
+ * La mémoire utilisée ne dépend pas du nombre d'entrées ; l'encodage est octet pour octet celui de
+ * X509v2CRLBuilder (entrées sans extension, comme addCRLEntry avec le motif 0).
+ *
+ * Non partageable entre threads.
+ */
+public final class StreamingCrlWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // 48 octets par ligne PEM de 64 caractères
+    private static final int PEM_CHUNK = 48 * 1024;
+
+    private final Path entriesFile;
+    private final OutputStream entries;
+    private long entriesLength;
+    private int count;
+    private boolean finished;
+
+    /**
+     * Résultat de l'écriture : nombre d'entrées, taille et empreinte SHA-256 (hex) du DER
+     */
+    public record Result(int entries, long sizeBytes, String sha256) {}
+
+    /**
+     * @param dir répertoire du fichier temporaire des entrées (celui de la CRL de préférence), ou null
+     */
+    public StreamingCrlWriter(Path dir) throws IOException {
+        this.entriesFile = dir != null
+                ? Files.createTempFile(dir, "crl-entries-", ".tmp")
+                : Files.createTempFile("crl-entries-", ".tmp");
+        this.entries = new BufferedOutputStream(Files.newOutputStream(entriesFile), BUFFER_SIZE);
+    }
+
+    public void add(BigInteger serial, Date revocationDate) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("CRL déjà terminée");
+        }
+        byte[] entry = new DERSequence(new ASN1Encodable[]{new ASN1Integer(serial), new Time(revocationDate)})
+                .getEncoded(ASN1Encoding.DER);
+        entries.write(entry);
+        entriesLength += entry.length;
+        count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Signe la CRL et l'écrit dans target (remplacé s'il existe).
+     * nextUpdate et extensions peuvent être null.
+     */
+    public Result finish(Path target, X500Name issuer, Date thisUpdate, Date nextUpdate,
+                         Extensions extensions, ContentSigner signer) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("CRL déjà terminée");
+        }
+        finished = true;
+        entries.close();
+
+        byte[] signatureAlgorithm = signer.getAlgorithmIdentifier().getEncoded(ASN1Encoding.DER);
+        // version v2, signature, issuer, thisUpdate, nextUpdate
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        head.write(new ASN1Integer(1).getEncoded(ASN1Encoding.DER));
+        head.write(signatureAlgorithm);
+        head.write(issuer.getEncoded(ASN1Encoding.DER));
+        head.write(new Time(thisUpdate).getEncoded(ASN1Encoding.DER));
+        if (nextUpdate != null) {
+            head.write(new Time(nextUpdate).getEncoded(ASN1Encoding.DER));
+        }
+        // revokedCertificates est omis quand la liste est vide
+        byte[] entriesHeader = count > 0 ? header(0x30, entriesLength) : new byte[0];
+        byte[] tail = extensions != null
+                ? new DERTaggedObject(true, 0, extensions).getEncoded(ASN1Encoding.DER)
+                : new byte[0];
+        long tbsLength = head.size() + entriesHeader.length + entriesLength + tail.length;
+        byte[] tbsHeader = header(0x30, tbsLength);
+
+        try (OutputStream signatureInput = signer.getOutputStream()) {
+            writeTbs(signatureInput, tbsHeader, head, entriesHeader, tail);
+        }
+        byte[] signature = new DERBitString(signer.getSignature()).getEncoded(ASN1Encoding.DER);
+
+        long total = tbsHeader.length + tbsLength + signatureAlgorithm.length + signature.length;
+        MessageDigest sha256 = sha256();
+        byte[] outerHeader = header(0x30, total);
+        try (OutputStream out = new DigestOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE), sha256)) {
+            out.write(outerHeader);
+            writeTbs(out, tbsHeader, head, entriesHeader, tail);
+            out.write(signatureAlgorithm);
+            out.write(signature);
+        }
+        return new Result(count, outerHeader.length + total, PemCodec.hex(sha256.digest()));
+    }
+
+    /**
+     * Écrit la forme PEM (X509 CRL) d'un fichier DER, par blocs
+     */
+    public static void writePem(Path der, Path target) throws IOException {
+        byte[] newline = {'\n'}; // comme PemCodec
+        Base64.Encoder encoder = Base64.getMimeEncoder(64, newline);
+        try (InputStream in = Files.newInputStream(der);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+            out.write("-----BEGIN X509 CRL-----".getBytes(StandardCharsets.US_ASCII));
+            out.write(newline);
+            byte[] chunk = new byte[PEM_CHUNK];
+            int read;
+            while ((read = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+                out.write(encoder.encode(read == chunk.length ? chunk : Arrays.copyOf(chunk, read)));
+                out.write(newline);
+            }
+            out.write("-----END X509 CRL-----".getBytes(StandardCharsets.US_ASCII));
+            out.write(newline);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            entries.close();
+        } finally {
+            Files.deleteIfExists(entriesFile);
+        }
+    }
+
+    private void writeTbs(OutputStream out, byte[] tbsHeader, ByteArrayOutputStream head,
+                          byte[] entriesHeader, byte[] tail) throws IOException {
+        out.write(tbsHeader);
+        head.writeTo(out);
+        out.write(entriesHeader);
+        try (InputStream in = Files.newInputStream(entriesFile)) {
+            in.transferTo(out);
+        }
+        out.write(tail);
+    }
+
+    // Identifiant et longueur DER (forme longue au-delà de 127 octets)
+    static byte[] header(int tag, long length) {
+        if (length < 0x80) {
+            return new byte[]{(byte) tag, (byte) length};
+        }
+        int bytes = (Long.SIZE - Long.numberOfLeadingZeros(length) + 7) / 8;
+        byte[] header = new byte[2 + bytes];
+        header[0] = (byte) tag;
+        header[1] = (byte) (0x80 | bytes);
+        for (int i = 0; i < bytes; i++) {
+            header[2 + i] = (byte) (length >>> (8 * (bytes - 1 - i)));
+        }
+        return header;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.TransparencyLogEntry;
+import cm.gov.pki.event.CertificatesIssuedEvent;
+import cm.gov.pki.repository.TransparencyLogRepository;
+import cm.gov.pki.util.PemCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Journal de transparence des certificats émis (arbre de Merkle append-only, hachage RFC 6962).
+ *
+ * Chaque certificat signé devient une feuille SHA-256(0x00 || DER). Les feuilles sont numérotées
+ * en base (transparency_log, tête verrouillée pendant l'ajout : pas de trou ni de doublon entre
+ * instances) ; les nœuds internes sont tenus localement dans un {@link MerkleTreeFile}, rattrapé
+ * depuis la base, ce qui donne racines et preuves en O(log n) lectures.
+ *
+ * Les têtes d'arbre (STH) sont signées par la clé propre du journal (EC P-256), distincte des clés
+ * d'AC ; sa clé publique est publiée avec le journal.
+ */
+@Service
+public class TransparencyLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransparencyLogService.class);
+
+    private final TransparencyLogRepository transparencyLogRepository;
+    private final KeyPairPool keyPairPool;
+    private final ClusterLockService clusterLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${pki.transparency.dir:${pki.ca.store:ca-store}/transparency}")
+    private String treeDir = "ca-store/transparency";
+
+    @Value("${pki.transparency.key-path:${pki.ca.store:ca-store}/transparency-log-key.pem}")
+    private String keyPath = "ca-store/transparency-log-key.pem";
+
+    /** Délai maximal avant de voir les feuilles ajoutées par une autre instance */
+    @Value("${pki.transparency.sync-ms:5000}")
+    private long syncMs = 5000;
+
+    @Value("${pki.transparency.batch-size:500}")
+    private int batchSize = 500;
+
+    private MerkleTreeFile tree;
+    private KeyPair logKey;
+    private volatile long lastSyncAt;
+    private volatile SignedTreeHead lastTreeHead;
+
+    /**
+     * Tête d'arbre signée : signature SHA256withECDSA de la structure TreeHeadSignature de RFC 6962
+     * (version 0, type tree_hash, timestamp, tree_size, root_hash)
+     */
+    public record SignedTreeHead(long treeSize, long timestamp, String sha256RootHash, String treeHeadSignature) {}
+
+    public record InclusionProof(long leafIndex, long treeSize, String leafHash, List<String> auditPath) {}
+
+    public record ConsistencyProof(long first, long second, List<String> consistency) {}
+
+    public TransparencyLogService(TransparencyLogRepository transparencyLogRepository,
+                                  KeyPairPool keyPairPool,
+                                  ClusterLockService clusterLockService,
+                                  PlatformTransactionManager transactionManager) {
+        this.transparencyLogRepository = transparencyLogRepository;
+        this.keyPairPool = keyPairPool;
+        this.clusterLockService = clusterLockService;
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+        // Transaction propre : l'ajout a lieu après le commit de l'émission
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() throws Exception {
+        tree = new MerkleTreeFile(Path.of(treeDir));
+        logKey = LocalKeyFile.loadOrCreate(Path.of(keyPath), keyPairPool, "journal de transparence");
+        verifyLocalTree();
+        sync();
+        log.info("Journal de transparence ouvert : {} feuille(s) ({})", tree.size(), treeDir);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (tree != null) {
+            tree.close();
+        }
+    }
+
+    /**
+     * Journalise les certificats émis une fois l'émission validée
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCertificatesIssued(CertificatesIssuedEvent event) {
+        try {
+            append(event.certificates());
+        } catch (Exception e) {
+            // Rattrapé par catchUp pour les certificats enregistrés
+            log.error("Échec de la journalisation de {} certificat(s) émis par l'AC {}",
+                    event.certificates().size(), event.issuerCaId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pki.transparency.catch-up-interval-ms:300000}", initialDelayString = "${pki.transparency.initial-delay-ms:30000}")
+    public void scheduledCatchUp() {
+        try {
+            clusterLockService.runExclusive("transparency-catch-up", Duration.ofMinutes(10), this::catchUp);
+        } catch (Exception e) {
+            log.error("Échec du rattrapage du journal de transparence", e);
+        }
+    }
+
+    /**
+     * Journalise les certificats enregistrés absents du journal (antérieurs au journal ou ajout échoué)
+     */
+    public int catchUp() {
+        int total = 0;
+        while (true) {
+            List<Object[]> rows = transparencyLogRepository.findUnlogged(batchSize);
+            if (rows.isEmpty()) break;
+            List<CertificatesIssuedEvent.Entry> entries = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                entries.add(new CertificatesIssuedEvent.Entry((UUID) row[0], (byte[]) row[1]));
+            }
+            int added = append(entries);
+            total += added;
+            // added == 0 : lot déjà journalisé mais non marqué, inutile de le relire
+            if (added == 0 || rows.size() < batchSize) break;
+        }
+        if (total > 0) {
+            log.info("{} certificat(s) ajouté(s) au journal de transparence par rattrapage", total);
+        }
+        return total;
+    }
+
+    /**
+     * Ajoute les certificats au journal ; retourne le nombre de feuilles ajoutées (les certificats
+     * déjà journalisés sont ignorés)
+     */
+    public int append(List<CertificatesIssuedEvent.Entry> certificates) {
+        if (certificates.isEmpty()) return 0;
+        Integer added = transactionTemplate.execute(status -> {
+            long treeSize = transparencyLogRepository.lockTreeSize();
+            Set<UUID> ids = new HashSet<>();
+            for (CertificatesIssuedEvent.Entry entry : certificates) {
+                if (entry.certificateId() != null) ids.add(entry.certificateId());
+            }
+            Set<UUID> logged = ids.isEmpty() ? Set.of() : new HashSet<>(transparencyLogRepository.findLoggedCertificateIds(ids));
+
+            List<TransparencyLogEntry> leaves = new ArrayList<>(certificates.size());
+            for (CertificatesIssuedEvent.Entry entry : certificates) {
+                if (entry.certificateId() != null && !logged.add(entry.certificateId())) continue;
+                leaves.add(new TransparencyLogEntry(treeSize + leaves.size(), entry.certificateId(),
+                        MerkleTreeFile.leafHash(entry.der())));
+            }
+            if (leaves.isEmpty()) return 0;
+            transparencyLogRepository.saveAll(leaves);
+            transparencyLogRepository.setTreeSize(treeSize + leaves.size());
+            transparencyLogRepository.markLogged(treeSize);
+            return leaves.size();
+        });
+        if (added != null && added > 0) {
+            sync();
+        }
+        return added != null ? added : 0;
+    }
+
+    /**
+     * Tête d'arbre signée courante
+     */
+    public SignedTreeHead signedTreeHead() {
+        syncIfStale();
+        long size = tree.size();
+        SignedTreeHead current = lastTreeHead;
+        if (current != null && current.treeSize() == size) {
+            return current;
+        }
+        try {
+            byte[] root = tree.rootHash(size);
+            long timestamp = System.currentTimeMillis();
+            ByteBuffer signed = ByteBuffer.allocate(2 + 8 + 8 + MerkleTreeFile.HASH_SIZE);
+            signed.put((byte) 0).put((byte) 1).putLong(timestamp).putLong(size).put(root);
+            Signature signature = Signature.getInstance("SHA256withECDSA", BouncyCastleProvider.PROVIDER_NAME);
+            signature.initSign(logKey.getPrivate());
+            signature.update(signed.array());
+            SignedTreeHead head = new SignedTreeHead(size, timestamp, base64(root), base64(signature.sign()));
+            lastTreeHead = head;
+            return head;
+        } catch (Exception e) {
+            throw new RuntimeException("Échec signature de la tête du journal: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Preuve d'inclusion du certificat dans l'arbre de taille treeSize (taille courante si null) ;
+     * vide si le certificat n'est pas journalisé ou pas encore couvert par cet arbre
+     */
+    public Optional<InclusionProof> inclusionProof(UUID certificateId, Long treeSize) {
+        Optional<TransparencyLogEntry> entry = transparencyLogRepository.findByCertificateId(certificateId);
+        if (entry.isEmpty()) return Optional.empty();
+        long index = entry.get().getLeafIndex();
+        long size = treeSize != null ? treeSize : signedTreeHead().treeSize();
+        if (index >= size) return Optional.empty();
+        ensureSize(size);
+        try {
+            return Optional.of(new InclusionProof(index, size, base64(tree.leaf(index)),
+                    tree.inclusionProof(index, size).stream().map(TransparencyLogService::base64).toList()));
+        } catch (Exception e) {
+            throw new RuntimeException("Échec calcul de la preuve d'inclusion: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Preuve de cohérence entre deux tailles d'arbre (first <= second)
+     */
+    public ConsistencyProof consistencyProof(long first, long second) {
+        ensureSize(second);
+        try {
+            return new ConsistencyProof(first, second,
+                    tree.consistencyProof(first, second).stream().map(TransparencyLogService::base64).toList());
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Échec calcul de la preuve de cohérence: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Clé publique de signature des têtes d'arbre (PEM)
+     */
+    public String publicKeyPem() {
+        return PemCodec.encode(PemCodec.PUBLIC_KEY, logKey.getPublic().getEncoded());
+    }
+
+    // Une taille demandée au-delà de l'arbre local peut avoir été atteinte sur une autre instance
+    private void ensureSize(long size) {
+        if (size > tree.size()) {
+            sync();
+        }
+        if (size > tree.size()) {
+            throw new IllegalArgumentException("Taille d'arbre " + size + " inconnue (taille courante " + tree.size() + ")");
+        }
+    }
+
+    private void syncIfStale() {
+        if (System.currentTimeMillis() - lastSyncAt >= syncMs) {
+            sync();
+        }
+    }
+
+    // Ajoute à l'arbre local les feuilles validées en base qu'il ne contient pas encore
+    private synchronized void sync() {
+        try {
+            long target = transparencyLogRepository.treeSize();
+            while (tree.size() < target) {
+                List<TransparencyLogEntry> page = transparencyLogRepository.findByLeafIndexGreaterThanEqualOrderByLeafIndex(
+                        tree.size(), PageRequest.of(0, batchSize));
+                if (page.isEmpty()) break;
+                for (TransparencyLogEntry entry : page) {
+                    if (entry.getLeafIndex() != tree.size()) {
+                        throw new IllegalStateException("Journal de transparence discontinu à l'index " + tree.size());
+                    }
+                    tree.append(entry.getLeafHash());
+                }
+            }
+            lastSyncAt = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Échec de la synchronisation du journal de transparence: " + e.getMessage(), e);
+        }
+    }
+
+    // L'arbre local doit être un préfixe du journal en base (sinon base restaurée : reconstruction)
+    private void verifyLocalTree() throws Exception {
+        long local = tree.size();
+        if (local == 0) return;
+        long committed = transparencyLogRepository.treeSize();
+        Optional<TransparencyLogEntry> last = local <= committed
+                ? transparencyLogRepository.findById(local - 1) : Optional.empty();
+        if (last.isEmpty() || !Arrays.equals(last.get().getLeafHash(), tree.leaf(local - 1))) {
+            log.warn("Arbre local du journal de transparence incohérent avec la base ({} feuilles) : reconstruction", local);
+            tree.truncate(0);
+        }
+    }
+
+    private static String base64(byte[] value) {
+        return Base64.getEncoder().encodeToString(value);
+    }
+}
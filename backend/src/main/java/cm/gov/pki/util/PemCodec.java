@@ -0,0 +1,259 @@
+package cm.gov.pki.util;
+
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Encodage PEM/DER des certificats, CSR et CRL, et empreintes hexadécimales.
+ *
+ * L'encodage écrit la base64 directement, lignes de 64 caractères comprises, dans un tableau de
+ * taille exacte ; le décodage travaille sur les octets (byte[] ou ByteBuffer) sans passer par
+ * un Reader. Format RFC 7468, fins de ligne "\n". Les clés privées restent lues et écrites par
+ * PEMParser/JcaPEMWriter (formats traditionnels et chiffrés).
+ */
+public final class PemCodec {
+
+    public static final String CERTIFICATE = "CERTIFICATE";
+    public static final String CERTIFICATE_REQUEST = "CERTIFICATE REQUEST";
+    public static final String X509_CRL = "X509 CRL";
+    public static final String PUBLIC_KEY = "PUBLIC KEY";
+
+    private static final int LINE_LENGTH = 64;
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BEGIN = "-----BEGIN ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "-----END ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DASHES = "-----".getBytes(StandardCharsets.US_ASCII);
+    private static final HexFormat HEX = HexFormat.of();
+    private static final HexFormat COLON_HEX = HexFormat.ofDelimiter(":").withUpperCase();
+
+    /**
+     * Bloc PEM décodé : type (ex. CERTIFICATE) et contenu DER
+     */
+    public record Block(String type, byte[] der) {}
+
+    private PemCodec() {
+    }
+
+    /**
+     * Forme PEM de der, en chaîne
+     */
+    public static String encode(String type, byte[] der) {
+        return new String(encodeToBytes(type, der), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Forme PEM de der, en octets ASCII (téléchargements, fichiers)
+     */
+    public static byte[] encodeToBytes(String type, byte[] der) {
+        byte[] label = type.getBytes(StandardCharsets.US_ASCII);
+        int base64Length = 4 * ((der.length + 2) / 3);
+        int lines = (base64Length + LINE_LENGTH - 1) / LINE_LENGTH;
+        int headerLength = BEGIN.length + label.length + DASHES.length + 1;
+        int footerLength = END.length + label.length + DASHES.length + 1;
+        byte[] out = new byte[headerLength + base64Length + lines + footerLength];
+
+        int pos = writeBoundary(out, 0, BEGIN, label);
+        int column = 0;
+        int i = 0;
+        int full = der.length - der.length % 3;
+        while (i < full) {
+            int bits = (der[i++] & 0xff) << 16 | (der[i++] & 0xff) << 8 | (der[i++] & 0xff);
+            out[pos++] = ALPHABET[bits >>> 18];
+            out[pos++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[pos++] = ALPHABET[(bits >>> 6) & 0x3f];
+            out[pos++] = ALPHABET[bits & 0x3f];
+            column += 4;
+            if (column == LINE_LENGTH) {
+                out[pos++] = '\n';
+                column = 0;
+            }
+        }
+        int remaining = der.length - full;
+        if (remaining > 0) {
+            int bits = (der[i] & 0xff) << 16 | (remaining == 2 ? (der[i + 1] & 0xff) << 8 : 0);
+            out[pos++] = ALPHABET[bits >>> 18];
+            out[pos++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[pos++] = remaining == 2 ? ALPHABET[(bits >>> 6) & 0x3f] : (byte) '=';
+            out[pos++] = '=';
+            column += 4;
+        }
+        if (column > 0) {
+            out[pos++] = '\n';
+        }
+        writeBoundary(out, pos, END, label);
+        return out;
+    }
+
+    /**
+     * Premier bloc PEM du texte
+     */
+    public static Block decodeFirst(String pem) {
+        return decodeFirst(pem.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static Block decodeFirst(byte[] pem) {
+        return decodeFirst(ByteBuffer.wrap(pem));
+    }
+
+    /**
+     * Premier bloc PEM à partir de la position du tampon (position avancée après le bloc)
+     */
+    public static Block decodeFirst(ByteBuffer pem) {
+        Block block = next(pem);
+        if (block == null) {
+            throw new IllegalArgumentException("Aucun bloc PEM trouvé");
+        }
+        return block;
+    }
+
+    /**
+     * Tous les blocs PEM du texte, dans l'ordre (ex. chaîne de certificats)
+     */
+    public static List<Block> decodeAll(byte[] pem) {
+        ByteBuffer buffer = ByteBuffer.wrap(pem);
+        List<Block> blocks = new ArrayList<>();
+        Block block;
+        while ((block = next(buffer)) != null) {
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    /**
+     * Contenu DER du premier bloc du type attendu
+     */
+    public static byte[] decode(String pem, String expectedType) {
+        Block block = decodeFirst(pem);
+        if (!block.type().equals(expectedType)) {
+            throw new IllegalArgumentException("Bloc PEM " + block.type() + " inattendu (" + expectedType + " attendu)");
+        }
+        return block.der();
+    }
+
+    /**
+     * Certificat d'un fichier PEM (ou DER)
+     */
+    public static X509CertificateHolder readCertificate(Path path) throws IOException {
+        byte[] content = Files.readAllBytes(path);
+        return new X509CertificateHolder(isPem(content) ? decodeFirst(content).der() : content);
+    }
+
+    /**
+     * CSR PKCS#10 en PEM ("CERTIFICATE REQUEST" ou "NEW CERTIFICATE REQUEST")
+     */
+    public static PKCS10CertificationRequest parseCertificationRequest(String pem) throws IOException {
+        Block block = decodeFirst(pem);
+        if (!block.type().endsWith(CERTIFICATE_REQUEST)) {
+            throw new IllegalArgumentException("Bloc PEM " + block.type() + " inattendu (CSR attendue)");
+        }
+        return new PKCS10CertificationRequest(block.der());
+    }
+
+    /**
+     * Hexadécimal minuscule, sans séparateur
+     */
+    public static String hex(byte[] bytes) {
+        return HEX.formatHex(bytes);
+    }
+
+    /**
+     * Hexadécimal majuscule séparé par ':' (affichage des empreintes, ex. AB:CD:...)
+     */
+    public static String colonHex(byte[] bytes) {
+        return COLON_HEX.formatHex(bytes);
+    }
+
+    /**
+     * Empreinte SHA-256 (hex minuscule) d'un encodage DER
+     */
+    public static String fingerprintSha256(byte[] der) {
+        try {
+            return hex(MessageDigest.getInstance("SHA-256").digest(der));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String base64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static boolean isPem(byte[] content) {
+        return indexOf(ByteBuffer.wrap(content), BEGIN, 0) >= 0;
+    }
+
+    // Bloc suivant à partir de la position du tampon, ou null
+    private static Block next(ByteBuffer pem) {
+        int begin = indexOf(pem, BEGIN, pem.position());
+        if (begin < 0) {
+            return null;
+        }
+        int labelStart = begin + BEGIN.length;
+        int labelEnd = indexOf(pem, DASHES, labelStart);
+        if (labelEnd < 0) {
+            throw new IllegalArgumentException("En-tête PEM incomplet");
+        }
+        byte[] label = new byte[labelEnd - labelStart];
+        pem.get(labelStart, label);
+        int bodyStart = labelEnd + DASHES.length;
+        int end = indexOf(pem, END, bodyStart);
+        if (end < 0) {
+            throw new IllegalArgumentException("Fin de bloc PEM " + new String(label, StandardCharsets.US_ASCII) + " absente");
+        }
+        int after = indexOf(pem, DASHES, end + END.length);
+        pem.position(after < 0 ? pem.limit() : after + DASHES.length);
+
+        // Le décodeur MIME ignore les fins de ligne et les espaces
+        ByteBuffer body = pem.duplicate().position(bodyStart).limit(end);
+        return new Block(new String(label, StandardCharsets.US_ASCII), decodeBase64(body));
+    }
+
+    private static byte[] decodeBase64(ByteBuffer body) {
+        ByteBuffer decoded = Base64.getMimeDecoder().decode(body);
+        if (decoded.hasArray() && decoded.arrayOffset() == 0 && decoded.position() == 0
+                && decoded.remaining() == decoded.array().length) {
+            return decoded.array();
+        }
+        byte[] der = new byte[decoded.remaining()];
+        decoded.get(der);
+        return der;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] pattern, int from) {
+        int last = buffer.limit() - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer.get(i + j) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int writeBoundary(byte[] out, int pos, byte[] marker, byte[] label) {
+        System.arraycopy(marker, 0, out, pos, marker.length);
+        pos += marker.length;
+        System.arraycopy(label, 0, out, pos, label.length);
+        pos += label.length;
+        System.arraycopy(DASHES, 0, out, pos, DASHES.length);
+        pos += DASHES.length;
+        out[pos++] = '\n';
+        return pos;
+    }
+}
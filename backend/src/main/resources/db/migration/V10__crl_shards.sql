@@ -0,0 +1,16 @@
+-- Flyway migration V10: CRL partitionnées par AC
+-- crl_shard_count : nombre de partitions (numéro de série modulo N), fixé à la création de l'AC
+-- car il détermine le point de distribution inscrit dans chaque certificat émis
+ALTER TABLE ca_configuration
+    ADD COLUMN IF NOT EXISTS crl_shard_count INTEGER NOT NULL DEFAULT 1;
+
+-- Une publication par (AC, partition) ; les CRL existantes deviennent la partition 0
+ALTER TABLE crl_publications
+    ADD COLUMN IF NOT EXISTS shard INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE crl_publications DROP CONSTRAINT IF EXISTS crl_publications_pkey;
+ALTER TABLE crl_publications ADD PRIMARY KEY (ca_id, shard);
+
+-- Entrées de CRL d'une AC sans parcourir tous les certificats
+CREATE INDEX IF NOT EXISTS idx_certificates_issuer_revoked ON certificates(issuer_ca_id) WHERE status = 'REVOKED';
+
+COMMENT ON COLUMN ca_configuration.crl_shard_count IS 'Nombre de partitions de CRL (numéro de série modulo N)';
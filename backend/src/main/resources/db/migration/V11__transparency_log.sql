@@ -0,0 +1,23 @@
+-- Flyway migration V11: journal de transparence des certificats émis (arbre de Merkle, RFC 6962)
+-- Une feuille par certificat, numérotée sans trou dans l'ordre d'ajout ; les nœuds internes
+-- sont tenus dans des fichiers par niveau, reconstructibles depuis cette table
+CREATE TABLE IF NOT EXISTS transparency_log (
+    leaf_index BIGINT PRIMARY KEY,
+    certificate_id UUID UNIQUE REFERENCES certificates(id) ON DELETE SET NULL,
+    leaf_hash BYTEA NOT NULL,
+    logged_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Taille de l'arbre : la ligne unique est verrouillée pendant un ajout (numérotation en série)
+CREATE TABLE IF NOT EXISTS transparency_log_head (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    tree_size BIGINT NOT NULL DEFAULT 0
+);
+INSERT INTO transparency_log_head (id, tree_size) VALUES (1, 0) ON CONFLICT DO NOTHING;
+
+-- Index de la feuille du certificat (NULL = pas encore journalisé) ; non mappé par l'entité
+-- Certificate pour qu'une mise à jour du certificat ne l'écrase pas
+ALTER TABLE certificates ADD COLUMN IF NOT EXISTS transparency_log_index BIGINT;
+CREATE INDEX IF NOT EXISTS idx_certificates_unlogged ON certificates(issued_at, id) WHERE transparency_log_index IS NULL;
+
+COMMENT ON COLUMN certificates.transparency_log_index IS 'Index de la feuille dans transparency_log';
@@ -0,0 +1,12 @@
+-- Flyway migration V12: certificats stockés en DER (BYTEA) au lieu du PEM (TEXT, ~35 % plus gros)
+-- Le PEM est produit à la demande au téléchargement
+ALTER TABLE certificates ADD COLUMN IF NOT EXISTS certificate_der BYTEA;
+
+UPDATE certificates
+SET certificate_der = decode(regexp_replace(certificate_pem, '-----[A-Z0-9 ]+-----|\s', '', 'g'), 'base64')
+WHERE certificate_der IS NULL;
+
+ALTER TABLE certificates ALTER COLUMN certificate_der SET NOT NULL;
+ALTER TABLE certificates DROP COLUMN IF EXISTS certificate_pem;
+
+COMMENT ON COLUMN certificates.certificate_der IS 'Certificat X.509 encodé DER';
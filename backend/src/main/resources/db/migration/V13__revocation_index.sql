@@ -0,0 +1,3 @@
+-- Flyway migration V13: synchronisation incrémentale de l'index de révocation en mémoire
+-- Chaque nœud relit périodiquement les révocations récentes (faites éventuellement sur un autre nœud)
+CREATE INDEX IF NOT EXISTS idx_certificates_revoked_at ON certificates(revoked_at) WHERE status = 'REVOKED';
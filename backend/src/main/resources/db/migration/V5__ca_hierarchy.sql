@@ -0,0 +1,18 @@
+-- Flyway migration V5: hiérarchie d'AC (racine → intermédiaires) et AC émettrice des certificats
+ALTER TABLE ca_configuration
+    ADD COLUMN IF NOT EXISTS parent_ca_id UUID REFERENCES ca_configuration(id),
+    ADD COLUMN IF NOT EXISTS path_length INTEGER,
+    ADD COLUMN IF NOT EXISTS is_issuing BOOLEAN DEFAULT false;
+
+CREATE INDEX IF NOT EXISTS idx_ca_configuration_parent_ca_id ON ca_configuration(parent_ca_id);
+
+COMMENT ON COLUMN ca_configuration.parent_ca_id IS 'AC parente (NULL pour une AC racine)';
+COMMENT ON COLUMN ca_configuration.path_length IS 'Contrainte pathLenConstraint (NULL = non bornée)';
+COMMENT ON COLUMN ca_configuration.is_issuing IS 'AC désignée pour signer les certificats finaux';
+
+ALTER TABLE certificates
+    ADD COLUMN IF NOT EXISTS issuer_ca_id UUID REFERENCES ca_configuration(id);
+
+CREATE INDEX IF NOT EXISTS idx_certificates_issuer_ca_id ON certificates(issuer_ca_id);
+
+COMMENT ON COLUMN certificates.issuer_ca_id IS 'AC ayant signé le certificat (NULL = AC racine historique)';
@@ -0,0 +1,8 @@
+-- Flyway migration V6: plusieurs AC émettrices actives simultanément
+-- issuing_profile : profil d'émission servi par l'AC (NULL = tous profils) pour la politique per-profile
+ALTER TABLE ca_configuration
+    ADD COLUMN IF NOT EXISTS issuing_profile VARCHAR(50);
+
+CREATE INDEX IF NOT EXISTS idx_ca_configuration_issuing ON ca_configuration(is_issuing, is_active);
+
+COMMENT ON COLUMN ca_configuration.issuing_profile IS 'Profil d''émission servi par l''AC (NULL = tous profils)';
@@ -0,0 +1,13 @@
+-- Flyway migration V7: rappels de renouvellement avant expiration
+-- Une ligne par (certificat, fenêtre) : garantit un seul rappel par fenêtre, même avec plusieurs nœuds
+CREATE TABLE IF NOT EXISTS certificate_renewal_reminders (
+    certificate_id UUID NOT NULL REFERENCES certificates(id) ON DELETE CASCADE,
+    window_days INTEGER NOT NULL,
+    sent_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (certificate_id, window_days)
+);
+
+-- Pagination par clé (not_after, id) des certificats actifs
+CREATE INDEX IF NOT EXISTS idx_certificates_active_not_after_id ON certificates(not_after, id) WHERE status = 'ACTIVE';
+
+COMMENT ON TABLE certificate_renewal_reminders IS 'Rappels de renouvellement envoyés (un par certificat et par fenêtre de jours)';
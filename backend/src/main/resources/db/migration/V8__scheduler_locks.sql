@@ -0,0 +1,9 @@
+-- Flyway migration V8: verrous de jobs planifiés partagés entre les instances (bail avec expiration)
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    name VARCHAR(100) PRIMARY KEY,
+    locked_by VARCHAR(255) NOT NULL,
+    locked_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    locked_until TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+COMMENT ON TABLE scheduler_locks IS 'Bail d''exécution des jobs planifiés : une seule instance exécute un job tant que locked_until n''est pas dépassé';
@@ -0,0 +1,22 @@
+-- Flyway migration V9: publication des CRL séparée de la configuration des AC
+-- Une ligne par AC, mise à jour en place à chaque CRL (numéro croissant, empreinte du fichier publié)
+CREATE TABLE IF NOT EXISTS crl_publications (
+    ca_id UUID PRIMARY KEY REFERENCES ca_configuration(id) ON DELETE CASCADE,
+    crl_number BIGINT NOT NULL DEFAULT 0,
+    this_update TIMESTAMP WITH TIME ZONE,
+    next_update TIMESTAMP WITH TIME ZONE,
+    path VARCHAR(500),
+    sha256 VARCHAR(64),
+    size_bytes BIGINT,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Reprise des CRL déjà écrites (numéro 0 : la prochaine CRL porte le numéro 1)
+INSERT INTO crl_publications (ca_id, path)
+SELECT id, ca_crl_path FROM ca_configuration WHERE ca_crl_path IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+-- Recherche de l'AC active la plus récente sans parcourir la table
+CREATE INDEX IF NOT EXISTS idx_ca_configuration_active_created ON ca_configuration(is_active, created_at DESC);
+
+COMMENT ON COLUMN ca_configuration.ca_crl_path IS 'Obsolète : voir crl_publications.path';
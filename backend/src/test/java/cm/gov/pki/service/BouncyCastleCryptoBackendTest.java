@@ -0,0 +1,82 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.util.PemCodec;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BouncyCastleCryptoBackendTest {
+
+    @TempDir
+    Path dir;
+
+    private final BouncyCastleCryptoBackend backend = new BouncyCastleCryptoBackend();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(backend, "caRootPath", dir.resolve("ca").toString());
+        ReflectionTestUtils.setField(backend, "certsPath", dir.resolve("certs").toString());
+        ReflectionTestUtils.setField(backend, "crlPath", dir.resolve("crl").toString());
+    }
+
+    @Test
+    void generateRootCA_usesConfiguredEcProfile() throws Exception {
+        configure("EC", 384);
+
+        Map<String, String> info = backend.generateRootCA("Racine Test", 30);
+        X509Certificate cert = readCertificate(info);
+
+        assertSelfSigned(cert);
+        assertEquals("SHA384WITHECDSA", cert.getSigAlgName().toUpperCase());
+        assertEquals(KeyProfile.EC_P384, KeyProfile.fromKey(cert.getPublicKey()));
+        assertEquals("EC", info.get("keyAlgorithm"));
+        assertEquals("384", info.get("keySize"));
+        assertEquals("SHA384withECDSA", info.get("signatureAlgorithm"));
+    }
+
+    @Test
+    void generateRootCA_usesConfiguredEd25519Profile() throws Exception {
+        configure("Ed25519", 255);
+
+        Map<String, String> info = backend.generateRootCA("Racine Test", 30);
+        X509Certificate cert = readCertificate(info);
+
+        assertSelfSigned(cert);
+        assertEquals(KeyProfile.ED25519, KeyProfile.fromKey(cert.getPublicKey()));
+        assertEquals("Ed25519", info.get("signatureAlgorithm"));
+    }
+
+    @Test
+    void generateRootCA_rejectsUnsupportedProfile() {
+        configure("EC", 521);
+
+        assertThrows(IllegalArgumentException.class, () -> backend.generateRootCA("Racine Test", 30));
+    }
+
+    private void configure(String algorithm, int keySize) {
+        ReflectionTestUtils.setField(backend, "keyAlgorithm", algorithm);
+        ReflectionTestUtils.setField(backend, "keySize", keySize);
+    }
+
+    private static X509Certificate readCertificate(Map<String, String> info) throws Exception {
+        X509CertificateHolder holder = PemCodec.readCertificate(Path.of(info.get("certPath")));
+        return new JcaX509CertificateConverter().setProvider("BC").getCertificate(holder);
+    }
+
+    private static void assertSelfSigned(X509Certificate cert) throws Exception {
+        assertEquals(cert.getSubjectX500Principal(), cert.getIssuerX500Principal());
+        cert.verify(cert.getPublicKey(), "BC");
+        cert.checkValidity();
+        // basicConstraints cA=TRUE
+        assertTrue(cert.getBasicConstraints() >= 0);
+    }
+}
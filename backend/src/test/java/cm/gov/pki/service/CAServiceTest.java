@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,6 +22,20 @@ public class CAServiceTest {
     private cm.gov.pki.repository.UserRepository userRepository;
     @Mock
     private KeystorePasswordService keystorePasswordService;
+    @Spy
+    private KeyPairPool keyPairPool = new KeyPairPool();
+    @Mock
+    private CertificateChainService certificateChainService;
+    @Mock
+    private IssuingCASelector issuingCASelector;
+    @Spy
+    private SigningEngine signingEngine = new SigningEngine();
+    @Mock
+    private SigningKeyService signingKeyService;
+    @Mock
+    private org.springframework.context.ApplicationEventPublisher eventPublisher;
+    @Spy
+    private io.micrometer.core.instrument.MeterRegistry meterRegistry = new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
 
     @InjectMocks
     private CAService caService;
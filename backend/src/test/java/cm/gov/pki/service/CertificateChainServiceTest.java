@@ -0,0 +1,116 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import cm.gov.pki.repository.CAConfigurationRepository;
+import cm.gov.pki.service.CertificateChainService.ChainBundle;
+import cm.gov.pki.util.PemCodec;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CertificateChainServiceTest {
+
+    private final KeyPairPool keyPairPool = new KeyPairPool();
+
+    @Mock
+    private CAConfigurationRepository caConfigurationRepository;
+
+    @TempDir
+    Path dir;
+
+    private CertificateChainService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CertificateChainService(caConfigurationRepository);
+    }
+
+    @Test
+    void getChain_ordersFromIssuerToRootAndCaches() throws Exception {
+        CAConfiguration root = ca("Root", null);
+        CAConfiguration intermediate = ca("Intermediate", root.id);
+        when(caConfigurationRepository.findById(root.id)).thenReturn(Optional.of(root));
+
+        ChainBundle chain = service.getChain(intermediate);
+
+        assertEquals(List.of(new X500Name("CN=Intermediate"), new X500Name("CN=Root")),
+                chain.certificates().stream().map(X509CertificateHolder::getSubject).toList());
+        List<PemCodec.Block> blocks = PemCodec.decodeAll(chain.pem().getBytes());
+        assertEquals(2, blocks.size());
+        assertArrayEquals(chain.certificates().get(0).getEncoded(), blocks.get(0).der());
+        assertArrayEquals(chain.certificates().get(1).getEncoded(), blocks.get(1).der());
+
+        assertSame(chain, service.getChain(intermediate));
+        verify(caConfigurationRepository, times(1)).findById(root.id);
+    }
+
+    @Test
+    void getChain_rootAloneHasSingleCertificate() throws Exception {
+        CAConfiguration root = ca("Root", null);
+
+        ChainBundle chain = service.getChain(root);
+
+        assertEquals(1, chain.certificates().size());
+        verifyNoInteractions(caConfigurationRepository);
+    }
+
+    @Test
+    void getChain_failsWhenParentIsMissing() throws Exception {
+        UUID missing = UUID.randomUUID();
+        CAConfiguration intermediate = ca("Intermediate", missing);
+        when(caConfigurationRepository.findById(missing)).thenReturn(Optional.empty());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> service.getChain(intermediate));
+        assertTrue(e.getMessage().contains(missing.toString()));
+    }
+
+    @Test
+    void getChain_failsOnCycle() throws Exception {
+        CAConfiguration first = ca("First", null);
+        CAConfiguration second = ca("Second", first.id);
+        first.parentId = second.id;
+        when(caConfigurationRepository.findById(first.id)).thenReturn(Optional.of(first));
+        when(caConfigurationRepository.findById(second.id)).thenReturn(Optional.of(second));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> service.getChain(first));
+        assertTrue(e.getMessage().contains("cycle"));
+    }
+
+    private CAConfiguration ca(String name, UUID parentId) throws Exception {
+        KeyPair key = keyPairPool.take(KeyProfile.EC_P256);
+        X500Name subject = new X500Name("CN=" + name);
+        X509CertificateHolder holder = new JcaX509v3CertificateBuilder(subject, BigInteger.ONE, Date.from(Instant.now()),
+                Date.from(Instant.now().plusSeconds(86400)), subject, key.getPublic())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(key.getPrivate()));
+        Path certPath = dir.resolve(name + ".crt");
+        Files.write(certPath, PemCodec.encodeToBytes(PemCodec.CERTIFICATE, holder.getEncoded()));
+
+        CAConfiguration ca = new CAConfiguration();
+        ca.id = UUID.randomUUID();
+        ca.caName = name;
+        ca.parentId = parentId;
+        ca.caCertPath = certPath.toString();
+        return ca;
+    }
+}
@@ -0,0 +1,139 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.service.CertificateChainService.ChainBundle;
+import cm.gov.pki.service.CertificateDetailsService.CertificateDetails;
+import cm.gov.pki.service.CertificateDetailsService.ExtensionInfo;
+import cm.gov.pki.service.CertificateDetailsService.Rdn;
+import cm.gov.pki.util.PemCodec;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CertificateDetailsServiceTest {
+
+    private static final UUID CA_ID = UUID.randomUUID();
+
+    private final KeyPairPool keyPairPool = new KeyPairPool();
+    private final KeyPair caKey = keyPairPool.take(KeyProfile.EC_P256);
+    private final X509CertificateHolder caCert = selfSigned(caKey);
+
+    @Mock
+    private CertificateChainService certificateChainService;
+
+    private CertificateDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CertificateDetailsService(certificateChainService, 100);
+    }
+
+    @Test
+    void details_parsesNamesKeyAndExtensions() throws Exception {
+        when(certificateChainService.getChainForIssuer(CA_ID)).thenReturn(new ChainBundle(List.of(caCert), "", new byte[0]));
+        Certificate certificate = entity(issue(keyPairPool.take(KeyProfile.RSA_2048)));
+
+        CertificateDetails details = service.details(certificate);
+
+        assertEquals(List.of(new Rdn("C", "2.5.4.6", "CM"), new Rdn("O", "2.5.4.10", "PKI Souverain"),
+                new Rdn("CN", "2.5.4.3", "www.example.cm")), details.subject());
+        assertEquals("CN", details.issuer().get(0).type());
+        assertEquals(3, details.version());
+        assertEquals("RSA", details.publicKey().algorithm());
+        assertEquals(2048, details.publicKey().size());
+        assertEquals("SHA256WITHECDSA", details.signatureAlgorithm().toUpperCase());
+        assertEquals(List.of("digitalSignature", "keyEncipherment"), extension(details, "keyUsage").value());
+        assertTrue(extension(details, "keyUsage").critical());
+        assertEquals(List.of("serverAuth"), extension(details, "extendedKeyUsage").value());
+        assertEquals(List.of("DNS:www.example.cm"), extension(details, "subjectAltName").value());
+        assertEquals(List.of("URI:https://pki.example/crl/ca.crl"), extension(details, "cRLDistributionPoints").value());
+        assertEquals(List.of(Map.of("method", "caIssuers", "location", "URI:https://pki.example/crl/ca.crt")),
+                extension(details, "authorityInfoAccess").value());
+        assertEquals(PemCodec.fingerprintSha256(certificate.getCertificateDer()), details.fingerprints().sha256());
+        assertEquals(40, details.fingerprints().sha1().length());
+        assertEquals(1, details.chain().size());
+        assertEquals("CN=Test CA", details.chain().get(0).subject());
+    }
+
+    @Test
+    void details_isParsedOnceThenServedByFingerprint() throws Exception {
+        when(certificateChainService.getChainForIssuer(CA_ID)).thenReturn(new ChainBundle(List.of(caCert), "", new byte[0]));
+        Certificate certificate = entity(issue(keyPairPool.take(KeyProfile.EC_P256)));
+
+        CertificateDetails first = service.details(certificate);
+        certificate.setStatus(Certificate.CertificateStatus.REVOKED);
+        CertificateDetailsService.CertificateView view = service.view(certificate);
+
+        assertSame(first, view.certificate());
+        assertEquals("REVOKED", view.status());
+        assertEquals("EC", first.publicKey().algorithm());
+        assertEquals(256, first.publicKey().size());
+        verify(certificateChainService, times(1)).getChainForIssuer(CA_ID);
+
+        service.invalidateAll();
+        assertNotSame(first, service.details(certificate));
+        verify(certificateChainService, times(2)).getChainForIssuer(CA_ID);
+    }
+
+    private static ExtensionInfo extension(CertificateDetails details, String name) {
+        return details.extensions().stream().filter(e -> name.equals(e.name())).findFirst().orElseThrow();
+    }
+
+    private static Certificate entity(X509CertificateHolder holder) throws Exception {
+        Certificate certificate = new Certificate();
+        certificate.setId(UUID.randomUUID());
+        certificate.setCertificateDer(holder.getEncoded());
+        certificate.setFingerprintSha256(PemCodec.fingerprintSha256(holder.getEncoded()));
+        certificate.setIssuerCaId(CA_ID);
+        certificate.setStatus(Certificate.CertificateStatus.ACTIVE);
+        return certificate;
+    }
+
+    private X509CertificateHolder issue(KeyPair subjectKey) throws Exception {
+        IssuanceTemplate template = new IssuanceTemplate(CertificateProfile.TLS_SERVER, caCert,
+                "https://pki.example/crl/ca.crt", List.of("https://pki.example/crl/ca.crl"));
+        Extensions san = new Extensions(new Extension(Extension.subjectAlternativeName, false,
+                new GeneralNames(new GeneralName(GeneralName.dNSName, "www.example.cm")).getEncoded()));
+        SubjectPublicKeyInfo spki = SubjectPublicKeyInfo.getInstance(subjectKey.getPublic().getEncoded());
+        X500Name subject = new X500Name("C=CM, O=PKI Souverain, CN=www.example.cm");
+        X509v3CertificateBuilder builder = new X509v3CertificateBuilder(caCert.getSubject(), BigInteger.valueOf(42),
+                Date.from(Instant.now()), Date.from(Instant.now().plusSeconds(3600)), subject, spki);
+        template.apply(builder, subject, spki, 0, san);
+        return builder.build(new JcaContentSignerBuilder("SHA256withECDSA").build(caKey.getPrivate()));
+    }
+
+    private static X509CertificateHolder selfSigned(KeyPair key) {
+        try {
+            X500Name name = new X500Name("CN=Test CA");
+            return new JcaX509v3CertificateBuilder(name, BigInteger.ONE, Date.from(Instant.now()),
+                    Date.from(Instant.now().plusSeconds(86400)), name, key.getPublic())
+                    .build(new JcaContentSignerBuilder("SHA256withECDSA").build(key.getPrivate()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
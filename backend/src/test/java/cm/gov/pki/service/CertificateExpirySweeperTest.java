@@ -0,0 +1,82 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.event.CertificateBatchStatusChangedEvent;
+import cm.gov.pki.repository.CertificateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CertificateExpirySweeperTest {
+
+    @Mock
+    private CertificateRepository certificateRepository;
+    @Mock
+    private AuditService auditService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ClusterLockService clusterLockService;
+    @Captor
+    private ArgumentCaptor<Map<UUID, Map<String, Object>>> audit;
+
+    private CertificateExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        sweeper = new CertificateExpirySweeper(certificateRepository, auditService, eventPublisher, transactionManager, clusterLockService);
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 2);
+    }
+
+    @Test
+    void sweep_expiresInChunksUntilShortChunk() {
+        when(certificateRepository.expireActiveBefore(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(row("01"), row("02")))
+                .thenReturn(List.<Object[]>of(row("03")));
+
+        assertEquals(3, sweeper.sweep());
+
+        verify(certificateRepository, times(2)).expireActiveBefore(any(LocalDateTime.class), eq(2));
+        verify(transactionManager, times(2)).commit(any());
+        verify(auditService, times(2)).logSystemBatch(eq("CERTIFICATE_EXPIRED"), eq("Certificate"), audit.capture());
+        assertEquals(2, audit.getAllValues().get(0).size());
+        ArgumentCaptor<CertificateBatchStatusChangedEvent> events = ArgumentCaptor.forClass(CertificateBatchStatusChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(Certificate.CertificateStatus.EXPIRED, events.getValue().newStatus());
+        assertEquals(1, events.getValue().certificateIds().size());
+    }
+
+    @Test
+    void sweep_nothingToExpire() {
+        when(certificateRepository.expireActiveBefore(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, sweeper.sweep());
+
+        verifyNoInteractions(auditService, eventPublisher);
+    }
+
+    private static Object[] row(String serial) {
+        return new Object[]{UUID.randomUUID(), serial};
+    }
+}
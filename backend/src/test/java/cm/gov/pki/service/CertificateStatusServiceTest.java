@@ -0,0 +1,129 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.repository.CertificateRepository;
+import cm.gov.pki.service.CertificateStatusService.BatchStatusRequest;
+import cm.gov.pki.service.CertificateStatusService.CertificateStatusResult;
+import cm.gov.pki.util.PemCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CertificateStatusServiceTest {
+
+    private static final String FINGERPRINT = "ab".repeat(32);
+
+    @Mock
+    private CertificateRepository certificateRepository;
+    @Mock
+    private RevocationIndexService revocationIndex;
+
+    private CertificateStatusService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CertificateStatusService(certificateRepository, revocationIndex, new KeyPairPool(),
+                new SimpleMeterRegistry(), 1000, 300);
+    }
+
+    @Test
+    void status_resolvesMissesInOneQueryThenServesFromCache() {
+        LocalDateTime notAfter = LocalDateTime.now().plusDays(30);
+        when(certificateRepository.findStatusBySerialNumberInOrFingerprintIn(any(), any())).thenReturn(List.of(
+                row("12", FINGERPRINT, Certificate.CertificateStatus.ACTIVE, null, null, notAfter),
+                row("13", "cd".repeat(32), Certificate.CertificateStatus.ACTIVE, null, null, LocalDateTime.now().minusDays(1))));
+
+        List<CertificateStatusResult> results = service.status(new BatchStatusRequest(
+                List.of("0012", "13", "99", "not-a-serial"), List.of(FINGERPRINT.toUpperCase().replaceAll("(..)(?!$)", "$1:")))).results();
+
+        assertEquals(List.of("ACTIVE", "EXPIRED", "UNKNOWN", "UNKNOWN", "ACTIVE"),
+                results.stream().map(CertificateStatusResult::status).toList());
+        assertEquals("12", results.get(0).serialNumber());
+        assertEquals("12", results.get(4).serialNumber());
+        verify(certificateRepository).findStatusBySerialNumberInOrFingerprintIn(
+                argThat(serials -> serials.containsAll(List.of("12", "13", "99")) && serials.size() == 3),
+                argThat(fingerprints -> fingerprints.size() == 1 && fingerprints.contains(FINGERPRINT)));
+
+        // Deuxième lot : tout vient du cache
+        List<CertificateStatusResult> cached = service.status(new BatchStatusRequest(List.of("12"), List.of(FINGERPRINT))).results();
+        assertEquals(List.of("ACTIVE", "ACTIVE"), cached.stream().map(CertificateStatusResult::status).toList());
+        verifyNoMoreInteractions(certificateRepository);
+    }
+
+    @Test
+    void status_refetchesCachedEntryRevokedOnAnotherNode() {
+        LocalDateTime notAfter = LocalDateTime.now().plusDays(30);
+        LocalDateTime revokedAt = LocalDateTime.now();
+        when(certificateRepository.findStatusBySerialNumberInOrFingerprintIn(any(), any()))
+                .thenReturn(List.<Object[]>of(row("12", FINGERPRINT, Certificate.CertificateStatus.ACTIVE, null, null, notAfter)))
+                .thenReturn(List.<Object[]>of(row("12", FINGERPRINT, Certificate.CertificateStatus.REVOKED, revokedAt, "keyCompromise", notAfter)));
+        when(revocationIndex.isReady()).thenReturn(true);
+        when(revocationIndex.isRevoked("12")).thenReturn(true);
+
+        assertEquals("ACTIVE", service.status(new BatchStatusRequest(List.of("12"), null)).results().get(0).status());
+        CertificateStatusResult result = service.status(new BatchStatusRequest(List.of("12"), null)).results().get(0);
+
+        assertEquals("REVOKED", result.status());
+        assertEquals("keyCompromise", result.revocationReason());
+        assertNotNull(result.revokedAt());
+        verify(certificateRepository, times(2)).findStatusBySerialNumberInOrFingerprintIn(any(), any());
+    }
+
+    @Test
+    void status_rejectsOversizedBatch() {
+        List<String> serials = new ArrayList<>(Collections.nCopies(1001, "1"));
+        assertThrows(IllegalArgumentException.class, () -> service.status(new BatchStatusRequest(serials, List.of())));
+        verifyNoInteractions(certificateRepository);
+    }
+
+    @Test
+    void sign_usesDedicatedResponderKey(@TempDir Path dir) throws Exception {
+        ReflectionTestUtils.setField(service, "responderKeyPath", dir.resolve("responder.pem").toString());
+        service.start();
+        byte[] body = "{\"results\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        CertificateStatusService.ResponseSignature signature = service.sign(body);
+
+        PublicKey publicKey = KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(
+                PemCodec.decode(service.responderPublicKeyPem(), PemCodec.PUBLIC_KEY)));
+        Signature verifier = Signature.getInstance(signature.algorithm());
+        verifier.initVerify(publicKey);
+        verifier.update(body);
+        assertTrue(verifier.verify(Base64.getDecoder().decode(signature.signature())));
+        assertEquals(PemCodec.fingerprintSha256(publicKey.getEncoded()), signature.keyId());
+
+        // Même clé au redémarrage
+        CertificateStatusService restarted = new CertificateStatusService(certificateRepository, revocationIndex,
+                new KeyPairPool(), new SimpleMeterRegistry(), 1000, 300);
+        ReflectionTestUtils.setField(restarted, "responderKeyPath", dir.resolve("responder.pem").toString());
+        restarted.start();
+        assertEquals(signature.keyId(), restarted.sign(body).keyId());
+    }
+
+    private static Object[] row(String serial, String fingerprint, Certificate.CertificateStatus status,
+                                LocalDateTime revokedAt, String reason, LocalDateTime notAfter) {
+        return new Object[]{serial, fingerprint, status, revokedAt, reason, notAfter};
+    }
+}
@@ -0,0 +1,87 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.repository.SchedulerLockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ClusterLockServiceTest {
+
+    @Mock
+    private SchedulerLockRepository schedulerLockRepository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ClusterLockService locks;
+
+    @BeforeEach
+    void setUp() {
+        locks = new ClusterLockService(schedulerLockRepository, registry, "node-a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        locks.stop();
+    }
+
+    @Test
+    void runExclusive_runsTaskAndReleasesLease() {
+        when(schedulerLockRepository.tryLock("job", "node-a", 60_000)).thenReturn(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertTrue(locks.runExclusive("job", Duration.ofMinutes(1), runs::incrementAndGet));
+
+        assertEquals(1, runs.get());
+        verify(schedulerLockRepository).unlock("job", "node-a");
+        assertEquals(1.0, registry.counter("pki.scheduler.lock", "job", "job", "outcome", "acquired").count());
+        assertEquals(1, registry.timer("pki.scheduler.job.duration", "job", "job").count());
+    }
+
+    @Test
+    void runExclusive_skipsWhenLeaseHeldElsewhere() {
+        when(schedulerLockRepository.tryLock(anyString(), anyString(), anyLong())).thenReturn(0);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertFalse(locks.runExclusive("job", Duration.ofMinutes(1), runs::incrementAndGet));
+
+        assertEquals(0, runs.get());
+        verify(schedulerLockRepository, never()).unlock(anyString(), anyString());
+        assertEquals(1.0, registry.counter("pki.scheduler.lock", "job", "job", "outcome", "skipped").count());
+    }
+
+    @Test
+    void runExclusive_renewsLeaseWhileTaskRuns() {
+        when(schedulerLockRepository.tryLock("job", "node-a", 300)).thenReturn(1);
+        when(schedulerLockRepository.extend("job", "node-a", 300)).thenReturn(1);
+
+        locks.runExclusive("job", Duration.ofMillis(300), () -> {
+            try {
+                Thread.sleep(450);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        verify(schedulerLockRepository, atLeast(2)).extend("job", "node-a", 300);
+        verify(schedulerLockRepository).unlock("job", "node-a");
+    }
+
+    @Test
+    void runExclusive_failsClosedWhenDatabaseUnavailable() {
+        when(schedulerLockRepository.tryLock(anyString(), anyString(), anyLong())).thenThrow(new RuntimeException("db down"));
+
+        assertFalse(locks.runExclusive("job", Duration.ofMinutes(1), () -> fail("ne doit pas s'exécuter")));
+        assertEquals(1.0, registry.counter("pki.scheduler.lock", "job", "job", "outcome", "error").count());
+    }
+}
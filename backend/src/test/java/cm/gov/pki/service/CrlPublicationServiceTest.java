@@ -0,0 +1,214 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import cm.gov.pki.entity.CrlPublication;
+import cm.gov.pki.repository.CertificateRepository;
+import cm.gov.pki.repository.CrlPublicationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.cert.X509CRLHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CrlPublicationServiceTest {
+
+    @TempDir
+    Path caStore;
+
+    @Mock
+    private CAService caService;
+    @Mock
+    private CrlPublicationRepository crlPublicationRepository;
+    @Mock
+    private CertificateRepository certificateRepository;
+    @Mock
+    private SigningKeyService signingKeyService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final KeyPair caKey = new KeyPairPool().take(KeyProfile.EC_P256);
+    private final SigningEngine signingEngine = new SigningEngine();
+
+    @Test
+    void publish_incrementsNumberAndRecordsFileInPlace() throws Exception {
+        CAConfiguration ca = new CAConfiguration();
+        ca.id = UUID.randomUUID();
+        ca.caName = "Test CA";
+        CrlPublication publication = new CrlPublication();
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        when(crlPublicationRepository.findForUpdate(ca.id, 0)).thenReturn(Optional.of(publication));
+        when(crlPublicationRepository.saveAll(List.of(publication))).thenReturn(List.of(publication));
+        when(caService.crlPathFor(ca, 0)).thenReturn(caStore.resolve("test_ca.crl.pem"));
+        when(caService.revokedEntries(ca)).thenReturn(List.of());
+        when(caService.prepareCRL(eq(ca), eq(0), eq(List.of()), any())).thenAnswer(inv -> crlBuilder(inv.getArgument(3)));
+        when(signingKeyService.acquire(ca)).thenAnswer(inv -> signingKey());
+        CrlPublicationService service = newService();
+
+        service.publish(ca);
+        CrlPublication second = service.publish(ca).get(0);
+
+        assertEquals(2, second.getCrlNumber());
+        verify(caService).prepareCRL(ca, 0, List.of(), BigInteger.ONE);
+        verify(caService).prepareCRL(ca, 0, List.of(), BigInteger.TWO);
+        verify(crlPublicationRepository, times(2)).ensureExists(ca.id, 0);
+        byte[] der = Files.readAllBytes(Path.of(second.getPath()));
+        assertEquals(caStore.resolve("test_ca.crl").toString(), second.getPath());
+        assertEquals(der.length, second.getSizeBytes());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(der)), second.getSha256());
+        assertNotNull(second.getNextUpdate());
+        assertTrue(Files.readString(caStore.resolve("test_ca.crl.pem")).contains("BEGIN X509 CRL"));
+        try (var files = Files.list(caStore)) {
+            assertEquals(2, files.count(), "aucun fichier temporaire ne doit rester");
+        }
+
+        // Servie depuis la mémoire, sans relire la base
+        CrlPublicationService.PublishedCrl current = service.current(ca.id).orElseThrow();
+        assertEquals(2, current.crlNumber());
+        assertArrayEquals(der, current.der());
+        assertEquals(BigInteger.TWO, CRLNumber.getInstance(new X509CRLHolder(current.der())
+                .getExtension(Extension.cRLNumber).getParsedValue()).getCRLNumber());
+        verify(crlPublicationRepository, never()).findByCaIdAndShard(any(), anyInt());
+    }
+
+    @Test
+    void publishShard_republishesOnlyTheShardOfTheRevokedSerial() throws Exception {
+        CAConfiguration ca = new CAConfiguration();
+        ca.id = UUID.randomUUID();
+        ca.caName = "Sharded CA";
+        ca.crlShardCount = 2;
+        CAService.RevokedEntry even = new CAService.RevokedEntry(BigInteger.valueOf(10), Date.from(Instant.now()));
+        CAService.RevokedEntry odd = new CAService.RevokedEntry(BigInteger.valueOf(11), Date.from(Instant.now()));
+        CrlPublication shard0 = new CrlPublication();
+        CrlPublication shard1 = new CrlPublication();
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        when(crlPublicationRepository.findForUpdate(ca.id, 0)).thenReturn(Optional.of(shard0));
+        when(crlPublicationRepository.findForUpdate(ca.id, 1)).thenReturn(Optional.of(shard1));
+        when(crlPublicationRepository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(caService.crlPathFor(ca, 0)).thenReturn(caStore.resolve("sharded_ca-0.crl.pem"));
+        when(caService.crlPathFor(ca, 1)).thenReturn(caStore.resolve("sharded_ca-1.crl.pem"));
+        when(caService.revokedEntries(ca)).thenReturn(List.of(even, odd));
+        when(caService.revokedEntries(ca, 1)).thenReturn(List.of(odd));
+        when(caService.crlShardOf(eq(ca), any())).thenAnswer(inv -> ((BigInteger) inv.getArgument(1)).intValue() % 2);
+        when(caService.prepareCRL(eq(ca), anyInt(), any(), any())).thenAnswer(inv -> {
+            X509v2CRLBuilder builder = crlBuilder(inv.getArgument(3));
+            for (CAService.RevokedEntry entry : inv.<List<CAService.RevokedEntry>>getArgument(2)) {
+                builder.addCRLEntry(entry.serial(), entry.revokedAt(), 0);
+            }
+            return builder;
+        });
+        when(signingKeyService.acquire(ca)).thenAnswer(inv -> signingKey());
+        CrlPublicationService service = newService();
+
+        List<CrlPublication> all = service.publish(ca);
+        CrlPublication republished = service.publishShard(ca, 1);
+
+        assertEquals(2, all.size());
+        assertEquals(1, shard0.getCrlNumber());
+        assertEquals(2, republished.getCrlNumber());
+        verify(caService).prepareCRL(ca, 0, List.of(even), BigInteger.ONE);
+        verify(caService).prepareCRL(ca, 1, List.of(odd), BigInteger.TWO);
+        // La republication d'une partition ne lit que ses entrées
+        verify(caService, times(1)).revokedEntries(ca);
+        verify(caService, never()).revokedEntries(ca, 0);
+        X509CRLHolder crl0 = new X509CRLHolder(service.current(ca.id, 0).orElseThrow().der());
+        X509CRLHolder crl1 = new X509CRLHolder(service.current(ca.id, 1).orElseThrow().der());
+        assertNotNull(crl0.getRevokedCertificate(BigInteger.valueOf(10)));
+        assertNull(crl0.getRevokedCertificate(BigInteger.valueOf(11)));
+        assertNotNull(crl1.getRevokedCertificate(BigInteger.valueOf(11)));
+        assertEquals(2, service.current(ca.id, 1).orElseThrow().crlNumber());
+        assertThrows(IllegalArgumentException.class, () -> service.publishShard(ca, 2));
+    }
+
+    @Test
+    void publish_leavesNoFileWhenCommitFails() throws Exception {
+        CAConfiguration ca = new CAConfiguration();
+        ca.id = UUID.randomUUID();
+        ca.caName = "Test CA";
+        CrlPublication publication = new CrlPublication();
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        doThrow(new TransactionSystemException("commit refusé")).when(transactionManager).commit(any());
+        when(crlPublicationRepository.findForUpdate(ca.id, 0)).thenReturn(Optional.of(publication));
+        when(crlPublicationRepository.saveAll(List.of(publication))).thenReturn(List.of(publication));
+        when(caService.crlPathFor(ca, 0)).thenReturn(caStore.resolve("test_ca.crl.pem"));
+        when(caService.revokedEntries(ca)).thenReturn(List.of());
+        when(caService.prepareCRL(eq(ca), eq(0), eq(List.of()), any())).thenAnswer(inv -> crlBuilder(inv.getArgument(3)));
+        when(signingKeyService.acquire(ca)).thenAnswer(inv -> signingKey());
+        CrlPublicationService service = newService();
+
+        assertThrows(TransactionSystemException.class, () -> service.publish(ca));
+
+        // Ni CRL publiée, ni fichier temporaire, ni entrée en mémoire
+        try (var files = Files.list(caStore)) {
+            assertEquals(0, files.count());
+        }
+        when(crlPublicationRepository.findByCaIdAndShard(ca.id, 0)).thenReturn(Optional.empty());
+        assertTrue(service.current(ca.id).isEmpty());
+    }
+
+    @Test
+    void current_loadsPublishedFileWhenNotCached() throws Exception {
+        CrlPublicationService service = newService();
+        UUID caId = UUID.randomUUID();
+        X509CRLHolder crl = crl(BigInteger.valueOf(7));
+        Path der = Files.write(caStore.resolve("other.crl"), crl.getEncoded());
+        CrlPublication publication = new CrlPublication();
+        publication.published(7, null, null, der.toString(), "unused", 0);
+        when(crlPublicationRepository.findByCaIdAndShard(caId, 0)).thenReturn(Optional.of(publication));
+
+        CrlPublicationService.PublishedCrl current = service.current(caId).orElseThrow();
+
+        assertEquals(7, current.crlNumber());
+        assertArrayEquals(crl.getEncoded(), current.der());
+        assertNotNull(current.nextUpdate());
+        UUID unpublished = UUID.randomUUID();
+        when(crlPublicationRepository.findByCaIdAndShard(unpublished, 0)).thenReturn(Optional.empty());
+        assertTrue(service.current(unpublished).isEmpty());
+    }
+
+    private CrlPublicationService newService() {
+        return new CrlPublicationService(caService, crlPublicationRepository, certificateRepository,
+                signingEngine, signingKeyService, transactionManager, new SimpleMeterRegistry());
+    }
+
+    private SigningKeyHandle signingKey() {
+        return new SigningKeyHandle(new SigningKeyProvider.KeyMaterial(caKey.getPrivate(), "BC", "SHA256withECDSA"), "test", null);
+    }
+
+    private X509v2CRLBuilder crlBuilder(BigInteger number) throws Exception {
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(new X500Name("CN=Test CA"), Date.from(Instant.now()));
+        builder.setNextUpdate(Date.from(Instant.now().plusSeconds(3600)));
+        builder.addExtension(Extension.cRLNumber, false, new CRLNumber(number));
+        return builder;
+    }
+
+    private X509CRLHolder crl(BigInteger number) throws Exception {
+        return crlBuilder(number).build(new JcaContentSignerBuilder("SHA256withECDSA").setProvider("BC").build(caKey.getPrivate()));
+    }
+}
@@ -0,0 +1,82 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.event.CertificateRequestStatusChangedEvent;
+import cm.gov.pki.event.CertificateStatusChangedEvent;
+import cm.gov.pki.event.DashboardCounterChangedEvent;
+import cm.gov.pki.event.UserRegisteredEvent;
+import cm.gov.pki.repository.CertificateRepository;
+import cm.gov.pki.repository.CertificateRequestRepository;
+import cm.gov.pki.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DashboardCounterServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CertificateRequestRepository certificateRequestRepository;
+    @Mock
+    private CertificateRepository certificateRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DashboardCounterService counters;
+
+    @Test
+    void events_updateCountersWithoutQueries() {
+        when(userRepository.count()).thenReturn(3L);
+        when(certificateRequestRepository.countGroupedByStatus())
+                .thenReturn(List.<Object[]>of(new Object[]{"PENDING", 2L}, new Object[]{"issued", 1L}));
+        when(certificateRepository.countGroupedByStatus())
+                .thenReturn(List.<Object[]>of(new Object[]{Certificate.CertificateStatus.ACTIVE, 5L}));
+        counters.reconcile();
+
+        counters.onUserRegistered(new UserRegisteredEvent(UUID.randomUUID()));
+        counters.onRequestStatusChanged(new CertificateRequestStatusChangedEvent(UUID.randomUUID(), "PENDING", "ISSUED", LocalDateTime.now()));
+        counters.onCertificateStatusChanged(new CertificateStatusChangedEvent(UUID.randomUUID(), null, Certificate.CertificateStatus.ACTIVE));
+        counters.onCertificateStatusChanged(new CertificateStatusChangedEvent(UUID.randomUUID(),
+                Certificate.CertificateStatus.ACTIVE, Certificate.CertificateStatus.REVOKED));
+
+        assertEquals(4, counters.users());
+        assertEquals(1, counters.requests("PENDING"));
+        assertEquals(2, counters.requests("ISSUED"));
+        assertEquals(3, counters.totalRequests());
+        assertEquals(5, counters.certificates(Certificate.CertificateStatus.ACTIVE));
+        assertEquals(1, counters.certificates(Certificate.CertificateStatus.REVOKED));
+        assertEquals(6, counters.totalCertificates());
+        verify(userRepository, times(1)).count();
+        verify(eventPublisher).publishEvent(new DashboardCounterChangedEvent("requests.PENDING", -1, 1));
+        verify(eventPublisher).publishEvent(new DashboardCounterChangedEvent("certificates.REVOKED", 1, 1));
+        assertEquals(Long.valueOf(4), counters.snapshot().get("users"));
+    }
+
+    @Test
+    void reconcile_replacesDriftedValues() {
+        when(userRepository.count()).thenReturn(10L);
+        when(certificateRequestRepository.countGroupedByStatus()).thenReturn(List.of());
+        when(certificateRepository.countGroupedByStatus()).thenReturn(List.of());
+        counters.reconcile();
+
+        counters.onCertificateStatusChanged(new CertificateStatusChangedEvent(UUID.randomUUID(), null, Certificate.CertificateStatus.ACTIVE));
+        counters.reconcile();
+
+        assertEquals(10, counters.users());
+        assertEquals(0, counters.totalCertificates());
+        verify(eventPublisher).publishEvent(new DashboardCounterChangedEvent("certificates.ACTIVE", -1, 0));
+    }
+}
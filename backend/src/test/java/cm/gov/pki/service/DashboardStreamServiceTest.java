@@ -0,0 +1,126 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.event.CertificateRequestStatusChangedEvent;
+import cm.gov.pki.event.DashboardCounterChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DashboardStreamServiceTest {
+
+    @Mock
+    private DashboardCounterService dashboardCounters;
+
+    private DashboardStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DashboardStreamService(dashboardCounters);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void subscribe_sendsSnapshotBeforeAnyBroadcast() throws Exception {
+        when(dashboardCounters.snapshot()).thenReturn(Map.of("users", 3L));
+        service.onCounterChanged(new DashboardCounterChangedEvent("users", 1, 3));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        service.subscribe(emitter);
+        service.onCounterChanged(new DashboardCounterChangedEvent("users", 1, 4));
+        LocalDateTime submittedAt = LocalDateTime.of(2026, 1, 15, 9, 30);
+        service.onRequestStatusChanged(new CertificateRequestStatusChangedEvent(UUID.randomUUID(), null, "PENDING", submittedAt));
+
+        String snapshot = emitter.next();
+        assertTrue(snapshot.contains("event:snapshot"), snapshot);
+        assertTrue(snapshot.contains("users=3"), snapshot);
+        assertTrue(emitter.next().contains("event:counter"));
+        String request = emitter.next();
+        assertTrue(request.contains("event:request"), request);
+        // Horodatage de la demande, pas celui de la diffusion
+        assertTrue(request.contains(submittedAt.toString()), request);
+        assertNull(emitter.events.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, service.subscriberCount());
+    }
+
+    @Test
+    void subscriber_isRemovedWhenSendFails() throws Exception {
+        when(dashboardCounters.snapshot()).thenReturn(Map.of());
+        RecordingEmitter gone = new RecordingEmitter();
+        gone.fail = true;
+        RecordingEmitter live = new RecordingEmitter();
+
+        service.subscribe(gone);
+        service.subscribe(live);
+        live.next();
+        waitFor(() -> service.subscriberCount() == 1);
+
+        gone.fail = false;
+        service.onCounterChanged(new DashboardCounterChangedEvent("users", 1, 1));
+        assertTrue(live.next().contains("event:counter"));
+        assertNull(gone.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void stop_forgetsAllSubscribers() throws Exception {
+        when(dashboardCounters.snapshot()).thenReturn(Map.of());
+        service.subscribe(new RecordingEmitter());
+        service.subscribe(new RecordingEmitter());
+        assertEquals(2, service.subscriberCount());
+
+        service.stop();
+
+        assertEquals(0, service.subscriberCount());
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition non atteinte");
+            Thread.sleep(10);
+        }
+    }
+
+    // Émetteur sans connexion HTTP : enregistre le texte de chaque événement envoyé
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        volatile boolean fail;
+
+        @Override
+        public synchronized void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            if (fail) {
+                throw new IOException("client parti");
+            }
+            events.add(items.stream().map(item -> String.valueOf(item.getData())).collect(Collectors.joining()));
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "aucun événement reçu");
+            return event;
+        }
+    }
+}
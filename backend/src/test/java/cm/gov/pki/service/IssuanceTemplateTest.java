@@ -0,0 +1,176 @@
+package cm.gov.pki.service;
+
+import org.bouncycastle.asn1.DERIA5String;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IssuanceTemplateTest {
+
+    private static final X500Name SERVER = new X500Name("C=CM, O=PKI Souverain, CN=www.example.cm");
+
+    private final KeyPairPool keyPairPool = new KeyPairPool();
+    private final KeyPair caKey = keyPairPool.take(KeyProfile.EC_P256);
+    private final X509CertificateHolder caCert = selfSigned(caKey);
+
+    @Test
+    void apply_addsStaticExtensionsAndComputedSki() throws Exception {
+        IssuanceTemplate template = new IssuanceTemplate(CertificateProfile.SIGNATURE, caCert,
+                "https://pki.example/crl/ca.crt", List.of("https://pki.example/crl/ca/0.crl", "https://pki.example/crl/ca/1.crl"));
+        KeyPair subjectKey = keyPairPool.take(KeyProfile.RSA_2048);
+
+        X509CertificateHolder leaf = issue(template, subjectKey, 1, null);
+
+        assertEquals(new KeyUsage(KeyUsage.digitalSignature | KeyUsage.nonRepudiation),
+                KeyUsage.fromExtensions(leaf.getExtensions()));
+        assertTrue(leaf.getExtension(Extension.keyUsage).isCritical());
+        assertTrue(ExtendedKeyUsage.fromExtensions(leaf.getExtensions()).hasKeyPurposeId(KeyPurposeId.id_kp_emailProtection));
+        assertEquals(new JcaX509ExtensionUtils().createSubjectKeyIdentifier(subjectKey.getPublic()),
+                SubjectKeyIdentifier.fromExtensions(leaf.getExtensions()));
+        assertArrayEquals(new JcaX509ExtensionUtils().createAuthorityKeyIdentifier(caKey.getPublic()).getKeyIdentifier(),
+                AuthorityKeyIdentifier.fromExtensions(leaf.getExtensions()).getKeyIdentifier());
+        CRLDistPoint cdp = CRLDistPoint.getInstance(leaf.getExtension(Extension.cRLDistributionPoints).getParsedValue());
+        GeneralName crlUrl = GeneralNames.getInstance(cdp.getDistributionPoints()[0].getDistributionPoint().getName()).getNames()[0];
+        assertEquals("https://pki.example/crl/ca/1.crl", DERIA5String.getInstance(crlUrl.getName()).getString());
+        assertNotNull(leaf.getExtension(Extension.authorityInfoAccess));
+        assertFalse(BasicConstraints.fromExtensions(leaf.getExtensions()).isCA());
+    }
+
+    @Test
+    void tlsServer_keyEnciphermentOnlyForRsaAndSanRequired() throws Exception {
+        IssuanceTemplate template = new IssuanceTemplate(CertificateProfile.TLS_SERVER, caCert,
+                "https://pki.example/crl/ca.crt", List.of("https://pki.example/crl/ca.crl"));
+        Extensions san = new Extensions(new Extension(Extension.subjectAlternativeName, false,
+                new GeneralNames(new GeneralName(GeneralName.dNSName, "www.example.cm")).getEncoded()));
+
+        X509CertificateHolder rsaLeaf = issue(template, SERVER, keyPairPool.take(KeyProfile.RSA_2048), 0, san);
+        X509CertificateHolder ecLeaf = issue(template, SERVER, keyPairPool.take(KeyProfile.EC_P256), 0, san);
+
+        assertTrue(KeyUsage.fromExtensions(rsaLeaf.getExtensions()).hasUsages(KeyUsage.keyEncipherment));
+        assertFalse(KeyUsage.fromExtensions(ecLeaf.getExtensions()).hasUsages(KeyUsage.keyEncipherment));
+        assertEquals(san.getExtension(Extension.subjectAlternativeName), ecLeaf.getExtension(Extension.subjectAlternativeName));
+        assertThrows(IllegalArgumentException.class,
+                () -> issue(template, SERVER, keyPairPool.take(KeyProfile.EC_P256), 0, null));
+    }
+
+    @Test
+    void subjectAltName_rebuiltFromValidatedNames() throws Exception {
+        IssuanceTemplate template = new IssuanceTemplate(CertificateProfile.TLS_SERVER, caCert,
+                "https://pki.example/crl/ca.crt", List.of("https://pki.example/crl/ca.crl"));
+        // Extension demandée critique, nom en majuscules et en double : seul le contenu validé est repris
+        Extensions requested = san(true, new GeneralName(GeneralName.dNSName, "WWW.Example.cm"),
+                new GeneralName(GeneralName.dNSName, "www.example.cm"),
+                new GeneralName(GeneralName.iPAddress, "192.0.2.10"));
+
+        Extension leafSan = issue(template, SERVER, keyPairPool.take(KeyProfile.EC_P256), 0, requested)
+                .getExtension(Extension.subjectAlternativeName);
+
+        assertFalse(leafSan.isCritical());
+        assertArrayEquals(new GeneralName[]{new GeneralName(GeneralName.dNSName, "www.example.cm"),
+                        new GeneralName(GeneralName.iPAddress, "192.0.2.10")},
+                GeneralNames.getInstance(leafSan.getParsedValue()).getNames());
+    }
+
+    @Test
+    void subjectAltName_criticalOnlyForEmptySubject() throws Exception {
+        IssuanceTemplate template = new IssuanceTemplate(CertificateProfile.TLS_SERVER, caCert,
+                "https://pki.example/crl/ca.crt", List.of("https://pki.example/crl/ca.crl"));
+        Extensions requested = san(false, new GeneralName(GeneralName.dNSName, "www.example.cm"));
+
+        X509CertificateHolder leaf = issue(template, new X500Name(""), keyPairPool.take(KeyProfile.EC_P256), 0, requested);
+
+        assertTrue(leaf.getExtension(Extension.subjectAlternativeName).isCritical());
+    }
+
+    @Test
+    void subjectAltName_rejectsNamesOutsideProfileOrSubject() throws Exception {
+        IssuanceTemplate tls = new IssuanceTemplate(CertificateProfile.TLS_SERVER, caCert,
+                "https://pki.example/crl/ca.crt", List.of("https://pki.example/crl/ca.crl"));
+        IssuanceTemplate signature = new IssuanceTemplate(CertificateProfile.SIGNATURE, caCert,
+                "https://pki.example/crl/ca.crt", List.of("https://pki.example/crl/ca.crl"));
+        X500Name person = new X500Name("CN=Titulaire, E=titulaire@example.cm");
+        KeyPair key = keyPairPool.take(KeyProfile.EC_P256);
+
+        // Type non admis par le profil
+        assertThrows(IllegalArgumentException.class, () -> issue(tls, SERVER, key, 0,
+                san(false, new GeneralName(GeneralName.dNSName, "www.example.cm"),
+                        new GeneralName(GeneralName.uniformResourceIdentifier, "https://www.example.cm"))));
+        // CN du sujet absent des noms
+        assertThrows(IllegalArgumentException.class, () -> issue(tls, SERVER, key, 0,
+                san(false, new GeneralName(GeneralName.dNSName, "autre.example.cm"))));
+        // Nom DNS ou adresse IP mal formés
+        assertThrows(IllegalArgumentException.class, () -> issue(tls, SERVER, key, 0,
+                san(false, new GeneralName(GeneralName.dNSName, "www.example.cm"),
+                        new GeneralName(GeneralName.dNSName, "www..example.cm"))));
+        assertThrows(IllegalArgumentException.class, () -> issue(tls, SERVER, key, 0,
+                san(false, new GeneralName(GeneralName.dNSName, "www.example.cm"),
+                        new GeneralName(GeneralName.iPAddress, new DEROctetString(new byte[3])))));
+        // Adresse email différente de celle du sujet
+        assertThrows(IllegalArgumentException.class, () -> issue(signature, person, key, 0,
+                san(false, new GeneralName(GeneralName.rfc822Name, "autre@example.cm"))));
+
+        X509CertificateHolder leaf = issue(signature, person, key, 0,
+                san(false, new GeneralName(GeneralName.rfc822Name, "titulaire@example.cm")));
+        assertNotNull(leaf.getExtension(Extension.subjectAlternativeName));
+    }
+
+    @Test
+    void byName_acceptsApiNames() {
+        assertEquals(CertificateProfile.TLS_SERVER, CertificateProfile.byName("TLS_SERVER").orElseThrow());
+        assertEquals(CertificateProfile.AUTHENTICATION, CertificateProfile.byName(" authentication ").orElseThrow());
+        assertTrue(CertificateProfile.byName("qualified").isEmpty());
+    }
+
+    private X509CertificateHolder issue(IssuanceTemplate template, KeyPair subjectKey, int shard, Extensions requested) throws Exception {
+        return issue(template, new X500Name("CN=Titulaire"), subjectKey, shard, requested);
+    }
+
+    private X509CertificateHolder issue(IssuanceTemplate template, X500Name subject, KeyPair subjectKey, int shard,
+                                        Extensions requested) throws Exception {
+        SubjectPublicKeyInfo spki = SubjectPublicKeyInfo.getInstance(subjectKey.getPublic().getEncoded());
+        X509v3CertificateBuilder builder = new X509v3CertificateBuilder(caCert.getSubject(), BigInteger.TEN,
+                Date.from(Instant.now()), Date.from(Instant.now().plusSeconds(3600)), subject, spki);
+        template.apply(builder, subject, spki, shard, requested);
+        return builder.build(new JcaContentSignerBuilder("SHA256withECDSA").build(caKey.getPrivate()));
+    }
+
+    private static Extensions san(boolean critical, GeneralName... names) throws Exception {
+        return new Extensions(new Extension(Extension.subjectAlternativeName, critical, new GeneralNames(names).getEncoded()));
+    }
+
+    private static X509CertificateHolder selfSigned(KeyPair key) {
+        try {
+            X500Name name = new X500Name("CN=Test CA");
+            return new JcaX509v3CertificateBuilder(name, BigInteger.ONE, Date.from(Instant.now()),
+                    Date.from(Instant.now().plusSeconds(86400)), name, key.getPublic())
+                    .build(new JcaContentSignerBuilder("SHA256withECDSA").build(key.getPrivate()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import cm.gov.pki.repository.CAConfigurationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IssuingCASelectorTest {
+
+    @Mock
+    private CAConfigurationRepository caConfigurationRepository;
+
+    private IssuingCASelector selector;
+
+    @BeforeEach
+    void setUp() {
+        selector = new IssuingCASelector(caConfigurationRepository);
+    }
+
+    @Test
+    void select_roundRobinSkipsExpiredIntermediates() {
+        CAConfiguration expired = ca("expired", LocalDateTime.now().minusDays(1));
+        CAConfiguration first = ca("first", LocalDateTime.now().plusYears(1));
+        CAConfiguration second = ca("second", LocalDateTime.now().plusYears(1));
+        when(caConfigurationRepository.findByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtAsc())
+                .thenReturn(List.of(expired, first, second));
+
+        assertSame(first, selector.select(null));
+        assertSame(second, selector.select(null));
+        assertSame(first, selector.select(null));
+    }
+
+    @Test
+    void select_dropsDeactivatedIntermediateAfterRefresh() {
+        CAConfiguration first = ca("first", LocalDateTime.now().plusYears(1));
+        CAConfiguration second = ca("second", LocalDateTime.now().plusYears(1));
+        when(caConfigurationRepository.findByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtAsc())
+                .thenReturn(List.of(first, second), List.of(second));
+
+        assertSame(first, selector.select(null));
+        selector.refresh();
+
+        assertSame(second, selector.select(null));
+        assertSame(second, selector.select(null));
+    }
+
+    @Test
+    void select_fallsBackToRootWithoutUsableIntermediate() {
+        CAConfiguration root = ca("root", LocalDateTime.now().plusYears(10));
+        when(caConfigurationRepository.findByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtAsc())
+                .thenReturn(List.of(), List.of(ca("expired", LocalDateTime.now().minusDays(1))));
+        when(caConfigurationRepository.findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc())
+                .thenReturn(Optional.of(root));
+
+        assertSame(root, selector.select(null));
+        selector.refresh();
+        assertSame(root, selector.select(null));
+    }
+
+    @Test
+    void select_failsWithoutActiveRoot() {
+        when(caConfigurationRepository.findByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtAsc()).thenReturn(List.of());
+        when(caConfigurationRepository.findFirstByParentIdIsNullAndIsActiveTrueOrderByCreatedAtDesc())
+                .thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> selector.select(null));
+    }
+
+    @Test
+    void select_leastLoadedPrefersIdleIntermediate() {
+        ReflectionTestUtils.setField(selector, "selectionPolicy", "least-loaded");
+        CAConfiguration busy = ca("busy", LocalDateTime.now().plusYears(1));
+        CAConfiguration idle = ca("idle", LocalDateTime.now().plusYears(1));
+        when(caConfigurationRepository.findByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtAsc())
+                .thenReturn(List.of(busy, idle));
+
+        assertSame(busy, selector.acquire(null));
+        assertSame(idle, selector.select(null));
+        selector.release(busy);
+        assertEquals(0, selector.load(busy));
+    }
+
+    @Test
+    void select_perProfileNeverUsesCaReservedForAnotherProfile() {
+        ReflectionTestUtils.setField(selector, "selectionPolicy", "per-profile");
+        CAConfiguration tls = ca("tls", LocalDateTime.now().plusYears(1));
+        tls.issuingProfile = "tls-server";
+        when(caConfigurationRepository.findByIsIssuingTrueAndIsActiveTrueOrderByCreatedAtAsc())
+                .thenReturn(List.of(tls));
+
+        assertSame(tls, selector.select("TLS-SERVER"));
+        assertThrows(RuntimeException.class, () -> selector.select("signature"));
+        assertThrows(RuntimeException.class, () -> selector.select(null));
+    }
+
+    private static CAConfiguration ca(String name, LocalDateTime validUntil) {
+        CAConfiguration ca = new CAConfiguration();
+        ca.id = UUID.randomUUID();
+        ca.caName = name;
+        ca.parentId = UUID.randomUUID();
+        ca.isActive = true;
+        ca.isIssuing = true;
+        ca.validUntil = validUntil;
+        return ca;
+    }
+}
@@ -0,0 +1,59 @@
+package cm.gov.pki.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.Signature;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyPairPoolTest {
+
+    private final KeyPairPool pool = new KeyPairPool();
+
+    @AfterEach
+    void tearDown() {
+        pool.stop();
+    }
+
+    @Test
+    void take_withoutPool_generatesSynchronously() {
+        KeyPair kp = pool.take("RSA", 2048);
+        assertNotNull(kp);
+        assertEquals("RSA", kp.getPublic().getAlgorithm());
+    }
+
+    @Test
+    void take_returnsDistinctUsableKeysAndRefills() throws Exception {
+        ReflectionTestUtils.setField(pool, "specs", "RSA:2048=2");
+        pool.start();
+        waitForAvailable(2);
+
+        KeyPair first = pool.take("rsa", 2048);
+        KeyPair second = pool.take("RSA", 2048);
+        assertNotEquals(first.getPublic(), second.getPublic());
+
+        byte[] data = "pki".getBytes(StandardCharsets.UTF_8);
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(first.getPrivate());
+        signer.update(data);
+        byte[] sig = signer.sign();
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(first.getPublic());
+        verifier.update(data);
+        assertTrue(verifier.verify(sig));
+
+        waitForAvailable(2);
+    }
+
+    private void waitForAvailable(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (pool.available("RSA", 2048) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, pool.available("RSA", 2048));
+    }
+}
@@ -0,0 +1,38 @@
+package cm.gov.pki.service;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Provider;
+import java.security.spec.ECGenParameterSpec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyProfileTest {
+
+    private static final Provider BC = new BouncyCastleProvider();
+
+    @Test
+    void fromKey_matchesNamedCurvesExactly() throws Exception {
+        assertEquals(KeyProfile.EC_P256, KeyProfile.fromKey(ec("secp256r1", null).getPublic()));
+        assertEquals(KeyProfile.EC_P384, KeyProfile.fromKey(ec("secp384r1", null).getPrivate()));
+        assertEquals(KeyProfile.EC_P256, KeyProfile.fromKey(ec("secp256r1", BC).getPrivate()));
+        assertEquals("SHA384withECDSA", KeyProfile.signatureAlgorithmFor(ec("secp384r1", BC).getPublic()));
+    }
+
+    @Test
+    void fromKey_rejectsUnsupportedCurves() throws Exception {
+        for (String curve : new String[] {"secp521r1", "brainpoolP256r1", "brainpoolP384r1", "secp256k1"}) {
+            KeyPair kp = ec(curve, BC);
+            assertThrows(IllegalArgumentException.class, () -> KeyProfile.fromKey(kp.getPublic()), curve);
+        }
+    }
+
+    private static KeyPair ec(String curve, Provider provider) throws Exception {
+        KeyPairGenerator kpg = provider == null ? KeyPairGenerator.getInstance("EC") : KeyPairGenerator.getInstance("EC", provider);
+        kpg.initialize(new ECGenParameterSpec(curve));
+        return kpg.generateKeyPair();
+    }
+}
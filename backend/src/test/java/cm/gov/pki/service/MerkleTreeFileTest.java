@@ -0,0 +1,123 @@
+package cm.gov.pki.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MerkleTreeFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rootAndProofs_matchRfc6962Definitions() throws Exception {
+        List<byte[]> leaves = new ArrayList<>();
+        try (MerkleTreeFile tree = new MerkleTreeFile(dir)) {
+            assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                    HexFormat.of().formatHex(tree.rootHash(0)));
+            for (int i = 0; i < 70; i++) {
+                byte[] leaf = MerkleTreeFile.leafHash(("certificat-" + i).getBytes());
+                leaves.add(leaf);
+                tree.append(leaf);
+            }
+
+            for (int n = 1; n <= 70; n++) {
+                assertArrayEquals(mth(leaves, 0, n), tree.rootHash(n), "racine n=" + n);
+                for (int m = 0; m < n; m++) {
+                    assertProofEquals(path(leaves, m, 0, n), tree.inclusionProof(m, n));
+                }
+                for (int m = 1; m <= n; m++) {
+                    List<byte[]> expected = new ArrayList<>();
+                    if (m < n) subproof(leaves, m, 0, n, true, expected);
+                    assertProofEquals(expected, tree.consistencyProof(m, n));
+                }
+            }
+            assertThrows(IllegalArgumentException.class, () -> tree.inclusionProof(5, 71));
+            assertThrows(IllegalArgumentException.class, () -> tree.consistencyProof(6, 5));
+        }
+    }
+
+    @Test
+    void reopen_repairsInterruptedAppend() throws Exception {
+        List<byte[]> leaves = new ArrayList<>();
+        try (MerkleTreeFile tree = new MerkleTreeFile(dir)) {
+            for (int i = 0; i < 7; i++) {
+                byte[] leaf = MerkleTreeFile.leafHash(new byte[] {(byte) i});
+                leaves.add(leaf);
+                tree.append(leaf);
+            }
+        }
+        // 8e feuille écrite sans ses nœuds parents, suivie d'un hash partiel
+        byte[] eighth = MerkleTreeFile.leafHash(new byte[] {7});
+        leaves.add(eighth);
+        try (FileChannel level0 = FileChannel.open(dir.resolve("level-00.bin"), StandardOpenOption.WRITE)) {
+            level0.write(ByteBuffer.wrap(eighth), 7L * MerkleTreeFile.HASH_SIZE);
+            level0.write(ByteBuffer.wrap(new byte[5]), 8L * MerkleTreeFile.HASH_SIZE);
+        }
+
+        try (MerkleTreeFile tree = new MerkleTreeFile(dir)) {
+            assertEquals(8, tree.size());
+            assertArrayEquals(mth(leaves, 0, 8), tree.rootHash(8));
+            tree.truncate(5);
+            assertArrayEquals(mth(leaves, 0, 5), tree.rootHash(5));
+            tree.append(leaves.get(5));
+            assertArrayEquals(mth(leaves, 0, 6), tree.rootHash(6));
+        }
+    }
+
+    // Définitions de RFC 6962 (2.1) sur une liste en mémoire
+
+    private static byte[] mth(List<byte[]> leaves, int start, int end) {
+        int n = end - start;
+        if (n == 1) return leaves.get(start);
+        int k = Integer.highestOneBit(n - 1);
+        return MerkleTreeFile.nodeHash(mth(leaves, start, start + k), mth(leaves, start + k, end));
+    }
+
+    private static List<byte[]> path(List<byte[]> leaves, int m, int start, int end) {
+        List<byte[]> proof = new ArrayList<>();
+        int n = end - start;
+        if (n == 1) return proof;
+        int k = Integer.highestOneBit(n - 1);
+        if (m < k) {
+            proof.addAll(path(leaves, m, start, start + k));
+            proof.add(mth(leaves, start + k, end));
+        } else {
+            proof.addAll(path(leaves, m - k, start + k, end));
+            proof.add(mth(leaves, start, start + k));
+        }
+        return proof;
+    }
+
+    private static void subproof(List<byte[]> leaves, int m, int start, int end, boolean complete, List<byte[]> proof) {
+        int n = end - start;
+        if (m == n) {
+            if (!complete) proof.add(mth(leaves, start, end));
+            return;
+        }
+        int k = Integer.highestOneBit(n - 1);
+        if (m <= k) {
+            subproof(leaves, m, start, start + k, complete, proof);
+            proof.add(mth(leaves, start + k, end));
+        } else {
+            subproof(leaves, m - k, start + k, end, false, proof);
+            proof.add(mth(leaves, start, start + k));
+        }
+    }
+
+    private static void assertProofEquals(List<byte[]> expected, List<byte[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+}
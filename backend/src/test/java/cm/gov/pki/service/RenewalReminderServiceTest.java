@@ -0,0 +1,106 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.Certificate;
+import cm.gov.pki.entity.User;
+import cm.gov.pki.repository.CertificateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RenewalReminderServiceTest {
+
+    @Mock
+    private CertificateRepository certificateRepository;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private ClusterLockService clusterLockService;
+
+    @InjectMocks
+    private RenewalReminderService service;
+
+    @Test
+    void sendReminders_pagesByKeyAndSkipsAlreadyReminded() {
+        ReflectionTestUtils.setField(service, "windowsDays", new int[]{7});
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        Certificate first = cert("01", 3);
+        Certificate second = cert("02", 4);
+        Certificate third = cert("03", 5);
+        when(certificateRepository.findExpiringPage(eq(Certificate.CertificateStatus.ACTIVE), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+        when(certificateRepository.reserveRenewalReminders(List.of(first.getId(), second.getId()), 7))
+                .thenReturn(List.of(second.getId()));
+        when(certificateRepository.reserveRenewalReminders(List.of(third.getId()), 7))
+                .thenReturn(List.of(third.getId()));
+        when(emailService.sendRenewalReminderEmail(any(), any(), any(), any(), anyLong())).thenReturn(true);
+
+        assertEquals(2, service.sendReminders());
+
+        // La seconde page reprend après le dernier certificat de la première
+        verify(certificateRepository).findExpiringPage(eq(Certificate.CertificateStatus.ACTIVE), any(),
+                eq(second.getNotAfter()), eq(second.getId()), any(Pageable.class));
+        verify(emailService, never()).sendRenewalReminderEmail(eq("01@example.cm"), any(), any(), any(), anyLong());
+        verify(emailService).sendRenewalReminderEmail(eq("02@example.cm"), eq("Jean Dupont"), eq("02"), eq(second.getNotAfter()), eq(4L));
+        verify(emailService).sendRenewalReminderEmail(eq("03@example.cm"), any(), eq("03"), any(), eq(5L));
+        verify(certificateRepository, never()).releaseRenewalReminder(any(), anyInt());
+    }
+
+    @Test
+    void sendReminders_releasesReservationWhenSendFails() {
+        ReflectionTestUtils.setField(service, "windowsDays", new int[]{7});
+        Certificate failed = cert("01", 3);
+        Certificate thrown = cert("02", 4);
+        Certificate delivered = cert("03", 5);
+        List<UUID> ids = List.of(failed.getId(), thrown.getId(), delivered.getId());
+        when(certificateRepository.findExpiringPage(eq(Certificate.CertificateStatus.ACTIVE), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(failed, thrown, delivered));
+        when(certificateRepository.reserveRenewalReminders(ids, 7)).thenReturn(ids);
+        when(emailService.sendRenewalReminderEmail(eq("01@example.cm"), any(), any(), any(), anyLong())).thenReturn(false);
+        when(emailService.sendRenewalReminderEmail(eq("02@example.cm"), any(), any(), any(), anyLong()))
+                .thenThrow(new IllegalStateException("SMTP indisponible"));
+        when(emailService.sendRenewalReminderEmail(eq("03@example.cm"), any(), any(), any(), anyLong())).thenReturn(true);
+
+        assertEquals(1, service.sendReminders());
+
+        // Les rappels non partis redeviennent dus pour le prochain passage
+        verify(certificateRepository).releaseRenewalReminder(failed.getId(), 7);
+        verify(certificateRepository).releaseRenewalReminder(thrown.getId(), 7);
+        verify(certificateRepository, never()).releaseRenewalReminder(delivered.getId(), 7);
+    }
+
+    @Test
+    void sendReminders_windowsDoNotOverlap() {
+        when(certificateRepository.findExpiringPage(any(), any(), any(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, service.sendReminders());
+
+        // 30 -> ]7, 30], 7 -> ]1, 7], 1 -> ]0, 1]
+        verify(certificateRepository, times(3)).findExpiringPage(any(), any(), any(), any(), any(Pageable.class));
+        verifyNoInteractions(emailService);
+    }
+
+    private static Certificate cert(String serial, int daysLeft) {
+        User user = User.builder().id(UUID.randomUUID()).email(serial + "@example.cm").firstName("Jean").lastName("Dupont").build();
+        return Certificate.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .serialNumber(serial)
+                .notAfter(LocalDateTime.now().plusDays(daysLeft).plusHours(1))
+                .status(Certificate.CertificateStatus.ACTIVE)
+                .build();
+    }
+}
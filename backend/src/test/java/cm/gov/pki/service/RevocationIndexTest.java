@@ -0,0 +1,93 @@
+package cm.gov.pki.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RevocationIndexTest {
+
+    @Test
+    void addAndContains_acrossGrowthAndWideSerials() {
+        RevocationIndex index = new RevocationIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        Set<Long> revoked = new HashSet<>();
+        // Séries aléatoires (émission) et séquentielles (séries héritées)
+        for (int i = 0; i < 50_000; i++) {
+            long serial = i % 2 == 0 ? random.nextLong(1, Long.MAX_VALUE) : 1000 + i;
+            assertEquals(revoked.add(serial), index.add(BigInteger.valueOf(serial)));
+        }
+        assertEquals(revoked.size(), index.size());
+        assertTrue(index.offHeapBytes() >= 2L * revoked.size() * Long.BYTES);
+        for (long serial : revoked) {
+            assertTrue(index.contains(serial));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            long probe = random.nextLong(1, Long.MAX_VALUE);
+            assertEquals(revoked.contains(probe), index.contains(BigInteger.valueOf(probe)));
+        }
+
+        BigInteger wide = BigInteger.ONE.shiftLeft(100).add(BigInteger.TEN);
+        assertFalse(index.contains(wide));
+        assertTrue(index.add(wide));
+        assertFalse(index.add(wide));
+        assertTrue(index.contains(wide));
+        assertFalse(index.contains(BigInteger.ZERO));
+        assertEquals(revoked.size() + 1, index.size());
+    }
+
+    @Test
+    void readersNeverMissCommittedEntriesWhileTableGrows() throws Exception {
+        RevocationIndex index = new RevocationIndex();
+        int total = 200_000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        // Les séries 1..n sont ajoutées dans l'ordre : tout numéro <= au dernier publié doit être trouvé
+        long[] published = new long[1];
+        Thread reader = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(7);
+            while (!done.get() && failure.get() == null) {
+                long upTo;
+                synchronized (published) {
+                    upTo = published[0];
+                }
+                if (upTo == 0) continue;
+                long probe = random.nextLong(1, upTo + 1);
+                if (!index.contains(probe)) {
+                    failure.set("série " + probe + " introuvable (publiées jusqu'à " + upTo + ")");
+                }
+            }
+        });
+        reader.start();
+        for (long serial = 1; serial <= total; serial++) {
+            index.add(serial);
+            if (serial % 1000 == 0) {
+                synchronized (published) {
+                    published[0] = serial;
+                }
+            }
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(total, index.size());
+    }
+
+    @Test
+    void capacity_staysWithinDirectBufferLimit() {
+        int max = RevocationIndex.MAX_CAPACITY;
+        assertEquals(max, RevocationIndex.capacityFor(max / 2));
+        assertThrows(IllegalArgumentException.class, () -> RevocationIndex.capacityFor(max / 2 + 1));
+        assertThrows(IllegalArgumentException.class, () -> new RevocationIndex(Integer.MAX_VALUE));
+
+        assertEquals((long) max * Long.BYTES + Long.BYTES, RevocationIndex.bufferBytes(max));
+        assertTrue(((max - 1) << 3) > 0);
+        assertThrows(IllegalArgumentException.class, () -> RevocationIndex.bufferBytes(max * 2));
+    }
+}
@@ -0,0 +1,110 @@
+package cm.gov.pki.service;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class SigningEngineTest {
+
+    private final KeyPairPool keyPairPool = new KeyPairPool();
+    private final SigningEngine engine = new SigningEngine();
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void signAll_signsEveryCertificateInOrder() throws Exception {
+        ReflectionTestUtils.setField(engine, "parallelism", 4);
+        engine.start();
+        KeyPair ca = keyPairPool.take(KeyProfile.EC_P256);
+
+        List<X509CertificateHolder> signed = engine.signAll(builders(ca, 4, 40), ca.getPrivate());
+
+        assertEquals(40, signed.size());
+        var verifier = new JcaContentVerifierProviderBuilder().setProvider("BC").build(ca.getPublic());
+        for (int i = 0; i < signed.size(); i++) {
+            assertEquals(BigInteger.valueOf(i + 1), signed.get(i).getSerialNumber());
+            assertTrue(signed.get(i).isSignatureValid(verifier));
+        }
+    }
+
+    @Test
+    void signAll_withoutExecutor_signsSequentially() throws Exception {
+        KeyPair ca = keyPairPool.take(KeyProfile.EC_P256);
+        List<X509CertificateHolder> signed = engine.signAll(builders(ca, 1, 5), ca.getPrivate());
+        assertEquals(5, signed.size());
+        assertTrue(signed.get(4).isSignatureValid(new JcaContentVerifierProviderBuilder().setProvider("BC").build(ca.getPublic())));
+    }
+
+    /**
+     * Débit de signature RSA 2048 selon le nombre de workers ; échoue si le parallélisme ne rapporte pas
+     * au moins pki.benchmarks.min-speedup (par défaut 0,6 x workers, plafonné à 4 workers).
+     * mvn test -Dtest=SigningEngineTest -Dpki.benchmarks=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "pki.benchmarks", matches = "true")
+    void benchmark_throughputScalesWithWorkers() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        assumeTrue(cores >= 2, "un seul cœur : pas de gain de parallélisme à mesurer");
+        KeyPair ca = keyPairPool.take(KeyProfile.RSA_2048);
+        int batch = 2000;
+        double baseline = 0;
+        double speedup = 0;
+        int maxWorkers = 1;
+        for (int workers = 1; workers <= cores; workers *= 2) {
+            SigningEngine bench = new SigningEngine();
+            ReflectionTestUtils.setField(bench, "parallelism", workers);
+            bench.start();
+            try {
+                bench.signAll(builders(ca, 1, 200), ca.getPrivate()); // warm-up
+                long start = System.nanoTime();
+                bench.signAll(builders(ca, 1, batch), ca.getPrivate());
+                double perSecond = batch / ((System.nanoTime() - start) / 1e9);
+                if (workers == 1) baseline = perSecond;
+                speedup = perSecond / baseline;
+                maxWorkers = workers;
+                System.out.printf("workers=%d  %.0f certs/s  speedup=%.2fx%n", workers, perSecond, speedup);
+            } finally {
+                bench.stop();
+            }
+        }
+        double minSpeedup = Double.parseDouble(System.getProperty("pki.benchmarks.min-speedup",
+                String.valueOf(0.6 * Math.min(maxWorkers, 4))));
+        assertTrue(speedup >= minSpeedup, String.format("speedup %.2fx avec %d workers, %.2fx attendu au minimum",
+                speedup, maxWorkers, minSpeedup));
+    }
+
+    private static List<JcaX509v3CertificateBuilder> builders(KeyPair ca, int subjectKeys, int count) {
+        KeyPairPool pool = new KeyPairPool();
+        List<KeyPair> subjects = new ArrayList<>();
+        for (int i = 0; i < subjectKeys; i++) {
+            subjects.add(pool.take(KeyProfile.EC_P256));
+        }
+        X500Name issuer = new X500Name("CN=Bench CA, O=PKI Souverain, C=CM");
+        Date notBefore = Date.from(Instant.now());
+        Date notAfter = Date.from(Instant.now().plusSeconds(86_400));
+        List<JcaX509v3CertificateBuilder> builders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            builders.add(new JcaX509v3CertificateBuilder(issuer, BigInteger.valueOf(i + 1), notBefore, notAfter,
+                    new X500Name("CN=leaf-" + i), subjects.get(i % subjects.size()).getPublic()));
+        }
+        return builders;
+    }
+}
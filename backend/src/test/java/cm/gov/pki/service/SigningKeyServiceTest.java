@@ -0,0 +1,114 @@
+package cm.gov.pki.service;
+
+import cm.gov.pki.entity.CAConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SigningKeyServiceTest {
+
+    @TempDir
+    Path caStore;
+
+    private final KeyPairPool keyPairPool = new KeyPairPool();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_pemKey_isLoadedOnceAndSigns() throws Exception {
+        KeyPair kp = keyPairPool.take(KeyProfile.EC_P256);
+        CAConfiguration ca = caWithPemKey(kp);
+        Pkcs12SigningKeyProvider pkcs12 = new Pkcs12SigningKeyProvider(c -> "changeit".toCharArray());
+        ReflectionTestUtils.setField(pkcs12, "caStore", caStore.toString());
+        SigningKeyService service = new SigningKeyService(List.of(new Pkcs11SigningKeyProvider(), new PemFileSigningKeyProvider(), pkcs12), registry);
+
+        X509CertificateHolder signed;
+        try (SigningKeyHandle handle = service.acquire(ca)) {
+            assertEquals("pem", handle.getProviderName());
+            assertEquals("SHA256withECDSA", handle.getSignatureAlgorithm());
+            signed = new SigningEngine().sign(builder(kp), handle);
+        }
+        assertTrue(signed.isSignatureValid(new JcaContentVerifierProviderBuilder().setProvider("BC").build(kp.getPublic())));
+
+        // Servie depuis le cache même si le fichier disparaît
+        Files.delete(Path.of(ca.caKeyPath));
+        try (SigningKeyHandle handle = service.acquire(ca)) {
+            assertEquals("pem", handle.getProviderName());
+        }
+        assertEquals(1, registry.get("pki.signing.key.load").tags("provider", "pem", "outcome", "success").timer().count());
+
+        service.invalidate(ca.id);
+        assertThrows(RuntimeException.class, () -> service.acquire(ca));
+    }
+
+    /**
+     * Jeton SoftHSM local :
+     * softhsm2-util --init-token --free --label pki --pin 1234 --so-pin 1234
+     * PKI_TEST_PKCS11_CONFIG=/chemin/softhsm.cfg PKI_TEST_PKCS11_PIN=1234 mvn test -Dtest=SigningKeyServiceTest
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "PKI_TEST_PKCS11_CONFIG", matches = ".+")
+    void acquire_pkcs11Key_signsOnTokenWithinSessionLimit() throws Exception {
+        Pkcs11SigningKeyProvider token = new Pkcs11SigningKeyProvider();
+        ReflectionTestUtils.setField(token, "configPath", System.getenv("PKI_TEST_PKCS11_CONFIG"));
+        ReflectionTestUtils.setField(token, "pin", System.getenv().getOrDefault("PKI_TEST_PKCS11_PIN", "1234"));
+        ReflectionTestUtils.setField(token, "maxSessions", 1);
+        token.init();
+        SigningKeyService service = new SigningKeyService(List.of(token, new PemFileSigningKeyProvider()), registry);
+        ReflectionTestUtils.setField(service, "sessionTimeoutMs", 100L);
+
+        KeyPair kp = keyPairPool.take(KeyProfile.RSA_2048);
+        X509Certificate caCert = new JcaX509CertificateConverter().getCertificate(
+                new SigningEngine().sign(builder(kp), kp.getPrivate()));
+        CAConfiguration ca = caWithPemKey(kp);
+        ca.caKeyPath = service.importToToken("pki-test-" + ca.id, kp.getPrivate(), caCert);
+
+        try (SigningKeyHandle handle = service.acquire(ca)) {
+            assertEquals("pkcs11", handle.getProviderName());
+            assertEquals(1, handle.getMaxParallelism());
+            // Une seule session : une seconde réservation expire
+            assertThrows(RuntimeException.class, () -> service.acquire(ca));
+            X509CertificateHolder signed = new SigningEngine().sign(builder(kp), handle);
+            assertTrue(signed.isSignatureValid(new JcaContentVerifierProviderBuilder().build(kp.getPublic())));
+        }
+        service.acquire(ca).close();
+    }
+
+    private CAConfiguration caWithPemKey(KeyPair kp) throws Exception {
+        CAConfiguration ca = new CAConfiguration();
+        ca.id = UUID.randomUUID();
+        ca.caName = "Test CA";
+        Path keyPath = caStore.resolve("test_ca.key.pem");
+        try (JcaPEMWriter pw = new JcaPEMWriter(Files.newBufferedWriter(keyPath))) {
+            pw.writeObject(kp.getPrivate());
+        }
+        ca.caKeyPath = keyPath.toString();
+        ca.caCertPath = caStore.resolve("test_ca.crt.pem").toString();
+        return ca;
+    }
+
+    private static JcaX509v3CertificateBuilder builder(KeyPair kp) {
+        X500Name name = new X500Name("CN=Test CA, O=PKI Souverain, C=CM");
+        return new JcaX509v3CertificateBuilder(name, BigInteger.ONE, Date.from(Instant.now()),
+                Date.from(Instant.now().plusSeconds(3600)), name, kp.getPublic());
+    }
+}
@@ -0,0 +1,110 @@
+package cm.gov.pki.service;
+
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.cert.X509CRLHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingCrlWriterTest {
+
+    @TempDir
+    Path dir;
+
+    // RSA PKCS#1 v1.5 : signature déterministe, les deux encodages doivent être identiques octet pour octet
+    private final KeyPair caKey = new KeyPairPool().take(KeyProfile.RSA_2048);
+    private final X500Name issuer = new X500Name("CN=Test CA,O=PKI");
+    private final Date thisUpdate = Date.from(Instant.parse("2026-01-01T00:00:00Z"));
+    private final Date nextUpdate = Date.from(Instant.parse("2026-01-08T00:00:00Z"));
+
+    @Test
+    void finish_matchesBouncyCastleEncodingAndSignature() throws Exception {
+        Extensions extensions = new Extensions(new Extension(Extension.cRLNumber, false,
+                new CRLNumber(BigInteger.valueOf(42)).getEncoded(ASN1Encoding.DER)));
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(issuer, thisUpdate);
+        builder.setNextUpdate(nextUpdate);
+        builder.addExtension(extensions.getExtension(Extension.cRLNumber));
+
+        Path der = dir.resolve("test.crl");
+        StreamingCrlWriter.Result result;
+        // Assez d'entrées pour des longueurs DER sur plusieurs octets
+        SplittableRandom random = new SplittableRandom(1);
+        try (StreamingCrlWriter writer = new StreamingCrlWriter(dir)) {
+            for (int i = 0; i < 5_000; i++) {
+                BigInteger serial = new BigInteger(64 + random.nextInt(96), new Random(random.nextLong()));
+                Date revokedAt = Date.from(Instant.parse("2025-06-01T00:00:00Z").plusSeconds(random.nextInt(10_000_000)));
+                builder.addCRLEntry(serial, revokedAt, 0);
+                writer.add(serial, revokedAt);
+            }
+            result = writer.finish(der, issuer, thisUpdate, nextUpdate, extensions, signer());
+        }
+
+        byte[] expected = builder.build(signer()).getEncoded();
+        byte[] streamed = Files.readAllBytes(der);
+        assertArrayEquals(expected, streamed);
+        assertEquals(5_000, result.entries());
+        assertEquals(streamed.length, result.sizeBytes());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(streamed)), result.sha256());
+
+        X509CRLHolder crl = new X509CRLHolder(streamed);
+        assertTrue(crl.isSignatureValid(new JcaContentVerifierProviderBuilder().build(caKey.getPublic())));
+        assertEquals(5_000, crl.getRevokedCertificates().size());
+        // Fichier temporaire des entrées supprimé
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void emptyCrlWithoutExtensions_andPemMatchesJcaPemWriter() throws Exception {
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(issuer, thisUpdate);
+        Path der = dir.resolve("empty.crl");
+        try (StreamingCrlWriter writer = new StreamingCrlWriter(dir)) {
+            writer.finish(der, issuer, thisUpdate, null, null, signer());
+        }
+        X509CRLHolder expected = builder.build(signer());
+        assertArrayEquals(expected.getEncoded(), Files.readAllBytes(der));
+
+        Path pem = dir.resolve("empty.crl.pem");
+        StreamingCrlWriter.writePem(der, pem);
+        StringWriter sw = new StringWriter();
+        try (JcaPEMWriter pw = new JcaPEMWriter(sw)) {
+            pw.writeObject(expected);
+        }
+        assertEquals(sw.toString(), Files.readString(pem, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void header_usesLongFormAbove127Bytes() {
+        assertArrayEquals(new byte[]{0x30, 0x7f}, StreamingCrlWriter.header(0x30, 127));
+        assertArrayEquals(new byte[]{0x30, (byte) 0x81, (byte) 0x80}, StreamingCrlWriter.header(0x30, 128));
+        assertArrayEquals(new byte[]{0x30, (byte) 0x83, 0x01, 0x00, 0x00}, StreamingCrlWriter.header(0x30, 65_536));
+    }
+
+    private ContentSigner signer() throws Exception {
+        return new JcaContentSignerBuilder("SHA256withRSA").build(caKey.getPrivate());
+    }
+}
@@ -0,0 +1,179 @@
+package cm.gov.pki.util;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PemCodecTest {
+
+    private static final KeyPair KEY = ecKeyPair();
+    private static final X509CertificateHolder CERT = selfSigned("CN=Test CA");
+
+    @Test
+    void encode_matchesJcaPemWriterForAllPaddings() throws Exception {
+        Random random = new Random(42);
+        for (int length = 0; length <= 200; length++) {
+            byte[] der = new byte[length];
+            random.nextBytes(der);
+            assertEquals(jcaPem("X509 CRL", der), PemCodec.encode(PemCodec.X509_CRL, der), "longueur " + length);
+        }
+        assertEquals(jcaPem("CERTIFICATE", CERT.getEncoded()), PemCodec.encode(PemCodec.CERTIFICATE, CERT.getEncoded()));
+    }
+
+    @Test
+    void decode_readsCrlfAndSkipsSurroundingText() throws Exception {
+        String pem = "Subject: CN=Test CA\r\n" + jcaPem("CERTIFICATE", CERT.getEncoded()).replace("\n", "\r\n") + "trailer";
+
+        PemCodec.Block block = PemCodec.decodeFirst(pem);
+
+        assertEquals(PemCodec.CERTIFICATE, block.type());
+        assertArrayEquals(CERT.getEncoded(), block.der());
+        assertArrayEquals(CERT.getEncoded(), PemCodec.decode(pem, PemCodec.CERTIFICATE));
+        assertThrows(IllegalArgumentException.class, () -> PemCodec.decode(pem, PemCodec.X509_CRL));
+        assertThrows(IllegalArgumentException.class, () -> PemCodec.decodeFirst("pas de PEM"));
+    }
+
+    @Test
+    void decodeAll_returnsChainInOrder() throws Exception {
+        X509CertificateHolder other = selfSigned("CN=Autre AC");
+        byte[] chain = PemCodec.encodeToBytes(PemCodec.CERTIFICATE, CERT.getEncoded());
+        byte[] second = PemCodec.encodeToBytes(PemCodec.CERTIFICATE, other.getEncoded());
+        byte[] both = new byte[chain.length + second.length];
+        System.arraycopy(chain, 0, both, 0, chain.length);
+        System.arraycopy(second, 0, both, chain.length, second.length);
+
+        List<PemCodec.Block> blocks = PemCodec.decodeAll(both);
+
+        assertEquals(2, blocks.size());
+        assertArrayEquals(other.getEncoded(), blocks.get(1).der());
+        try (PEMParser parser = new PEMParser(new StringReader(new String(both)))) {
+            assertEquals(CERT, parser.readObject());
+            assertEquals(other, parser.readObject());
+        }
+    }
+
+    @Test
+    void readCertificate_acceptsPemAndDerFiles(@TempDir Path dir) throws Exception {
+        Path pem = Files.write(dir.resolve("ca.crt.pem"), PemCodec.encodeToBytes(PemCodec.CERTIFICATE, CERT.getEncoded()));
+        Path der = Files.write(dir.resolve("ca.crt"), CERT.getEncoded());
+
+        assertEquals(CERT, PemCodec.readCertificate(pem));
+        assertEquals(CERT, PemCodec.readCertificate(der));
+    }
+
+    @Test
+    void parseCertificationRequest_acceptsLegacyLabel() throws Exception {
+        byte[] csr = new JcaPKCS10CertificationRequestBuilder(new X500Name("CN=Titulaire"), KEY.getPublic())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(KEY.getPrivate())).getEncoded();
+
+        assertArrayEquals(csr, PemCodec.parseCertificationRequest(PemCodec.encode("NEW CERTIFICATE REQUEST", csr)).getEncoded());
+        assertArrayEquals(csr, PemCodec.parseCertificationRequest(PemCodec.encode(PemCodec.CERTIFICATE_REQUEST, csr)).getEncoded());
+        assertThrows(IllegalArgumentException.class,
+                () -> PemCodec.parseCertificationRequest(PemCodec.encode(PemCodec.CERTIFICATE, CERT.getEncoded())));
+    }
+
+    @Test
+    void hex_matchesPerByteFormatting() throws Exception {
+        byte[] digest = new byte[32];
+        new Random(7).nextBytes(digest);
+
+        assertEquals(formatHex(digest), PemCodec.hex(digest));
+        assertEquals(formatHex(digest).toUpperCase().replaceAll("(..)(?!$)", "$1:"), PemCodec.colonHex(digest));
+        assertEquals(64, PemCodec.fingerprintSha256(CERT.getEncoded()).length());
+    }
+
+    /**
+     * Encodage PEM et empreintes : PemCodec contre JcaPEMWriter et String.format. Échoue si PemCodec
+     * n'est pas au moins 2 fois plus rapide en PEM et 10 fois plus rapide en hexadécimal.
+     * mvn test -Dtest=PemCodecTest -Dpki.benchmarks=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "pki.benchmarks", matches = "true")
+    void benchmark_againstJcaPemWriterAndStringFormat() throws Exception {
+        byte[] der = CERT.getEncoded();
+        int iterations = 200_000;
+        double pemSpeedup = 0;
+        double hexSpeedup = 0;
+        for (int round = 0; round < 2; round++) { // le premier tour sert de chauffe
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) jcaPem("CERTIFICATE", der);
+            long jca = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) PemCodec.encode(PemCodec.CERTIFICATE, der);
+            long codec = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) formatHex(der);
+            long format = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) PemCodec.hex(der);
+            long hex = System.nanoTime() - start;
+            pemSpeedup = (double) jca / codec;
+            hexSpeedup = (double) format / hex;
+            System.out.printf("PEM  JcaPEMWriter=%d ns/op  PemCodec=%d ns/op  speedup=%.1fx%n",
+                    jca / iterations, codec / iterations, pemSpeedup);
+            System.out.printf("hex  String.format=%d ns/op  PemCodec=%d ns/op  speedup=%.1fx%n",
+                    format / iterations, hex / iterations, hexSpeedup);
+        }
+        assertTrue(pemSpeedup >= 2, String.format("PEM : speedup %.1fx, 2x attendu au minimum", pemSpeedup));
+        assertTrue(hexSpeedup >= 10, String.format("hex : speedup %.1fx, 10x attendu au minimum", hexSpeedup));
+    }
+
+    // Sortie de référence, fins de ligne normalisées
+    private static String jcaPem(String type, byte[] der) throws Exception {
+        StringWriter sw = new StringWriter();
+        try (JcaPEMWriter pw = new JcaPEMWriter(sw)) {
+            pw.writeObject(new PemObject(type, der));
+        }
+        return sw.toString().replace(System.lineSeparator(), "\n");
+    }
+
+    // Approche historique des empreintes (CAService)
+    private static String formatHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+
+    private static KeyPair ecKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(256);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static X509CertificateHolder selfSigned(String dn) {
+        try {
+            X500Name name = new X500Name(dn);
+            return new JcaX509v3CertificateBuilder(name, BigInteger.ONE, Date.from(Instant.now()),
+                    Date.from(Instant.now().plusSeconds(86400)), name, KEY.getPublic())
+                    .build(new JcaContentSignerBuilder("SHA256withECDSA").build(KEY.getPrivate()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}